@@ -0,0 +1,41 @@
+package shift.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Provides returned data object for a shift
+ */
+@Builder
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ResultShiftDto {
+    private Long id;
+    private String user;
+
+    // ISO-8601 date, i.e. 2018-11-30
+    private String date;
+    // display times, i.e. 01:30 PM. Left out when minute fields were requested
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String startTime;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String endTime;
+
+    // minutes since midnight (0-1439), set instead of the display times when requested
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer startMinute;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer endMinute;
+
+    // set instead of the id for an occurrence of a recurring shift template
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long templateId;
+}
@@ -5,6 +5,8 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 import org.hibernate.validator.constraints.Range;
 
+import java.time.LocalDate;
+
 /**
  * Provides input data object for searching shifts
  */
@@ -17,6 +19,12 @@ import org.hibernate.validator.constraints.Range;
 @Data
 public class SearchShiftDto {
 
+    // inclusive; the search is not limited by date when null
+    private LocalDate fromDate;
+
+    // inclusive; the search is not limited by date when null
+    private LocalDate toDate;
+
     @Range(max = 23, message = "Shift hour can only be between 0-23")
     private int fromStartHour;
 
@@ -28,4 +36,14 @@ public class SearchShiftDto {
 
     @Range(max = 59, message = "Shift minute can only be between 0-59")
     private int toEndMinute;
+
+    // returns every matching shift when null
+    @Range(min = 1, max = 1000, message = "Shift page size can only be between 1-1000")
+    private Integer limit;
+
+    // cursor returned with the previous page
+    private String after;
+
+    // returns the start and end minutes of the day instead of the display times
+    private boolean minuteFields;
 }
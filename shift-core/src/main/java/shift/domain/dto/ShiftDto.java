@@ -7,6 +7,7 @@ import lombok.*;
 import org.hibernate.validator.constraints.Range;
 
 import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
 
 /**
  * Provides input data object for managing shifts
@@ -25,6 +26,9 @@ public class ShiftDto {
 
     private String username;
 
+    // defaults to today when creating a shift, and to the shift's current date when updating it
+    private LocalDate date;
+
     @Range(max = 23, message = "Shift hour can be between 0-23")
     @NotNull
     private Integer startHour;
@@ -0,0 +1,62 @@
+package shift.domain.h2.Shift;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Provides conversions between times and minutes of the day (0-1439).
+ * Every minute's {@link LocalTime} and display string is computed once, so reading and rendering shifts does not allocate.
+ */
+public final class MinuteOfDay {
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private static final DateTimeFormatter DISPLAY_FORMATTER = DateTimeFormatter.ofPattern("hh:mm a");
+    private static final LocalTime[] TIMES = new LocalTime[MINUTES_PER_DAY];
+    private static final String[] DISPLAY_TIMES = new String[MINUTES_PER_DAY];
+
+    static {
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            TIMES[minute] = LocalTime.of(minute / 60, minute % 60);
+            DISPLAY_TIMES[minute] = TIMES[minute].format(DISPLAY_FORMATTER);
+        }
+    }
+
+    private MinuteOfDay() {
+    }
+
+    /**
+     * Converts a time to its minute of the day. Seconds are dropped, as shifts are only set to the minute
+     * @param time the time to convert
+     * @return the number of minutes since midnight
+     */
+    public static int of(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    /**
+     * Gets the time at the given minute of the day
+     * @param minute the number of minutes since midnight
+     * @return the shared {@link LocalTime} for the minute
+     */
+    public static LocalTime toLocalTime(int minute) {
+        return TIMES[minute];
+    }
+
+    /**
+     * Gets the display string of a time (i.e. 01:30 PM)
+     * @param time the time to format
+     * @return the shared display string for the time's minute
+     */
+    public static String format(LocalTime time) {
+        return format(of(time));
+    }
+
+    /**
+     * Gets the display string of a minute of the day (i.e. 01:30 PM)
+     * @param minute the number of minutes since midnight
+     * @return the shared display string for the minute
+     */
+    public static String format(int minute) {
+        return DISPLAY_TIMES[minute];
+    }
+}
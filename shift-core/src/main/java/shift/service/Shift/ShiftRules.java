@@ -0,0 +1,72 @@
+package shift.service.Shift;
+
+import shift.domain.dto.ShiftDto;
+import shift.exception.ShiftIllegalArgumentException;
+
+import java.time.LocalTime;
+
+/**
+ * Validation rules for shifts that need no stored data, shared by the servlet and reactive services.
+ * Nothing here blocks, so the rules can run on any thread.
+ */
+public final class ShiftRules {
+
+    private ShiftRules() {
+    }
+
+    /**
+     * Validates a shift's start and end time
+     * @param shiftDto the {@link ShiftDto} to validate
+     * @throws ShiftIllegalArgumentException when a time is missing, or the shift does not end after it starts
+     * @throws java.time.DateTimeException when an hour or minute is out of range
+     */
+    public static void validateTimes(ShiftDto shiftDto) throws ShiftIllegalArgumentException {
+        if (shiftDto.getStartHour() == null || shiftDto.getStartMinute() == null ||
+                shiftDto.getEndHour() == null || shiftDto.getEndMinute() == null) {
+            throw new ShiftIllegalArgumentException("Shifts must have a start and end time.");
+        }
+
+        LocalTime startTime = getStartTime(shiftDto);
+        LocalTime endTime = getEndTime(shiftDto);
+
+        if (startTime.equals(endTime)) {
+            throw new ShiftIllegalArgumentException("Shifts must have a different start and end time range.");
+        }
+        if (endTime.isBefore(startTime)) {
+            throw new ShiftIllegalArgumentException("A shift's end time cannot be before a shift's start time.");
+        }
+    }
+
+    /**
+     * @param shiftDto a validated {@link ShiftDto}
+     * @return the shift's start time
+     */
+    public static LocalTime getStartTime(ShiftDto shiftDto) {
+        return LocalTime.of(shiftDto.getStartHour(), shiftDto.getStartMinute());
+    }
+
+    /**
+     * @param shiftDto a validated {@link ShiftDto}
+     * @return the shift's end time
+     */
+    public static LocalTime getEndTime(ShiftDto shiftDto) {
+        return LocalTime.of(shiftDto.getEndHour(), shiftDto.getEndMinute());
+    }
+
+    /**
+     * Checks if two time ranges of the same day overlap.
+     * Shifts may share endpoints (i.e. one shift can end at 1:30pm and another can start at 1:30pm)
+     * @return true if the ranges overlap
+     */
+    public static boolean isOverlapping(LocalTime startTime, LocalTime endTime, LocalTime otherStartTime, LocalTime otherEndTime) {
+        return startTime.isBefore(otherEndTime) && otherStartTime.isBefore(endTime);
+    }
+
+    /**
+     * @param username the user whose shift overlaps
+     * @return the message of the {@link ShiftIllegalArgumentException} rejecting an overlapping shift
+     */
+    public static String getOverlapMessage(String username) {
+        return "This shift overlaps with an existing shift for username " + username;
+    }
+}
@@ -0,0 +1,56 @@
+package shift.service;
+
+import org.junit.Test;
+import shift.domain.dto.ShiftDto;
+import shift.exception.ShiftIllegalArgumentException;
+import shift.service.Shift.ShiftRules;
+
+import java.time.LocalTime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ShiftRulesTest {
+
+    @Test
+    public void testValidTimes() {
+        ShiftDto shiftDto = getShiftDto(8, 30, 17, 0);
+
+        ShiftRules.validateTimes(shiftDto);
+
+        assertEquals(LocalTime.of(8, 30), ShiftRules.getStartTime(shiftDto));
+        assertEquals(LocalTime.of(17, 0), ShiftRules.getEndTime(shiftDto));
+    }
+
+    @Test(expected = ShiftIllegalArgumentException.class)
+    public void testMissingTime() {
+        ShiftRules.validateTimes(ShiftDto.builder().startHour(8).startMinute(0).endHour(17).build());
+    }
+
+    @Test(expected = ShiftIllegalArgumentException.class)
+    public void testSameStartAndEndTime() {
+        ShiftRules.validateTimes(getShiftDto(8, 0, 8, 0));
+    }
+
+    @Test(expected = ShiftIllegalArgumentException.class)
+    public void testEndBeforeStart() {
+        ShiftRules.validateTimes(getShiftDto(17, 0, 8, 0));
+    }
+
+    @Test
+    public void testSharedEndpointsDoNotOverlap() {
+        assertFalse(ShiftRules.isOverlapping(LocalTime.of(8, 0), LocalTime.of(13, 30), LocalTime.of(13, 30), LocalTime.of(17, 0)));
+        assertTrue(ShiftRules.isOverlapping(LocalTime.of(8, 0), LocalTime.of(13, 31), LocalTime.of(13, 30), LocalTime.of(17, 0)));
+    }
+
+    // encapsulation
+    private ShiftDto getShiftDto(int startHour, int startMinute, int endHour, int endMinute) {
+        return ShiftDto.builder()
+                .startHour(startHour)
+                .startMinute(startMinute)
+                .endHour(endHour)
+                .endMinute(endMinute)
+                .build();
+    }
+}
@@ -0,0 +1,71 @@
+#!/usr/bin/env bash
+# Compares the servlet and reactive shift services under the same load: p99 latency from hey, and the peak
+# resident memory of each java process sampled while the load runs.
+#
+# Start both services first, with the same app.jwtSecret:
+#   ./gradlew bootRun                      (servlet, port 8080)
+#   ./gradlew -p shift-reactive run        (reactive, port 8081)
+# then run this script. Needs hey (https://github.com/rakyll/hey), curl and lsof.
+#
+#   CONNECTIONS=5000 DURATION=60s SHIFTS=200 ./compare.sh
+set -euo pipefail
+
+CONNECTIONS=${CONNECTIONS:-5000}
+DURATION=${DURATION:-60s}
+SHIFTS=${SHIFTS:-200}
+SERVLET_URL=${SERVLET_URL:-http://localhost:8080}
+REACTIVE_URL=${REACTIVE_URL:-http://localhost:8081}
+SEARCH_PATH=${SEARCH_PATH:-/shifts/users/employee}
+
+# every connection holds a socket on both ends
+ulimit -n $((CONNECTIONS * 2 + 1024))
+
+TOKEN=$(curl -sf -H 'Content-Type: application/json' -d '{"username":"manager","password":"manager"}' \
+    "$SERVLET_URL/auth/token/generate-token" | sed -E 's/.*"token":"([^"]+)".*/\1/')
+AUTHORIZATION="Authorization: Bearer $TOKEN"
+
+# the same shifts on both services, one per day so none overlap
+seed() {
+    local url=$1
+    for ((i = 0; i < SHIFTS; i++)); do
+        curl -sf -o /dev/null -H "$AUTHORIZATION" -H 'Content-Type: application/json' \
+            -d "{\"username\":\"employee\",\"date\":\"$(date -d "2018-01-01 + $i day" +%F)\",\"startHour\":9,\"startMinute\":0,\"endHour\":17,\"endMinute\":0}" \
+            "$url/shifts" || true
+    done
+}
+
+# peak resident memory of a process in MB, sampled every second until the sampler is stopped
+sample_rss() {
+    local pid=$1 out=$2 peak=0 rss
+    while kill -0 "$pid" 2>/dev/null; do
+        rss=$(ps -o rss= -p "$pid" | tr -d ' ')
+        ((rss > peak)) && peak=$rss
+        echo $((peak / 1024)) > "$out"
+        sleep 1
+    done
+}
+
+run() {
+    local name=$1 url=$2
+    local port=${url##*:}
+    local pid
+    pid=$(lsof -ti "tcp:${port%%/*}" -sTCP:LISTEN | head -1)
+    local rss_file
+    rss_file=$(mktemp)
+
+    seed "$url"
+    sample_rss "$pid" "$rss_file" &
+    local sampler=$!
+    local report
+    report=$(hey -z "$DURATION" -c "$CONNECTIONS" -H "$AUTHORIZATION" "$url$SEARCH_PATH")
+    kill "$sampler"
+
+    echo "== $name ($url$SEARCH_PATH, $CONNECTIONS connections, $DURATION)"
+    echo "$report" | grep -E 'Requests/sec|99% in'
+    echo "$report" | sed -n '/Status code distribution/,/^$/p'
+    echo "  peak RSS: $(cat "$rss_file") MB"
+    rm -f "$rss_file"
+}
+
+run servlet "$SERVLET_URL"
+run reactive "$REACTIVE_URL"
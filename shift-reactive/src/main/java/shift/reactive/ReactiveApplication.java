@@ -0,0 +1,16 @@
+package shift.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Reactive variant of the shift service, serving the same /shifts endpoints on WebFlux and R2DBC.
+ * Shares its dtos, exceptions and validation rules with the servlet service through shift-core.
+ */
+@SpringBootApplication
+public class ReactiveApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveApplication.class, args);
+    }
+}
@@ -0,0 +1,166 @@
+package shift.reactive.controller;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import shift.domain.dto.ResultShiftDto;
+import shift.domain.dto.SearchShiftDto;
+import shift.domain.dto.ShiftDto;
+import shift.exception.ShiftIllegalArgumentException;
+import shift.exception.ShiftNotFoundException;
+import shift.reactive.service.ReactiveShiftService;
+
+import javax.validation.Valid;
+import java.time.LocalDate;
+
+/**
+ * Provides the servlet service's endpoints for viewing and managing single shifts and searching shifts, without blocking.
+ * Searches return every matching shift as json; paging, entity tags and the binary encodings are only served by the servlet service.
+ */
+@RestController
+@RequestMapping("/shifts")
+public class ReactiveShiftController {
+    private ReactiveShiftService shiftService;
+
+    public ReactiveShiftController(ReactiveShiftService shiftService) {
+        this.shiftService = shiftService;
+    }
+
+    /**
+     * Gets all shifts in the database. Only a manager can access this endpoint.
+     * Takes search params that are given in integers for a 24-hour clock.
+     * @param fromDate the first date of the search request, i.e. 2018-11-30. Not limited when not given
+     * @param toDate the last date of the search request. Not limited when not given
+     * @param fromStartHour the beginning hour of the search request. Defaults to 0 (12am)
+     * @param fromStartMinute the beginning minute of the search request. Defaults to 0
+     * @param toEndHour the end hour of the search request. Defaults to 23 (11pm)
+     * @param toEndMinute the end hour of the search request. Defaults to 59
+     * @param minuteFields true to return the start and end minutes of the day instead of the display times. Defaults to false
+     * @return A list of {@link ResultShiftDto} shifts
+     */
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    @GetMapping("/all")
+    public Flux<ResultShiftDto> getAllShifts(@RequestParam(value = "fromDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+                                             @RequestParam(value = "toDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+                                             @RequestParam(value = "fromStartHour", defaultValue = "0", required = false) int fromStartHour,
+                                             @RequestParam(value = "fromStartMinute", defaultValue = "0", required = false) int fromStartMinute,
+                                             @RequestParam(value = "toEndHour", defaultValue = "23", required = false) int toEndHour,
+                                             @RequestParam(value = "toEndMinute", defaultValue = "59", required = false) int toEndMinute,
+                                             @RequestParam(value = "minuteFields", defaultValue = "false", required = false) boolean minuteFields) {
+        return shiftService.getAllShifts(getSearchShiftDto(fromDate, toDate, fromStartHour, fromStartMinute, toEndHour, toEndMinute, minuteFields));
+    }
+
+    /**
+     * Creates a shift. Only a manager can access this endpoint
+     * @param shiftDto A {@link ShiftDto} with shift parameters and user the shift is being created for
+     * @return {@link ResultShiftDto} to confirm how the shift was created.
+     * @throws UsernameNotFoundException when the given username does not exist
+     * @throws ShiftIllegalArgumentException when the shift overlaps with another existing shift for the specified user
+     */
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    @PostMapping("")
+    public Mono<ResultShiftDto> createShift(@Valid @RequestBody ShiftDto shiftDto) {
+        return shiftService.createShift(shiftDto);
+    }
+
+    /**
+     * Gets a single shift from the database.
+     * Only managers and employees can access this endpoint.
+     * @param shiftId the unique id of the shift
+     * @return A {@link ResultShiftDto}
+     * @throws ShiftNotFoundException when no shift with the given id exists
+     */
+    @PreAuthorize("hasAnyRole('ROLE_MANAGER, ROLE_EMPLOYEE')")
+    @GetMapping("/{shiftId}")
+    public Mono<ResultShiftDto> getShift(@PathVariable(value = "shiftId") long shiftId) {
+        return shiftService.getShift(shiftId);
+    }
+
+    /**
+     * Updates a shift. Only a manager can access this endpoint.
+     * @param shiftId a unique id of the shift to update
+     * @param shiftDto A {@link ShiftDto} with shift parameters. Username is ignored here and taken from the existing shift.
+     * @return {@link ResultShiftDto} to confirm how the shift was updated.
+     * @throws ShiftIllegalArgumentException when the shift overlaps with another existing shift for the specified user
+     * @throws ShiftNotFoundException when no shift with the given id exists
+     */
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    @PutMapping("/{shiftId}")
+    public Mono<ResultShiftDto> updateShift(@PathVariable(value = "shiftId") long shiftId, @Valid @RequestBody ShiftDto shiftDto) {
+        return shiftService.updateShift(shiftId, shiftDto);
+    }
+
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    @DeleteMapping("/{shiftId}")
+    public Mono<Void> deleteShift(@PathVariable(value = "shiftId") long shiftId) {
+        return shiftService.deleteShift(shiftId);
+    }
+
+    /**
+     * Search all shifts for currently logged in user. Only managers and employees can access this endpoint.
+     * Takes search params that are given in integers for a 24-hour clock.
+     * @param fromDate the first date of the search request, i.e. 2018-11-30. Not limited when not given
+     * @param toDate the last date of the search request. Not limited when not given
+     * @param fromStartHour the beginning hour of the search request. Defaults to 0 (12am)
+     * @param fromStartMinute the beginning minute of the search request. Defaults to 0
+     * @param toEndHour the end hour of the search request. Defaults to 23 (11pm)
+     * @param toEndMinute the end hour of the search request. Defaults to 59
+     * @param minuteFields true to return the start and end minutes of the day instead of the display times. Defaults to false
+     * @return A list of {@link ResultShiftDto} shifts
+     */
+    @PreAuthorize("hasAnyRole('ROLE_MANAGER, ROLE_EMPLOYEE')")
+    @GetMapping("")
+    public Flux<ResultShiftDto> getAllCurrentUserShifts(@RequestParam(value = "fromDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+                                                        @RequestParam(value = "toDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+                                                        @RequestParam(value = "fromStartHour", defaultValue = "0", required = false) int fromStartHour,
+                                                        @RequestParam(value = "fromStartMinute", defaultValue = "0", required = false) int fromStartMinute,
+                                                        @RequestParam(value = "toEndHour", defaultValue = "23", required = false) int toEndHour,
+                                                        @RequestParam(value = "toEndMinute", defaultValue = "59", required = false) int toEndMinute,
+                                                        @RequestParam(value = "minuteFields", defaultValue = "false", required = false) boolean minuteFields) {
+        return shiftService.searchShifts(null, getSearchShiftDto(fromDate, toDate, fromStartHour, fromStartMinute, toEndHour, toEndMinute, minuteFields));
+    }
+
+    /**
+     * Search all shifts for a specific user. Only managers can access this endpoint.
+     * Takes search params that are given in integers for a 24-hour clock.
+     * @param username the username for which shifts are being searched
+     * @param fromDate the first date of the search request, i.e. 2018-11-30. Not limited when not given
+     * @param toDate the last date of the search request. Not limited when not given
+     * @param fromStartHour the beginning hour of the search request. Defaults to 0 (12am)
+     * @param fromStartMinute the beginning minute of the search request. Defaults to 0
+     * @param toEndHour the end hour of the search request. Defaults to 23 (11pm)
+     * @param toEndMinute the end hour of the search request. Defaults to 59
+     * @param minuteFields true to return the start and end minutes of the day instead of the display times. Defaults to false
+     * @return A list of {@link ResultShiftDto} shifts
+     * @throws UsernameNotFoundException when the given username does not exist
+     */
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    @GetMapping("/users/{username}")
+    public Flux<ResultShiftDto> getAllShiftsForUser(@PathVariable(value = "username") String username,
+                                                    @RequestParam(value = "fromDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+                                                    @RequestParam(value = "toDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+                                                    @RequestParam(value = "fromStartHour", defaultValue = "0", required = false) int fromStartHour,
+                                                    @RequestParam(value = "fromStartMinute", defaultValue = "0", required = false) int fromStartMinute,
+                                                    @RequestParam(value = "toEndHour", defaultValue = "23", required = false) int toEndHour,
+                                                    @RequestParam(value = "toEndMinute", defaultValue = "59", required = false) int toEndMinute,
+                                                    @RequestParam(value = "minuteFields", defaultValue = "false", required = false) boolean minuteFields) {
+        return shiftService.searchShifts(username, getSearchShiftDto(fromDate, toDate, fromStartHour, fromStartMinute, toEndHour, toEndMinute, minuteFields));
+    }
+
+    // encapsulation
+    private SearchShiftDto getSearchShiftDto(LocalDate fromDate, LocalDate toDate, int fromStartHour, int fromStartMinute, int toEndHour, int toEndMinute,
+                                             boolean minuteFields) {
+        return SearchShiftDto.builder()
+                .fromDate(fromDate)
+                .toDate(toDate)
+                .fromStartHour(fromStartHour)
+                .fromStartMinute(fromStartMinute)
+                .toEndHour(toEndHour)
+                .toEndMinute(toEndMinute)
+                .minuteFields(minuteFields)
+                .build();
+    }
+}
@@ -0,0 +1,31 @@
+package shift.reactive.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+
+/**
+ * A row of the shift table. Start and end times are stored as minutes of the day, like the servlet service stores them
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table("shift")
+public class ShiftRow {
+    @Id
+    private Long id;
+
+    private String username;
+
+    private LocalDate shiftDate;
+
+    // minutes since midnight (0-1439)
+    private Short startTime;
+    private Short endTime;
+}
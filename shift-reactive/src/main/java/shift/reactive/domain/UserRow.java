@@ -0,0 +1,19 @@
+package shift.reactive.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * A user who can be given shifts. Users log in through the servlet service, so only their usernames are kept here
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Table("users")
+public class UserRow {
+    @Id
+    private String username;
+}
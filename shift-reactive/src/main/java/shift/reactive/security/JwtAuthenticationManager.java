@@ -0,0 +1,69 @@
+package shift.reactive.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Authenticates a bearer token issued by the servlet service from its signed claims alone,
+ * like the servlet service does with app.jwtStatelessAuthentication=true.
+ * Verifying a token is a short computation, so it runs on the calling thread without touching the database.
+ */
+@Component
+public class JwtAuthenticationManager implements ReactiveAuthenticationManager {
+    private static final String AUTHORITIES_KEY = "authorities";
+
+    private final String jwtSecret;
+
+    public JwtAuthenticationManager(@Value("${app.jwtSecret}") String jwtSecret) {
+        this.jwtSecret = jwtSecret;
+    }
+
+    /**
+     * @param authentication an {@link Authentication} holding the token as its credentials
+     * @return the token's user and authorities
+     * @throws BadCredentialsException in the returned {@link Mono} when the token is invalid or expired
+     */
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        String token = (String) authentication.getCredentials();
+        try {
+            Claims claims = Jwts.parser()
+                    .setSigningKey(jwtSecret)
+                    .parseClaimsJws(token)
+                    .getBody();
+            if (claims.getExpiration() == null || System.currentTimeMillis() >= claims.getExpiration().getTime()) {
+                return Mono.error(new BadCredentialsException("Invalid or expired token given."));
+            }
+            return Mono.just(new UsernamePasswordAuthenticationToken(claims.getSubject(), token, getAuthorities(claims)));
+        } catch (JwtException | IllegalArgumentException ex) {
+            return Mono.error(new BadCredentialsException("Invalid or expired token given.", ex));
+        }
+    }
+
+    // encapsulation
+    private List<GrantedAuthority> getAuthorities(Claims claims) {
+        String authorities = claims.get(AUTHORITIES_KEY, String.class);
+        if (StringUtils.isEmpty(authorities)) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(authorities.split(","))
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,248 @@
+package shift.reactive.service;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import shift.domain.dto.ResultShiftDto;
+import shift.domain.dto.SearchShiftDto;
+import shift.domain.dto.ShiftDto;
+import shift.domain.h2.Shift.MinuteOfDay;
+import shift.exception.ShiftIllegalArgumentException;
+import shift.exception.ShiftNotFoundException;
+import shift.reactive.domain.ShiftRow;
+import shift.reactive.domain.UserRow;
+import shift.service.Shift.ShiftRules;
+
+import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Provides methods for viewing and managing shifts without blocking, with the same rules as the servlet service's ShiftService.
+ * Recurring shift templates are not read here, so only stored shifts are searched and checked for overlaps.
+ */
+@Service
+public class ReactiveShiftService {
+    private static final String ID_KEY = "id";
+    private static final String USERNAME_KEY = "username";
+    private static final String DATE_KEY = "shiftDate";
+    private static final String START_TIME_KEY = "startTime";
+    private static final String END_TIME_KEY = "endTime";
+    private static final Sort ORDER = Sort.by(DATE_KEY, START_TIME_KEY, ID_KEY);
+
+    private R2dbcEntityTemplate template;
+
+    public ReactiveShiftService(R2dbcEntityTemplate template) {
+        this.template = template;
+    }
+
+    /**
+     * Gets all stored shifts within the given time frame and, when given, date range
+     * @param searchShiftDto the {@link SearchShiftDto} for restricting the search
+     * @return the shifts found, in order of date and start time
+     */
+    public Flux<ResultShiftDto> getAllShifts(@NotNull SearchShiftDto searchShiftDto) {
+        return Mono.fromCallable(() -> getSearchCriteria(Criteria.empty(), searchShiftDto))
+                .flatMapMany(criteria -> findShifts(criteria, searchShiftDto.isMinuteFields()));
+    }
+
+    /**
+     * Gets all stored shifts for a specific user within the given time frame and, when given, date range
+     * @param username the user's shifts that are being searched. The current user's when not given
+     * @param searchShiftDto the {@link SearchShiftDto} for restricting the search
+     * @return the shifts found, in order of date and start time
+     * @throws UsernameNotFoundException in the returned {@link Flux} when the user does not exist
+     */
+    public Flux<ResultShiftDto> searchShifts(String username, @NotNull SearchShiftDto searchShiftDto) {
+        return getCurrentUsername(username)
+                .flatMap(this::validateUser)
+                .flatMapMany(user -> findShifts(getSearchCriteria(Criteria.where(USERNAME_KEY).is(user), searchShiftDto),
+                        searchShiftDto.isMinuteFields()));
+    }
+
+    /**
+     * Gets a single shift from the db.
+     * @param shiftId the unique id of the shift
+     * @return a {@link ResultShiftDto} of the shift
+     * @throws ShiftNotFoundException in the returned {@link Mono} when no shift with the given id is found
+     */
+    public Mono<ResultShiftDto> getShift(long shiftId) {
+        return getShiftFromDb(shiftId).map(this::buildResultShift);
+    }
+
+    /**
+     * Creates a shift, with the same validations as the servlet service except for overlaps with recurring shift templates
+     * @param shiftDto the {@link ShiftDto} providing parameters for creating the shift
+     * @return the result of the shift creation
+     * @throws UsernameNotFoundException in the returned {@link Mono} when the specified user does not exist
+     * @throws ShiftIllegalArgumentException in the returned {@link Mono} when the shift is invalid or overlaps another shift of the user
+     */
+    @Transactional
+    public Mono<ResultShiftDto> createShift(@NotNull ShiftDto shiftDto) {
+        setDefaultDate(shiftDto, LocalDate.now());
+        return getCurrentUsername(shiftDto.getUsername())
+                .flatMap(this::validateUser)
+                .flatMap(username -> validateShift(username, shiftDto, null))
+                .flatMap(username -> template.insert(translateDtoToShift(username, shiftDto)))
+                .map(this::buildResultShift);
+    }
+
+    /**
+     * Updates the date and time of a shift. Any given username is ignored
+     * @param shiftId the shift to be updated
+     * @param shiftDto the updated parameters {@link ShiftDto}. The date is kept when not given
+     * @return the result of the shift update
+     * @throws ShiftNotFoundException in the returned {@link Mono} when no shift with the given id exists
+     * @throws ShiftIllegalArgumentException in the returned {@link Mono} when the shift is invalid or overlaps another shift of the user
+     */
+    @Transactional
+    public Mono<ResultShiftDto> updateShift(long shiftId, @NotNull ShiftDto shiftDto) {
+        return getShiftFromDb(shiftId)
+                .flatMap(existingShift -> {
+                    // updating the username so that we make sure we are validating the correct shift
+                    shiftDto.setUsername(existingShift.getUsername());
+                    setDefaultDate(shiftDto, existingShift.getShiftDate());
+                    return validateShift(existingShift.getUsername(), shiftDto, shiftId)
+                            .map(username -> {
+                                ShiftRow shift = translateDtoToShift(username, shiftDto);
+                                shift.setId(existingShift.getId());
+                                return shift;
+                            });
+                })
+                .flatMap(template::update)
+                .map(this::buildResultShift);
+    }
+
+    /**
+     * Deletes the shift
+     * @param shiftId the id of the shift to be deleted
+     * @return completes once the shift is deleted
+     * @throws ShiftNotFoundException in the returned {@link Mono} when no shift with the given id exists
+     */
+    @Transactional
+    public Mono<Void> deleteShift(long shiftId) {
+        return getShiftFromDb(shiftId)
+                .flatMap(template::delete)
+                .then();
+    }
+
+    // the shared rules need no stored data, so they run on the calling thread before the overlap query
+    private Mono<String> validateShift(String username, ShiftDto shiftDto, Long shiftId) {
+        return Mono.fromRunnable(() -> ShiftRules.validateTimes(shiftDto))
+                .then(isOverlappingShift(username, shiftDto, shiftId))
+                .flatMap(overlapping -> overlapping
+                        ? Mono.error(new ShiftIllegalArgumentException(ShiftRules.getOverlapMessage(username)))
+                        : Mono.just(username));
+    }
+
+    // shifts may share endpoints, as in ShiftRules.isOverlapping; the shift being updated is ignored
+    private Mono<Boolean> isOverlappingShift(String username, ShiftDto shiftDto, Long shiftId) {
+        Criteria criteria = Criteria.where(USERNAME_KEY).is(username)
+                .and(DATE_KEY).is(shiftDto.getDate())
+                .and(START_TIME_KEY).lessThan(toMinute(ShiftRules.getEndTime(shiftDto)))
+                .and(END_TIME_KEY).greaterThan(toMinute(ShiftRules.getStartTime(shiftDto)));
+        if (shiftId != null) {
+            criteria = criteria.and(ID_KEY).not(shiftId);
+        }
+        return template.exists(Query.query(criteria), ShiftRow.class);
+    }
+
+    private Flux<ResultShiftDto> findShifts(Criteria criteria, boolean minuteFields) {
+        return template.select(ShiftRow.class)
+                .matching(Query.query(criteria).sort(ORDER))
+                .all()
+                .map(minuteFields ? this::buildMinuteResultShift : this::buildResultShift);
+    }
+
+    // the date range is optional, and an open end is not filtered
+    private Criteria getSearchCriteria(Criteria criteria, SearchShiftDto searchShiftDto) {
+        criteria = criteria
+                .and(START_TIME_KEY).greaterThanOrEquals(toMinute(convertToTime(searchShiftDto.getFromStartHour(), searchShiftDto.getFromStartMinute())))
+                .and(END_TIME_KEY).lessThanOrEquals(toMinute(convertToTime(searchShiftDto.getToEndHour(), searchShiftDto.getToEndMinute())));
+        if (searchShiftDto.getFromDate() != null) {
+            criteria = criteria.and(DATE_KEY).greaterThanOrEquals(searchShiftDto.getFromDate());
+        }
+        if (searchShiftDto.getToDate() != null) {
+            criteria = criteria.and(DATE_KEY).lessThanOrEquals(searchShiftDto.getToDate());
+        }
+        return criteria;
+    }
+
+    private Mono<ShiftRow> getShiftFromDb(long shiftId) {
+        return template.selectOne(Query.query(Criteria.where(ID_KEY).is(shiftId)), ShiftRow.class)
+                .switchIfEmpty(Mono.error(() -> new ShiftNotFoundException("Unable to find shift with id " + shiftId)));
+    }
+
+    private Mono<String> validateUser(String username) {
+        return template.exists(Query.query(Criteria.where(USERNAME_KEY).is(username)), UserRow.class)
+                .flatMap(exists -> exists
+                        ? Mono.just(username)
+                        : Mono.error(new UsernameNotFoundException("No username exists with username " + username)));
+    }
+
+    // the given username, or the user of the request's token when none is given
+    private Mono<String> getCurrentUsername(String username) {
+        if (!StringUtils.isEmpty(username)) {
+            return Mono.just(username);
+        }
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .map(Authentication::getName);
+    }
+
+    // encapsulation
+    private ShiftRow translateDtoToShift(String username, ShiftDto shiftDto) {
+        return ShiftRow.builder()
+                .username(username)
+                .shiftDate(shiftDto.getDate())
+                .startTime(toMinute(ShiftRules.getStartTime(shiftDto)))
+                .endTime(toMinute(ShiftRules.getEndTime(shiftDto)))
+                .build();
+    }
+
+    // encapsulation
+    private ResultShiftDto buildResultShift(ShiftRow shift) {
+        return ResultShiftDto.builder()
+                .id(shift.getId())
+                .user(shift.getUsername())
+                .date(shift.getShiftDate() != null ? shift.getShiftDate().toString() : null)
+                .startTime(MinuteOfDay.format(shift.getStartTime()))
+                .endTime(MinuteOfDay.format(shift.getEndTime()))
+                .build();
+    }
+
+    // encapsulation
+    private ResultShiftDto buildMinuteResultShift(ShiftRow shift) {
+        return ResultShiftDto.builder()
+                .id(shift.getId())
+                .user(shift.getUsername())
+                .date(shift.getShiftDate() != null ? shift.getShiftDate().toString() : null)
+                .startMinute(shift.getStartTime().intValue())
+                .endMinute(shift.getEndTime().intValue())
+                .build();
+    }
+
+    private void setDefaultDate(ShiftDto shiftDto, LocalDate date) {
+        if (shiftDto.getDate() == null) {
+            shiftDto.setDate(date);
+        }
+    }
+
+    private short toMinute(LocalTime time) {
+        return (short) MinuteOfDay.of(time);
+    }
+
+    private LocalTime convertToTime(int hour, int minute) {
+        return LocalTime.of(hour, minute);
+    }
+}
@@ -0,0 +1,16 @@
+CREATE TABLE IF NOT EXISTS users (
+    username VARCHAR(255) PRIMARY KEY
+);
+
+-- same columns as the servlet service's shift table: times are SMALLINT minutes of the day
+CREATE TABLE IF NOT EXISTS shift (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(255),
+    shift_date DATE NOT NULL,
+    start_time SMALLINT NOT NULL,
+    end_time SMALLINT NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_shift_date_start_time_id ON shift (shift_date, start_time, id);
+CREATE INDEX IF NOT EXISTS idx_shift_username_date_time ON shift (username, shift_date, start_time);
+
+MERGE INTO users (username) KEY (username) VALUES ('manager'), ('employee'), ('user');
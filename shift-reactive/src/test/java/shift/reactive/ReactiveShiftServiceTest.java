@@ -0,0 +1,129 @@
+package shift.reactive;
+
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.r2dbc.connectionfactory.init.ResourceDatabasePopulator;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import reactor.test.StepVerifier;
+import shift.domain.dto.ResultShiftDto;
+import shift.domain.dto.SearchShiftDto;
+import shift.domain.dto.ShiftDto;
+import shift.exception.ShiftIllegalArgumentException;
+import shift.exception.ShiftNotFoundException;
+import shift.reactive.service.ReactiveShiftService;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+
+public class ReactiveShiftServiceTest {
+    private static final LocalDate DATE = LocalDate.of(2018, 11, 30);
+
+    private ReactiveShiftService shiftService;
+
+    @Before
+    public void setUp() {
+        ConnectionFactory connectionFactory = H2ConnectionFactory.inMemory(UUID.randomUUID().toString());
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(connectionFactory).block();
+        shiftService = new ReactiveShiftService(new R2dbcEntityTemplate(DatabaseClient.create(connectionFactory)));
+    }
+
+    @Test
+    public void testCreateShift() {
+        StepVerifier.create(shiftService.createShift(getShiftDto("employee", 8, 12)))
+                .assertNext(shift -> {
+                    assertEquals("employee", shift.getUser());
+                    assertEquals("2018-11-30", shift.getDate());
+                    assertEquals("08:00 AM", shift.getStartTime());
+                    assertEquals("12:00 PM", shift.getEndTime());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void testCreateShiftRejectsInvalidTimes() {
+        StepVerifier.create(shiftService.createShift(getShiftDto("employee", 12, 8)))
+                .verifyErrorMessage("A shift's end time cannot be before a shift's start time.");
+    }
+
+    @Test
+    public void testCreateShiftRejectsUnknownUser() {
+        StepVerifier.create(shiftService.createShift(getShiftDto("nobody", 8, 12)))
+                .verifyError(UsernameNotFoundException.class);
+    }
+
+    @Test
+    public void testOverlappingShiftsAreRejectedAndSharedEndpointsAllowed() {
+        shiftService.createShift(getShiftDto("employee", 8, 12)).block();
+
+        StepVerifier.create(shiftService.createShift(getShiftDto("employee", 11, 14)))
+                .verifyError(ShiftIllegalArgumentException.class);
+        StepVerifier.create(shiftService.createShift(getShiftDto("employee", 12, 14)))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(shiftService.createShift(getShiftDto("manager", 11, 14)))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    public void testUpdateShiftIgnoresItselfWhenCheckingOverlaps() {
+        ResultShiftDto shift = shiftService.createShift(getShiftDto("employee", 8, 12)).block();
+
+        StepVerifier.create(shiftService.updateShift(shift.getId(), getShiftDto(null, 9, 13)))
+                .assertNext(updated -> {
+                    assertEquals(shift.getId(), updated.getId());
+                    assertEquals("employee", updated.getUser());
+                    assertEquals("09:00 AM", updated.getStartTime());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void testSearchShiftsWithinTimeFrameInOrder() {
+        shiftService.createShift(getShiftDto("employee", 14, 18)).block();
+        shiftService.createShift(getShiftDto("employee", 8, 12)).block();
+        shiftService.createShift(getShiftDto("employee", 20, 23)).block();
+        shiftService.createShift(getShiftDto("manager", 8, 12)).block();
+
+        SearchShiftDto searchShiftDto = SearchShiftDto.builder()
+                .fromStartHour(8)
+                .toEndHour(18)
+                .minuteFields(true)
+                .build();
+        StepVerifier.create(shiftService.searchShifts("employee", searchShiftDto))
+                .assertNext(shift -> assertEquals(Integer.valueOf(8 * 60), shift.getStartMinute()))
+                .assertNext(shift -> assertEquals(Integer.valueOf(14 * 60), shift.getStartMinute()))
+                .verifyComplete();
+        StepVerifier.create(shiftService.getAllShifts(searchShiftDto))
+                .expectNextCount(3)
+                .verifyComplete();
+    }
+
+    @Test
+    public void testDeletedShiftIsNotFound() {
+        ResultShiftDto shift = shiftService.createShift(getShiftDto("employee", 8, 12)).block();
+
+        StepVerifier.create(shiftService.deleteShift(shift.getId())).verifyComplete();
+        StepVerifier.create(shiftService.getShift(shift.getId()))
+                .verifyError(ShiftNotFoundException.class);
+    }
+
+    // encapsulation
+    private ShiftDto getShiftDto(String username, int startHour, int endHour) {
+        return ShiftDto.builder()
+                .username(username)
+                .date(DATE)
+                .startHour(startHour)
+                .startMinute(0)
+                .endHour(endHour)
+                .endMinute(0)
+                .build();
+    }
+}
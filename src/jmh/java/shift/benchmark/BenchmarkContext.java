@@ -0,0 +1,94 @@
+package shift.benchmark;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import shift.Application;
+import shift.domain.dao.ShiftRepository;
+import shift.domain.h2.Shift.Shift;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Runs the service against its own in-memory H2 database for benchmarks that go through the service's beans.
+ * Every context gets a fresh database with the default users, and its own change log directory, both removed on close.
+ * Public for the benchmarks that live in the package of the code they measure.
+ */
+public class BenchmarkContext implements AutoCloseable {
+    public static final String[] USERNAMES = {"manager", "employee", "user"};
+    public static final LocalDate FIRST_DATE = LocalDate.of(2018, 1, 1);
+
+    private final Path directory;
+    private final ConfigurableApplicationContext context;
+
+    /**
+     * @param properties additional application properties, i.e. "app.shiftOverlapCheck=database"
+     */
+    public BenchmarkContext(String... properties) {
+        try {
+            directory = Files.createTempDirectory("shift-benchmark");
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        List<String> allProperties = new ArrayList<>(Arrays.asList(
+                "spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "spring.h2.console.enabled=false",
+                "server.port=0",
+                "logging.level.root=WARN",
+                "app.changeLogDirectory=" + directory.resolve("changelog"),
+                "app.shiftStoreSnapshot=" + directory.resolve("shift-store.snapshot")));
+        allProperties.addAll(Arrays.asList(properties));
+        context = new SpringApplicationBuilder(Application.class)
+                .properties(allProperties.toArray(new String[0]))
+                .run();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Stores the given number of shifts for every default user, filling one day after the other from {@link #FIRST_DATE}.
+     * A day's shifts are back to back, each one minute shorter than its slot of the day, so the minute before every slot
+     * start is free, i.e. 2:59 to 3:00 with 8 shifts a day
+     * @param shiftsPerUser the number of shifts per user
+     * @param shiftsPerDay the number of shifts per user on each day; divides the 1440 minutes of a day, at most 720
+     */
+    public void seedShifts(int shiftsPerUser, int shiftsPerDay) {
+        int shiftMinutes = 24 * 60 / shiftsPerDay;
+        ShiftRepository shiftDao = getBean(ShiftRepository.class);
+        for (String username : USERNAMES) {
+            List<Shift> shifts = new ArrayList<>(shiftsPerUser);
+            for (int i = 0; i < shiftsPerUser; i++) {
+                int start = (i % shiftsPerDay) * shiftMinutes;
+                int end = start + shiftMinutes - 1;
+                shifts.add(Shift.builder()
+                        .username(username)
+                        .shiftDate(FIRST_DATE.plusDays(i / shiftsPerDay))
+                        .startTime(LocalTime.of(start / 60, start % 60))
+                        .endTime(LocalTime.of(end / 60, end % 60))
+                        .build());
+            }
+            shiftDao.saveAll(shifts);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+}
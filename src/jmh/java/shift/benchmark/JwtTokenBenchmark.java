@@ -0,0 +1,81 @@
+package shift.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import shift.security.JwtTokenProvider;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures validating a request's token and reading its username.
+ * "repeatToken" sends the same token every time, so it is verified once and then read from the verified token cache;
+ * "newToken" cycles through more tokens than the cache holds, so every token's signature is verified.
+ * "newTokenVerifiedOnce" reads the claims with a single verification, as the authentication filter does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtTokenBenchmark {
+    private static final int CACHE_SIZE = 1024;
+    private static final int TOKEN_COUNT = 4 * CACHE_SIZE;
+
+    private BenchmarkContext context;
+    private JwtTokenProvider tokenProvider;
+    private String[] tokens;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext("app.jwtVerifiedTokenCacheSize=" + CACHE_SIZE);
+        tokenProvider = context.getBean(JwtTokenProvider.class);
+        tokens = new String[TOKEN_COUNT];
+        for (int i = 0; i < TOKEN_COUNT; i++) {
+            tokens[i] = tokenProvider.generateToken(new UsernamePasswordAuthenticationToken("user" + i, null,
+                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_EMPLOYEE"))));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public String repeatToken() {
+        return validateAndGetUsername(tokens[0]);
+    }
+
+    // tokens are read in order, so the least recently used token dropped from the cache is always the next one read
+    @Benchmark
+    public String newToken() {
+        next = (next + 1) % TOKEN_COUNT;
+        return validateAndGetUsername(tokens[next]);
+    }
+
+    @Benchmark
+    public String newTokenVerifiedOnce() {
+        next = (next + 1) % TOKEN_COUNT;
+        return tokenProvider.verifyToken(tokens[next])
+                .orElseThrow(() -> new IllegalStateException("Generated token did not verify"))
+                .getSubject();
+    }
+
+    // encapsulation
+    private String validateAndGetUsername(String token) {
+        if (!tokenProvider.validateToken(token)) {
+            throw new IllegalStateException("Generated token did not validate");
+        }
+        return tokenProvider.getUsernameFromToken(token);
+    }
+}
@@ -0,0 +1,63 @@
+package shift.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import shift.service.Shift.OffHeapShiftStore;
+import shift.service.Shift.ShiftChangedEvent;
+import shift.service.Shift.ShiftInterval;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what a committed change costs the off-heap shift store while it holds its write lock.
+ * A shift created before every other row moves the whole store up one row and its deletion moves it back, the worst case;
+ * a shift created after every other row moves nothing. The difference is the cost of moving {@code shifts} rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OffHeapShiftStoreBenchmark {
+    private static final LocalDate DATE = LocalDate.of(2018, 1, 1);
+
+    @Param({"10000", "100000", "1000000"})
+    public int shifts;
+
+    private OffHeapShiftStore shiftStore;
+    private ShiftInterval first;
+    private ShiftInterval last;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // never loaded or snapshotted, so it needs neither the database nor the snapshot file
+        shiftStore = new OffHeapShiftStore(null, null, Files.createTempDirectory("shift-store-benchmark").resolve("shifts.snapshot").toString());
+        for (int id = 1; id <= shifts; id++) {
+            // created in sorted order, so each one is appended
+            int start = (id % 8) * 3 * 60;
+            shiftStore.onShiftChanged(ShiftChangedEvent.created(new ShiftInterval((long) id, "user", DATE.plusDays(id / 8), start, start + 3 * 60)));
+        }
+        first = new ShiftInterval(shifts + 1L, "user", DATE.minusDays(1), 8 * 60, 12 * 60);
+        last = new ShiftInterval(shifts + 2L, "user", DATE.plusDays(shifts), 8 * 60, 12 * 60);
+    }
+
+    @Benchmark
+    public void createAndDeleteFirstShift() {
+        shiftStore.onShiftChanged(ShiftChangedEvent.created(first));
+        shiftStore.onShiftChanged(ShiftChangedEvent.deleted(first));
+    }
+
+    @Benchmark
+    public void createAndDeleteLastShift() {
+        shiftStore.onShiftChanged(ShiftChangedEvent.created(last));
+        shiftStore.onShiftChanged(ShiftChangedEvent.deleted(last));
+    }
+}
@@ -0,0 +1,94 @@
+package shift.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import shift.config.VirtualThreads;
+import shift.domain.h2.Shift.MinuteOfDay;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares request throughput on Tomcat's default pool of 200 platform threads against a virtual thread per request,
+ * with more requests in flight than the pool has threads.
+ * Each request waits {@code ioMillis} for a database or network round trip, then renders a shift's times. Each operation
+ * starts {@code concurrency} requests at once and waits for all of them; the "requests" counter is the requests completed per second.
+ * The virtual executor needs Java 21 or later: run with -PjmhJvm=/path/to/jdk-21/bin/java
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RequestExecutorBenchmark {
+    // server.tomcat.max-threads default
+    private static final int PLATFORM_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String executor;
+
+    @Param({"200", "1000", "5000"})
+    public int concurrency;
+
+    @Param({"10"})
+    public int ioMillis;
+
+    private ExecutorService requestExecutor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        requestExecutor = "virtual".equals(executor) ? VirtualThreads.newExecutor("request-") : Executors.newFixedThreadPool(PLATFORM_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        requestExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public void handleRequests(RequestCounter counter) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            int minute = i % (MinuteOfDay.MINUTES_PER_DAY - 1);
+            requestExecutor.execute(() -> {
+                try {
+                    Thread.sleep(ioMillis);
+                    counter.render(minute);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        counter.requests += concurrency;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RequestCounter {
+        public long requests;
+
+        // read by no one; keeps the rendering from being optimized away
+        private volatile int rendered;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            requests = 0;
+        }
+
+        void render(int minute) {
+            rendered = MinuteOfDay.format(minute).length() + MinuteOfDay.format(minute + 1).length();
+        }
+    }
+}
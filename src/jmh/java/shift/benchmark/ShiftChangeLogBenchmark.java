@@ -0,0 +1,76 @@
+package shift.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import shift.service.Shift.ShiftChangeLog;
+import shift.service.Shift.ShiftChangeRecord;
+import shift.service.Shift.ShiftInterval;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Measures the throughput of the shift change log.
+ * "append" is what a committed change costs its request thread; sustained long enough, it runs at the speed of the writer thread.
+ * "appendAndAwaitSync" waits for each record to reach the disk, so its throughput shows how many records share one sync
+ * as the number of threads grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ShiftChangeLogBenchmark {
+    private static final LocalDate DATE = LocalDate.of(2018, 11, 30);
+
+    private final AtomicLong nextId = new AtomicLong();
+    private Path directory;
+    private ShiftChangeLog shiftChangeLog;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("shift-changelog-benchmark");
+        shiftChangeLog = new ShiftChangeLog(directory.toString(), 64 * 1024 * 1024, 10000, 1000);
+        shiftChangeLog.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        shiftChangeLog.stop();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long append() {
+        return shiftChangeLog.append(nextRecord());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void appendAndAwaitSync() throws InterruptedException {
+        shiftChangeLog.awaitSynced(shiftChangeLog.append(nextRecord()));
+    }
+
+    // encapsulation
+    private ShiftChangeRecord nextRecord() {
+        long id = nextId.incrementAndGet();
+        ShiftInterval previous = new ShiftInterval(id, "user" + (id & 63), DATE, 8 * 60, 12 * 60);
+        ShiftInterval current = new ShiftInterval(id, "user" + (id & 63), DATE, 9 * 60, 13 * 60);
+        return new ShiftChangeRecord(System.currentTimeMillis(), "manager", id, previous, current);
+    }
+}
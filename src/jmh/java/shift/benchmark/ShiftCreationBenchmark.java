@@ -0,0 +1,97 @@
+package shift.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import shift.domain.dto.BatchResultShiftDto;
+import shift.domain.dto.ResultShiftDto;
+import shift.domain.dto.ShiftDto;
+import shift.service.Shift.ShiftService;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares creating {@code shifts} shifts with one createShifts call, which validates them together and saves them in
+ * batched inserts, against the same shifts created with one createShift call each, which saves each in its own transaction.
+ * Every operation fills a new date with back to back shifts of one user, so no shift overlaps and each date's overlap
+ * checks cost the same however many shifts earlier operations stored.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ShiftCreationBenchmark {
+    private static final String USERNAME = "employee";
+
+    // 1440 minutes a day, so shifts last 144, 14 and 2 minutes
+    @Param({"10", "100", "500"})
+    public int shifts;
+
+    private BenchmarkContext context;
+    private ShiftService shiftService;
+    private LocalDate nextDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext();
+        shiftService = context.getBean(ShiftService.class);
+        nextDate = BenchmarkContext.FIRST_DATE;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BatchResultShiftDto> createShifts() {
+        List<BatchResultShiftDto> results = shiftService.createShifts(nextDay());
+        for (BatchResultShiftDto result : results) {
+            if (!result.isSuccess()) {
+                throw new IllegalStateException(result.getError());
+            }
+        }
+        return results;
+    }
+
+    @Benchmark
+    public List<ResultShiftDto> createShiftOneByOne() {
+        List<ResultShiftDto> results = new ArrayList<>(shifts);
+        for (ShiftDto shiftDto : nextDay()) {
+            results.add(shiftService.createShift(shiftDto));
+        }
+        return results;
+    }
+
+    // encapsulation
+    private List<ShiftDto> nextDay() {
+        LocalDate date = nextDate;
+        nextDate = nextDate.plusDays(1);
+
+        int shiftMinutes = 24 * 60 / shifts;
+        List<ShiftDto> shiftDtos = new ArrayList<>(shifts);
+        for (int i = 0; i < shifts; i++) {
+            int start = i * shiftMinutes;
+            int end = start + shiftMinutes - 1;
+            shiftDtos.add(ShiftDto.builder()
+                    .username(USERNAME)
+                    .date(date)
+                    .startHour(start / 60)
+                    .startMinute(start % 60)
+                    .endHour(end / 60)
+                    .endMinute(end % 60)
+                    .build());
+        }
+        return shiftDtos;
+    }
+}
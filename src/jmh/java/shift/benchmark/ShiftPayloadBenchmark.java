@@ -0,0 +1,96 @@
+package shift.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import shift.domain.dto.ResultShiftDto;
+import shift.domain.h2.Shift.MinuteOfDay;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the json, Smile and CBOR encodings of a page of shifts, with display times or with minute fields.
+ * Each operation encodes or decodes a whole page of {@value #SHIFT_COUNT} shifts. The encoded size of each page is printed
+ * once per trial, ahead of the measurements.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ShiftPayloadBenchmark {
+    private static final int SHIFT_COUNT = 10000;
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"false", "true"})
+    public boolean minuteFields;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<ResultShiftDto> shifts;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = getObjectMapper();
+        CollectionType pageType = objectMapper.getTypeFactory().constructCollectionType(List.class, ResultShiftDto.class);
+        writer = objectMapper.writerFor(pageType);
+        reader = objectMapper.readerFor(pageType);
+
+        Random random = new Random(42);
+        LocalDate date = LocalDate.of(2018, 11, 30);
+        shifts = new ArrayList<>(SHIFT_COUNT);
+        for (int i = 0; i < SHIFT_COUNT; i++) {
+            int start = random.nextInt(MinuteOfDay.MINUTES_PER_DAY - 1);
+            int end = start + 1 + random.nextInt(MinuteOfDay.MINUTES_PER_DAY - start - 1);
+            ResultShiftDto.ResultShiftDtoBuilder shift = ResultShiftDto.builder()
+                    .id((long) i)
+                    .user("user" + (i % 100))
+                    .date(date.plusDays(i % 28).toString());
+            shifts.add(minuteFields
+                    ? shift.startMinute(start).endMinute(end).build()
+                    : shift.startTime(MinuteOfDay.format(start)).endTime(MinuteOfDay.format(end)).build());
+        }
+
+        payload = writer.writeValueAsBytes(shifts);
+        System.out.println(format + (minuteFields ? " with minute fields" : "") + ": " + payload.length + " bytes per page");
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return writer.writeValueAsBytes(shifts);
+    }
+
+    @Benchmark
+    public List<ResultShiftDto> decode() throws IOException {
+        return reader.readValue(payload);
+    }
+
+    // encapsulation
+    private ObjectMapper getObjectMapper() {
+        switch (format) {
+            case "smile":
+                return Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor":
+                return Jackson2ObjectMapperBuilder.cbor().build();
+            default:
+                return Jackson2ObjectMapperBuilder.json().build();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package shift.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import shift.domain.dto.ResultShiftDto;
+import shift.domain.h2.Shift.MinuteOfDay;
+import shift.domain.h2.Shift.MinuteOfDayConverter;
+import shift.domain.h2.Shift.Shift;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of reading and rendering one shift.
+ * Each operation handles a single shift, so gc.alloc.rate.norm from the gc profiler is the number of bytes allocated per returned shift.
+ * The "pattern" benchmarks reproduce the previous rendering, which built a {@link DateTimeFormatter} for every formatted time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ShiftRenderingBenchmark {
+    private static final int SHIFT_COUNT = 1024;
+
+    private final MinuteOfDayConverter converter = new MinuteOfDayConverter();
+    private Shift[] shifts;
+    private Short[] storedMinutes; // boxed, as handed over by the JDBC driver
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        shifts = new Shift[SHIFT_COUNT];
+        storedMinutes = new Short[SHIFT_COUNT];
+        for (int i = 0; i < SHIFT_COUNT; i++) {
+            int start = random.nextInt(MinuteOfDay.MINUTES_PER_DAY - 1);
+            int end = start + 1 + random.nextInt(MinuteOfDay.MINUTES_PER_DAY - start - 1);
+            shifts[i] = Shift.builder()
+                    .id((long) i)
+                    .username("user" + (i % 16))
+                    .startTime(LocalTime.of(start / 60, start % 60))
+                    .endTime(LocalTime.of(end / 60, end % 60))
+                    .build();
+            storedMinutes[i] = (short) start;
+        }
+    }
+
+    @Benchmark
+    public ResultShiftDto renderWithPattern() {
+        Shift shift = nextShift();
+        return ResultShiftDto.builder()
+                .id(shift.getId())
+                .user(shift.getUsername())
+                .startTime(shift.getStartTime().format(DateTimeFormatter.ofPattern("hh:mm a")))
+                .endTime(shift.getEndTime().format(DateTimeFormatter.ofPattern("hh:mm a")))
+                .build();
+    }
+
+    @Benchmark
+    public ResultShiftDto renderWithTable() {
+        Shift shift = nextShift();
+        return ResultShiftDto.builder()
+                .id(shift.getId())
+                .user(shift.getUsername())
+                .startTime(MinuteOfDay.format(shift.getStartTime()))
+                .endTime(MinuteOfDay.format(shift.getEndTime()))
+                .build();
+    }
+
+    @Benchmark
+    public LocalTime readWithLocalTimeOf() {
+        int minute = storedMinutes[nextIndex()];
+        return LocalTime.of(minute / 60, minute % 60);
+    }
+
+    @Benchmark
+    public LocalTime readWithConverter() {
+        return converter.convertToEntityAttribute(storedMinutes[nextIndex()]);
+    }
+
+    // encapsulation
+    private Shift nextShift() {
+        return shifts[nextIndex()];
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (SHIFT_COUNT - 1);
+        return next;
+    }
+}
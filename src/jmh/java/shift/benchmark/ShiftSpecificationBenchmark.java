@@ -0,0 +1,81 @@
+package shift.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.jpa.domain.Specification;
+import shift.domain.h2.SearchCriteria;
+import shift.domain.h2.Shift.Shift;
+import shift.domain.h2.Shift.ShiftSpecification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building the criteria queries of shift searches and overlap checks from {@link ShiftSpecification}s,
+ * as Spring Data does for every query: a new criteria query and root, and a predicate from each specification.
+ * Nothing is executed, so the size of the database does not matter here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ShiftSpecificationBenchmark {
+    private static final LocalDate DATE = LocalDate.of(2018, 11, 30);
+
+    private BenchmarkContext context;
+    private EntityManager entityManager;
+    private CriteriaBuilder builder;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new BenchmarkContext();
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        builder = entityManager.getCriteriaBuilder();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        entityManager.close();
+        context.close();
+    }
+
+    // a user's shifts within a time frame and date range, as searched by ShiftService.searchShifts
+    @Benchmark
+    public Predicate searchSpecification() {
+        return toPredicate(Specification.where(new ShiftSpecification(new SearchCriteria("username", ":", "employee")))
+                .and(new ShiftSpecification(new SearchCriteria("startTime", ">:", LocalTime.of(8, 0))))
+                .and(new ShiftSpecification(new SearchCriteria("endTime", "<:", LocalTime.of(17, 0))))
+                .and(new ShiftSpecification(new SearchCriteria("shiftDate", ">:", DATE)))
+                .and(new ShiftSpecification(new SearchCriteria("shiftDate", "<:", DATE.plusDays(6)))));
+    }
+
+    // the shifts overlapping an updated shift, as checked with app.shiftOverlapCheck=database
+    @Benchmark
+    public Predicate overlapSpecification() {
+        return toPredicate(Specification.where(new ShiftSpecification(new SearchCriteria("shiftDate", ":", DATE)))
+                .and(new ShiftSpecification(new SearchCriteria("username", ":", "employee")))
+                .and(new ShiftSpecification(new SearchCriteria("overlaps", LocalTime.of(8, 0), LocalTime.of(12, 0))))
+                .and(new ShiftSpecification(new SearchCriteria("id", "!:", 1L))));
+    }
+
+    // encapsulation
+    private Predicate toPredicate(Specification<Shift> specification) {
+        CriteriaQuery<Shift> query = builder.createQuery(Shift.class);
+        Root<Shift> root = query.from(Shift.class);
+        return specification.toPredicate(root, query, builder);
+    }
+}
@@ -0,0 +1,97 @@
+package shift.service.Shift;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.support.AopUtils;
+import shift.benchmark.BenchmarkContext;
+import shift.domain.dto.ShiftDto;
+import shift.exception.ShiftIllegalArgumentException;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overlap validation of a new shift against a database seeded with a growing number of shifts per user,
+ * with the in-memory index and with one query per check (app.shiftOverlapCheck).
+ * Both checks only read the user's shifts on the shift's date, so their cost follows {@code shiftsPerDay}; {@code shiftsPerUser}
+ * grows the tables and indexes they search. Lives in the service's package to call its overlap check directly.
+ * "overlapping" and "free" check a shift that overlaps a stored shift and one that fits between two, in the middle of the day;
+ * "createOverlappingShift" is the whole rejected create, including the user lookup and the exception.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ShiftValidationBenchmark {
+    private static final String USERNAME = "employee";
+
+    @Param({"index", "database"})
+    public String overlapCheck;
+
+    @Param({"1000", "10000"})
+    public int shiftsPerUser;
+
+    // 3-hour, 15-minute and 3-minute shifts
+    @Param({"8", "96", "480"})
+    public int shiftsPerDay;
+
+    private BenchmarkContext context;
+    private ShiftService shiftService;
+    private ShiftService shiftServiceTarget;
+    private LocalDate date;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new BenchmarkContext("app.shiftOverlapCheck=" + overlapCheck);
+        context.seedShifts(shiftsPerUser, shiftsPerDay);
+        shiftService = context.getBean(ShiftService.class);
+        // the check is not transactional, so it is called on the service itself rather than its transactional proxy
+        shiftServiceTarget = AopUtils.isAopProxy(shiftService) ? (ShiftService) ((Advised) shiftService).getTargetSource().getTarget() : shiftService;
+        // a full day in the middle of the seeded ones
+        date = BenchmarkContext.FIRST_DATE.plusDays(shiftsPerUser / shiftsPerDay / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    // every shift length divides 12:00, so a shift starts at 12:00
+    @Benchmark
+    public boolean overlapping() {
+        return shiftServiceTarget.isOverlappingShift(USERNAME, date, LocalTime.NOON, LocalTime.of(12, 1), null);
+    }
+
+    // and the shift before it leaves the minute from 11:59 to 12:00 free
+    @Benchmark
+    public boolean free() {
+        return shiftServiceTarget.isOverlappingShift(USERNAME, date, LocalTime.of(11, 59), LocalTime.NOON, null);
+    }
+
+    @Benchmark
+    public String createOverlappingShift() {
+        try {
+            shiftService.createShift(ShiftDto.builder()
+                    .username(USERNAME)
+                    .date(date)
+                    .startHour(12)
+                    .startMinute(0)
+                    .endHour(12)
+                    .endMinute(1)
+                    .build());
+            throw new IllegalStateException("The overlapping shift was created");
+        } catch (ShiftIllegalArgumentException ex) {
+            return ex.getMessage();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package shift.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * Configures a primary connection pool for writes and a read pool for read-only transactions, see {@link ReadWriteRoutingDataSource}.
+ * <p>
+ * The primary pool is configured by the usual spring.datasource properties, the read pool by app.datasource.read.
+ * Without an app.datasource.read.url the read pool connects to the primary database, which keeps reads and writes on separate
+ * pools for local development and tests without a second copy of the data. Point it at a replica to take reads off the primary.
+ * </p>
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties primaryDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.read")
+    public DataSourceProperties readDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource() {
+        HikariDataSource dataSource = primaryDataSourceProperties().initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.read.hikari")
+    public HikariDataSource readDataSource() {
+        DataSourceProperties readProperties = readDataSourceProperties();
+        if (!StringUtils.hasText(readProperties.getUrl())) {
+            DataSourceProperties primaryProperties = primaryDataSourceProperties();
+            readProperties.setUrl(primaryProperties.getUrl());
+            readProperties.setUsername(primaryProperties.getUsername());
+            readProperties.setPassword(primaryProperties.getPassword());
+            readProperties.setDriverClassName(primaryProperties.getDriverClassName());
+        }
+
+        HikariDataSource dataSource = readProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReadWriteRoutingDataSource.READ);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource() {
+        return new ReadWriteRoutingDataSource(primaryDataSource(), readDataSource());
+    }
+
+    /**
+     * @return the data source used by JPA and JDBC, routing each transaction once it knows whether it is read-only
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource() {
+        return new LazyConnectionDataSourceProxy(routingDataSource());
+    }
+}
@@ -0,0 +1,65 @@
+package shift.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import shift.domain.dto.DataSourceStatsDto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends connections for read-only transactions to the read pool, and every other connection to the primary pool.
+ * <p>
+ * The transaction's read-only flag is only known once the transaction has started, so this data source must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which fetches the real connection on the first statement.
+ * Every connection handed out is counted against the pool that served it.
+ * </p>
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY = "primary";
+    public static final String READ = "read";
+
+    private final Map<String, HikariDataSource> pools = new HashMap<>();
+    private final Map<String, LongAdder> connections = new HashMap<>();
+
+    public ReadWriteRoutingDataSource(HikariDataSource primaryDataSource, HikariDataSource readDataSource) {
+        pools.put(PRIMARY, primaryDataSource);
+        pools.put(READ, readDataSource);
+        pools.keySet().forEach(pool -> connections.put(pool, new LongAdder()));
+
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(primaryDataSource);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String pool = TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? READ : PRIMARY;
+        connections.get(pool).increment();
+        return pool;
+    }
+
+    /**
+     * @return a {@link DataSourceStatsDto} per pool, with the connections it served and its current state
+     */
+    public List<DataSourceStatsDto> getStats() {
+        List<DataSourceStatsDto> stats = new ArrayList<>();
+        for (String pool : new String[] { PRIMARY, READ }) {
+            HikariDataSource dataSource = pools.get(pool);
+            // the pool's bean is only available once it has opened its first connection
+            HikariPoolMXBean poolBean = dataSource.getHikariPoolMXBean();
+            stats.add(DataSourceStatsDto.builder()
+                    .pool(pool)
+                    .url(dataSource.getJdbcUrl())
+                    .connectionsServed(connections.get(pool).sum())
+                    .activeConnections(poolBean != null ? poolBean.getActiveConnections() : 0)
+                    .idleConnections(poolBean != null ? poolBean.getIdleConnections() : 0)
+                    .build());
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,52 @@
+package shift.config;
+
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Runs Tomcat's request handling on virtual threads when app.virtualThreads=true.
+ * <p>
+ * Requests mostly wait on the database, so a platform thread per request limits the number of requests in progress to
+ * server.tomcat.max-threads, and raising it costs a thread stack per request. A virtual thread is parked while it waits, and
+ * its carrier thread handles other requests meanwhile. The limit on concurrent database work is then the connection pool,
+ * and requests beyond it wait for a connection instead of a thread. Needs Java 21 or later at runtime; startup fails otherwise.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.virtualThreads", havingValue = "true")
+public class VirtualThreadConfig {
+    private ExecutorService requestExecutor;
+
+    // the executor's class is internal to java.base, so the context cannot call its shutdown method reflectively
+    @Bean(destroyMethod = "")
+    public ExecutorService requestExecutor() {
+        requestExecutor = VirtualThreads.newExecutor("http-virtual-");
+        return requestExecutor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (requestExecutor != null) {
+            requestExecutor.shutdown();
+        }
+    }
+
+    // Tomcat does not stop an executor it was given, so the executor bean is shut down by the context
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadTomcatCustomizer(ExecutorService requestExecutor) {
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            ProtocolHandler protocolHandler = connector.getProtocolHandler();
+            if (protocolHandler instanceof AbstractProtocol) {
+                ((AbstractProtocol<?>) protocolHandler).setExecutor(requestExecutor);
+            }
+        });
+    }
+}
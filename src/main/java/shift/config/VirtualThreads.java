@@ -0,0 +1,52 @@
+package shift.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates executors that start a virtual thread per task.
+ * <p>
+ * The service is compiled for Java 8, so virtual threads are reached through reflection and are only available when the
+ * service runs on Java 21 or later. The same build runs with platform threads on older runtimes.
+ * </p>
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if the running JVM supports virtual threads
+     */
+    public static boolean isSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates an executor that runs each task on a new virtual thread. Tasks are never queued or rejected for lack of threads,
+     * so limits on concurrent work have to come from the resources the tasks use (i.e. the connection pool)
+     * @param namePrefix the name of the started threads, followed by a counter
+     * @return the executor, to be shut down by the caller
+     * @throws IllegalStateException when the running JVM does not support virtual threads
+     */
+    public static ExecutorService newExecutor(String namePrefix) throws IllegalStateException {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+
+            Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Virtual threads need Java 21 or later, running on Java " + System.getProperty("java.version"), ex);
+        }
+    }
+}
@@ -16,6 +16,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import shift.service.User.UserDetailsServiceImpl;
+import shift.service.User.UserService;
 import shift.security.JwtAuthenticationEntryPoint;
 import shift.security.JwtAuthenticationFilter;
 import shift.security.JwtTokenProvider;
@@ -31,18 +32,20 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
     private UserDetailsServiceImpl userDetailsService;
     private JwtAuthenticationEntryPoint unauthorizedHandler;
     private JwtTokenProvider jwtTokenProvider;
+    private UserService userService;
 
     @Autowired
     public WebSecurityConfig(UserDetailsServiceImpl userDetailsService, JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint,
-                             JwtTokenProvider jwtTokenProvider) {
+                             JwtTokenProvider jwtTokenProvider, UserService userService) {
         this.userDetailsService = userDetailsService;
         this.unauthorizedHandler = jwtAuthenticationEntryPoint;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.userService = userService;
     }
 
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(jwtTokenProvider, userDetailsService);
+        return new JwtAuthenticationFilter(jwtTokenProvider, userDetailsService, userService);
     }
 
     @Override
@@ -7,7 +7,6 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
@@ -16,12 +15,15 @@ import shift.domain.h2.User.User;
 import shift.domain.security.AuthToken;
 import shift.domain.security.Registration;
 import shift.domain.security.UserLogin;
+import shift.exception.ServiceOverloadedException;
 import shift.security.JwtTokenProvider;
+import shift.service.User.PasswordHashingExecutor;
 import shift.service.User.UserService;
 
 import javax.validation.Valid;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -35,69 +37,78 @@ public class AuthenticationController {
     private JwtTokenProvider tokenProvider;
     private UserService userService;
     private PasswordEncoder bCryptPasswordEncoder;
+    private PasswordHashingExecutor passwordHashingExecutor;
 
     @Autowired
     public AuthenticationController(AuthenticationManager authenticationManager,
                                     JwtTokenProvider tokenProvider,
                                     UserService userService,
-                                    PasswordEncoder bCryptPasswordEncoder) {
+                                    PasswordEncoder bCryptPasswordEncoder,
+                                    PasswordHashingExecutor passwordHashingExecutor) {
         this.authenticationManager = authenticationManager;
         this.tokenProvider = tokenProvider;
         this.userService = userService;
         this.bCryptPasswordEncoder = bCryptPasswordEncoder;
+        this.passwordHashingExecutor = passwordHashingExecutor;
     }
 
     /**
      * Gets a generated token for the user logging in.
+     * The password is verified on the {@link PasswordHashingExecutor} so that request threads are not held by BCrypt.
      * @param userLogin {@link UserLogin} object for signing in
      * @return A JWT token
      * @throws AuthenticationException If the username and/or password is invalid
+     * @throws ServiceOverloadedException If too many logins and registrations are already waiting
      */
     @PostMapping("/token/generate-token")
-    public ResponseEntity login(@RequestBody UserLogin userLogin) throws AuthenticationException {
-
-        final Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        userLogin.getUsername(),
-                        userLogin.getPassword()
-                )
-        );
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        final String token = tokenProvider.generateToken(authentication);
-
-        List<String> authorities = authentication.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.toList());
-
-        return ResponseEntity.ok(new AuthToken(token, authorities));
+    public CompletableFuture<ResponseEntity<AuthToken>> login(@RequestBody UserLogin userLogin) throws AuthenticationException, ServiceOverloadedException {
+        return passwordHashingExecutor.supply(() -> {
+            final Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            userLogin.getUsername(),
+                            userLogin.getPassword()
+                    )
+            );
+
+            final String token = tokenProvider.generateToken(authentication);
+
+            List<String> authorities = authentication.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .collect(Collectors.toList());
+
+            return ResponseEntity.ok(new AuthToken(token, authorities));
+        });
     }
 
     /**
      * Registers a user to use the application.
+     * The password is hashed on the {@link PasswordHashingExecutor} so that request threads are not held by BCrypt.
      * @param registration {@link Registration} object for registering the user
      * @return A success message
      * @throws SecurityException when the given username already exists
+     * @throws ServiceOverloadedException If too many logins and registrations are already waiting
      */
     @PostMapping("/register")
-    public String register(@Valid @RequestBody Registration registration) throws SecurityException {
-        String username = registration.getUsername();
-
-        try {
-            userService.getUserByUsername(registration.getUsername());
-            throw new SecurityException("A user already exists with this username.");
-        } catch (UsernameNotFoundException ex) {
-            String password = bCryptPasswordEncoder.encode(registration.getPassword());
-            registration.setPassword(password);
-
-            Set<Role> roles = registration.getAuthorities().stream()
-                    .map(authority -> new Role(authority.name()))
-                    .collect(Collectors.toSet());
-
-            userService.createUser(getUser(username, password, roles));
-        }
-
-        return "User has successfully been created. username = " + username;
+    public CompletableFuture<String> register(@Valid @RequestBody Registration registration) throws SecurityException, ServiceOverloadedException {
+        return passwordHashingExecutor.supply(() -> {
+            String username = registration.getUsername();
+
+            try {
+                userService.getUserByUsername(registration.getUsername());
+                throw new SecurityException("A user already exists with this username.");
+            } catch (UsernameNotFoundException ex) {
+                String password = bCryptPasswordEncoder.encode(registration.getPassword());
+                registration.setPassword(password);
+
+                Set<Role> roles = registration.getAuthorities().stream()
+                        .map(authority -> new Role(authority.name()))
+                        .collect(Collectors.toSet());
+
+                userService.createUser(getUser(username, password, roles));
+            }
+
+            return "User has successfully been created. username = " + username;
+        });
     }
 
     // encapsulation
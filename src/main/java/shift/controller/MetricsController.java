@@ -0,0 +1,97 @@
+package shift.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import shift.config.ReadWriteRoutingDataSource;
+import shift.domain.dto.DataSourceStatsDto;
+import shift.domain.dto.ShiftChangeLogStatsDto;
+import shift.domain.dto.ShiftPageCacheStatsDto;
+import shift.domain.dto.ShiftStoreStatsDto;
+import shift.domain.security.TokenCacheStats;
+import shift.security.VerifiedTokenCache;
+import shift.service.Shift.OffHeapShiftStore;
+import shift.service.Shift.ShiftChangeLog;
+import shift.service.Shift.ShiftPageCache;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Provides endpoints for monitoring the application
+ */
+@RestController
+@RequestMapping("/app/metrics")
+public class MetricsController {
+
+    private VerifiedTokenCache verifiedTokenCache;
+    private ReadWriteRoutingDataSource routingDataSource;
+    private Optional<OffHeapShiftStore> shiftStore;
+    private ShiftPageCache shiftPageCache;
+    private ShiftChangeLog shiftChangeLog;
+
+    @Autowired
+    public MetricsController(VerifiedTokenCache verifiedTokenCache, ReadWriteRoutingDataSource routingDataSource,
+                             Optional<OffHeapShiftStore> shiftStore, ShiftPageCache shiftPageCache, ShiftChangeLog shiftChangeLog) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.routingDataSource = routingDataSource;
+        this.shiftStore = shiftStore;
+        this.shiftPageCache = shiftPageCache;
+        this.shiftChangeLog = shiftChangeLog;
+    }
+
+    /**
+     * Gets the hit and miss counters of the verified token cache. Only managers can access this endpoint
+     * @return {@link TokenCacheStats} of the verified token cache
+     */
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    @GetMapping("/token-cache")
+    public TokenCacheStats getTokenCacheStats() {
+        return verifiedTokenCache.getStats();
+    }
+
+    /**
+     * Gets the number of connections served by the primary and read connection pools, and their current state.
+     * Only managers can access this endpoint
+     * @return A {@link DataSourceStatsDto} per connection pool
+     */
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    @GetMapping("/datasource")
+    public List<DataSourceStatsDto> getDataSourceStats() {
+        return routingDataSource.getStats();
+    }
+
+    /**
+     * Gets the size of the off-heap shift store when searches use it. Only managers can access this endpoint
+     * @return {@link ShiftStoreStatsDto} of the store answering shift searches
+     */
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    @GetMapping("/shift-store")
+    public ShiftStoreStatsDto getShiftStoreStats() {
+        return shiftStore.map(OffHeapShiftStore::getStats)
+                .orElse(ShiftStoreStatsDto.builder().store("jpa").build());
+    }
+
+    /**
+     * Gets the hit and miss counters of the cache of serialized shift pages. Only managers can access this endpoint
+     * @return {@link ShiftPageCacheStatsDto} of the shift page cache
+     */
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    @GetMapping("/shift-page-cache")
+    public ShiftPageCacheStatsDto getShiftPageCacheStats() {
+        return shiftPageCache.getStats();
+    }
+
+    /**
+     * Gets the number of shift changes logged, spilled and lost, and why the log writer is failing if it is.
+     * Only managers can access this endpoint
+     * @return {@link ShiftChangeLogStatsDto} of the shift change log
+     */
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    @GetMapping("/change-log")
+    public ShiftChangeLogStatsDto getChangeLogStats() {
+        return shiftChangeLog.getStats();
+    }
+}
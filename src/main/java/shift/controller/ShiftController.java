@@ -1,18 +1,43 @@
 package shift.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import shift.domain.dto.AvailabilityWindowDto;
+import shift.domain.dto.BatchResultShiftDto;
+import shift.domain.dto.BulkShiftDto;
+import shift.domain.dto.CoverageBucketDto;
 import shift.domain.dto.ResultShiftDto;
+import shift.domain.dto.ResultShiftPageDto;
 import shift.domain.dto.SearchShiftDto;
+import shift.domain.dto.ShiftChangeDto;
 import shift.domain.dto.ShiftDto;
+import shift.exception.ServiceOverloadedException;
 import shift.exception.ShiftIllegalArgumentException;
 import shift.exception.ShiftNotFoundException;
+import shift.service.Shift.ShiftAvailability;
+import shift.service.Shift.ShiftChangeFeed;
+import shift.service.Shift.ShiftChangeLog;
+import shift.service.Shift.ShiftCoverage;
+import shift.service.Shift.ShiftPageCache;
 import shift.service.Shift.ShiftService;
+import shift.service.Shift.ShiftTimeline;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Provides endpoints for managing shifts
@@ -20,30 +45,138 @@ import java.util.List;
 @RestController
 @RequestMapping("/shifts")
 public class ShiftController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+    private static final String SMILE_CONTENT_TYPE = "application/x-jackson-smile";
+    private static final String CBOR_CONTENT_TYPE = "application/cbor";
 
     private ShiftService shiftService;
+    private ShiftCoverage shiftCoverage;
+    private ShiftTimeline shiftTimeline;
+    private ShiftAvailability shiftAvailability;
+    private ShiftChangeLog shiftChangeLog;
+    private ShiftChangeFeed shiftChangeFeed;
+    private ShiftPageCache shiftPageCache;
 
     @Autowired
-    public ShiftController(ShiftService shiftService) {
+    public ShiftController(ShiftService shiftService, ShiftCoverage shiftCoverage, ShiftTimeline shiftTimeline, ShiftAvailability shiftAvailability,
+                           ShiftChangeLog shiftChangeLog, ShiftChangeFeed shiftChangeFeed, ShiftPageCache shiftPageCache) {
         this.shiftService = shiftService;
+        this.shiftCoverage = shiftCoverage;
+        this.shiftTimeline = shiftTimeline;
+        this.shiftAvailability = shiftAvailability;
+        this.shiftChangeLog = shiftChangeLog;
+        this.shiftChangeFeed = shiftChangeFeed;
+        this.shiftPageCache = shiftPageCache;
     }
 
     /**
      * Gets all shifts in the database. Only a manager can access this endpoint.
      * Takes search params that are given in integers for a 24-hour clock.
+     * @param fromDate the first date of the search request, i.e. 2018-11-30. Not limited when not given
+     * @param toDate the last date of the search request. Not limited when not given
      * @param fromStartHour the beginning hour of the search request. Defaults to 0 (12am)
      * @param fromStartMinute the beginning minute of the search request. Defaults to 0
      * @param toEndHour the end hour of the search request. Defaults to 23 (11pm)
      * @param toEndMinute the end hour of the search request. Defaults to 59
-     * @return A list of {@link ResultShiftDto} shifts
+     * @param limit the maximum number of shifts returned. Returns every shift when not given
+     * @param after the cursor returned in the {@value #NEXT_CURSOR_HEADER} header of the previous page
+     * @param minuteFields true to return the start and end minutes of the day instead of the display times. Defaults to false
+     * @param request the request, answered with 304 Not Modified when its If-None-Match header has the current ETag
+     * @return A list of {@link ResultShiftDto} shifts, with an ETag header and a {@value #NEXT_CURSOR_HEADER} header when there are more shifts.
+     * Encoded as json, or as Smile or CBOR when the Accept header asks for {@value #SMILE_CONTENT_TYPE} or {@value #CBOR_CONTENT_TYPE}
+     * @throws HttpMediaTypeNotAcceptableException when the Accept header allows none of json, Smile or CBOR
      */
     @PreAuthorize("hasRole('ROLE_MANAGER')")
     @GetMapping("/all")
-    public List<ResultShiftDto> getAllShifts(@RequestParam(value = "fromStartHour", defaultValue = "0", required = false) int fromStartHour,
+    public ResponseEntity<byte[]> getAllShifts(@RequestParam(value = "fromDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+                                    @RequestParam(value = "toDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+                                    @RequestParam(value = "fromStartHour", defaultValue = "0", required = false) int fromStartHour,
                                     @RequestParam(value = "fromStartMinute", defaultValue = "0", required = false) int fromStartMinute,
                                     @RequestParam(value = "toEndHour", defaultValue = "23", required = false) int toEndHour,
-                                    @RequestParam(value = "toEndMinute", defaultValue = "59", required = false) int toEndMinute) {
-        return shiftService.getAllShifts(getSearchShiftDto(fromStartHour, fromStartMinute, toEndHour, toEndMinute));
+                                    @RequestParam(value = "toEndMinute", defaultValue = "59", required = false) int toEndMinute,
+                                    @RequestParam(value = "limit", required = false) Integer limit,
+                                    @RequestParam(value = "after", required = false) String after,
+                                    @RequestParam(value = "minuteFields", defaultValue = "false", required = false) boolean minuteFields,
+                                    WebRequest request) throws HttpMediaTypeNotAcceptableException {
+        SearchShiftDto searchShiftDto = getSearchShiftDto(fromDate, toDate, fromStartHour, fromStartMinute, toEndHour, toEndMinute, limit, after, minuteFields);
+        return getPageResponse(request, shiftService.getShiftsVersion(), searchShiftDto, () -> shiftService.getAllShifts(searchShiftDto));
+    }
+
+    /**
+     * Exports every shift in the database as newline delimited json, one {@link ResultShiftDto} per line.
+     * Shifts are streamed to the response as they are read. Only a manager can access this endpoint.
+     * @param response the response the shifts are written to
+     * @throws IOException when writing to the response fails
+     */
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    @GetMapping(value = "/export", produces = NDJSON_CONTENT_TYPE)
+    public void exportShifts(HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON_CONTENT_TYPE);
+        shiftService.exportShifts(response.getOutputStream());
+    }
+
+    /**
+     * Streams committed shift changes as server-sent events, one {@link ShiftChangeDto} per created, updated or deleted event.
+     * Only a manager can access this endpoint. The connection is closed after a while, or when the client falls too far behind;
+     * clients reconnect and read the shifts again to catch up.
+     * @param username only stream changes to this user's shifts. Streams every change when not given
+     * @return the event stream
+     * @throws ServiceOverloadedException when too many clients are connected
+     */
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamShiftChanges(@RequestParam(value = "username", required = false) String username) throws ServiceOverloadedException {
+        return shiftChangeFeed.subscribe(username);
+    }
+
+    /**
+     * Gets the number of people working across a day. Only a manager can access this endpoint.
+     * @param date the date of the shifts, i.e. 2018-11-30. Defaults to today
+     * @param resolution the length of each time slot in minutes or hours, i.e. 15m or 1h. Defaults to 15m
+     * @return A list of {@link CoverageBucketDto}, one per time slot of the day, with the lowest and highest headcount in the slot
+     * @throws ShiftIllegalArgumentException when the resolution is invalid or does not divide the day evenly
+     */
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    @GetMapping("/coverage")
+    public List<CoverageBucketDto> getCoverage(@RequestParam(value = "date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                               @RequestParam(value = "resolution", defaultValue = "15m", required = false) String resolution) throws ShiftIllegalArgumentException {
+        return shiftCoverage.getCoverage(valueOrToday(date), resolution);
+    }
+
+    /**
+     * Gets the shifts being worked at a time of the day. Only managers and employees can access this endpoint.
+     * Answered from memory without querying the database once the date has been read.
+     * @param date the date of the shifts, i.e. 2018-11-30. Defaults to today
+     * @param hour the hour of the time, on a 24-hour clock
+     * @param minute the minute of the time
+     * @return A list of {@link ResultShiftDto} shifts that have started and not yet ended at the given time
+     * @throws ShiftIllegalArgumentException when the hour or minute is out of range
+     */
+    @PreAuthorize("hasAnyRole('ROLE_MANAGER, ROLE_EMPLOYEE')")
+    @GetMapping("/at")
+    public List<ResultShiftDto> getShiftsAt(@RequestParam(value = "date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                            @RequestParam(value = "hour") int hour,
+                                            @RequestParam(value = "minute", defaultValue = "0", required = false) int minute) throws ShiftIllegalArgumentException {
+        return shiftTimeline.getShiftsAt(valueOrToday(date), hour, minute);
+    }
+
+    /**
+     * Finds the time windows of a day in which every given user is free, or every given user is on shift. Only a manager can access this endpoint.
+     * @param date the date of the shifts, i.e. 2018-11-30. Defaults to today
+     * @param usernames the users to check
+     * @param minDuration the shortest window returned, in minutes. Defaults to 30
+     * @param mode "free" for windows with every user off shift, or "working" for windows with every user on shift. Defaults to free
+     * @return A list of {@link AvailabilityWindowDto} matching windows, in order of time
+     * @throws ShiftIllegalArgumentException when no users are given, the duration is not within the day or the mode is unknown
+     */
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    @GetMapping("/availability")
+    public List<AvailabilityWindowDto> getAvailability(@RequestParam(value = "date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                                       @RequestParam(value = "usernames") List<String> usernames,
+                                                       @RequestParam(value = "minDuration", defaultValue = "30", required = false) int minDuration,
+                                                       @RequestParam(value = "mode", defaultValue = ShiftAvailability.FREE_MODE, required = false) String mode) throws ShiftIllegalArgumentException {
+        return shiftAvailability.getAvailability(valueOrToday(date), usernames, minDuration, mode);
     }
 
     /**
@@ -59,6 +192,18 @@ public class ShiftController {
         return shiftService.createShift(shiftDto);
     }
 
+    /**
+     * Creates a batch of shifts in one request. Only a manager can access this endpoint.
+     * Each shift is validated like a single created shift and must also not overlap another shift of the same user in the batch.
+     * @param shiftDtos A list of {@link ShiftDto} with shift parameters and users the shifts are being created for
+     * @return A {@link BatchResultShiftDto} per given shift, reporting the created shift or why it was rejected
+     */
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    @PostMapping("/batch")
+    public List<BatchResultShiftDto> createShifts(@RequestBody List<ShiftDto> shiftDtos) {
+        return shiftService.createShifts(shiftDtos);
+    }
+
     /**
      * Gets a single shift from the database.
      * Only managers and employees can access this endpoint.
@@ -72,6 +217,18 @@ public class ShiftController {
         return shiftService.getShift(shiftId);
     }
 
+    /**
+     * Gets every recorded change to a shift, read from the shift change log. Only a manager can access this endpoint.
+     * Deleted shifts keep their history.
+     * @param shiftId the unique id of the shift
+     * @return A list of {@link ShiftChangeDto}, oldest first. Empty when the shift was never changed
+     */
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    @GetMapping("/{shiftId}/history")
+    public List<ShiftChangeDto> getShiftHistory(@PathVariable(value = "shiftId") long shiftId) {
+        return shiftChangeLog.getHistory(shiftId);
+    }
+
     /**
      * Updates a shift. Only a manager can access this endpoint.
      * @param shiftId a unique id of the shift to update
@@ -86,57 +243,170 @@ public class ShiftController {
         return shiftService.updateShift(shiftId, shiftDto);
     }
 
+    /**
+     * Moves many shifts by the same number of minutes. Only a manager can access this endpoint.
+     * Shifts are selected by a list of ids, by a username and time frame, or both.
+     * @param bulkShiftDto A {@link BulkShiftDto} selecting the shifts and giving the minutes to move them by
+     * @return A list of {@link ResultShiftDto} moved shifts
+     * @throws ShiftIllegalArgumentException when no shifts are selected, or a moved shift would leave the day or overlap another shift
+     */
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    @PutMapping("/batch")
+    public List<ResultShiftDto> updateShifts(@Valid @RequestBody BulkShiftDto bulkShiftDto) throws ShiftIllegalArgumentException {
+        return shiftService.updateShifts(bulkShiftDto);
+    }
+
     @PreAuthorize("hasRole('ROLE_MANAGER')")
     @DeleteMapping("/{shiftId}")
     public void deleteShift(@PathVariable(value = "shiftId") long shiftId) throws ShiftNotFoundException {
         shiftService.deleteShift(shiftId);
     }
 
+    /**
+     * Deletes many shifts at once. Only a manager can access this endpoint.
+     * Shifts are selected by a list of ids, by a username and time frame, or both.
+     * Takes search params that are given in integers for a 24-hour clock.
+     * @param ids the ids of the shifts to delete
+     * @param username the user whose shifts are deleted
+     * @param date the date of the deleted shifts, i.e. 2018-11-30. Shifts on every date are deleted when not given
+     * @param fromStartHour the beginning hour of the deleted time frame. Defaults to 0 (12am)
+     * @param fromStartMinute the beginning minute of the deleted time frame. Defaults to 0
+     * @param toEndHour the end hour of the deleted time frame. Defaults to 23 (11pm)
+     * @param toEndMinute the end minute of the deleted time frame. Defaults to 59
+     * @return the number of deleted shifts
+     * @throws ShiftIllegalArgumentException when neither ids nor a username are given
+     */
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    @DeleteMapping("")
+    public int deleteShifts(@RequestParam(value = "ids", required = false) List<Long> ids,
+                            @RequestParam(value = "username", required = false) String username,
+                            @RequestParam(value = "date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                            @RequestParam(value = "fromStartHour", defaultValue = "0", required = false) int fromStartHour,
+                            @RequestParam(value = "fromStartMinute", defaultValue = "0", required = false) int fromStartMinute,
+                            @RequestParam(value = "toEndHour", defaultValue = "23", required = false) int toEndHour,
+                            @RequestParam(value = "toEndMinute", defaultValue = "59", required = false) int toEndMinute) throws ShiftIllegalArgumentException {
+        return shiftService.deleteShifts(BulkShiftDto.builder()
+                .ids(ids)
+                .username(username)
+                .date(date)
+                .fromStartHour(fromStartHour)
+                .fromStartMinute(fromStartMinute)
+                .toEndHour(toEndHour)
+                .toEndMinute(toEndMinute)
+                .build());
+    }
+
     /**
      * Search all roles for currently logged in user. Only managers and employees can access this endpoint.
      * Takes search params that are given in integers for a 24-hour clock.
+     * @param fromDate the first date of the search request, i.e. 2018-11-30. Not limited when not given
+     * @param toDate the last date of the search request. Not limited when not given
      * @param fromStartHour the beginning hour of the search request. Defaults to 0 (12am)
      * @param fromStartMinute the beginning minute of the search request. Defaults to 0
      * @param toEndHour the end hour of the search request. Defaults to 23 (11pm)
      * @param toEndMinute the end hour of the search request. Defaults to 59
-     * @return A list of {@link ResultShiftDto} shifts
+     * @param limit the maximum number of shifts returned. Returns every shift when not given
+     * @param after the cursor returned in the {@value #NEXT_CURSOR_HEADER} header of the previous page
+     * @param minuteFields true to return the start and end minutes of the day instead of the display times. Defaults to false
+     * @param request the request, answered with 304 Not Modified when its If-None-Match header has the current ETag
+     * @return A list of {@link ResultShiftDto} shifts, with an ETag header and a {@value #NEXT_CURSOR_HEADER} header when there are more shifts.
+     * Encoded as json, or as Smile or CBOR when the Accept header asks for {@value #SMILE_CONTENT_TYPE} or {@value #CBOR_CONTENT_TYPE}
+     * @throws HttpMediaTypeNotAcceptableException when the Accept header allows none of json, Smile or CBOR
      */
     @PreAuthorize("hasAnyRole('ROLE_MANAGER, ROLE_EMPLOYEE')")
     @GetMapping("")
-    public List<ResultShiftDto> getAllCurrentUserShifts(@RequestParam(value = "fromStartHour", defaultValue = "0", required = false) int fromStartHour,
+    public ResponseEntity<byte[]> getAllCurrentUserShifts(@RequestParam(value = "fromDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+                                               @RequestParam(value = "toDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+                                               @RequestParam(value = "fromStartHour", defaultValue = "0", required = false) int fromStartHour,
                                                @RequestParam(value = "fromStartMinute", defaultValue = "0", required = false) int fromStartMinute,
                                                @RequestParam(value = "toEndHour", defaultValue = "23", required = false) int toEndHour,
-                                               @RequestParam(value = "toEndMinute", defaultValue = "59", required = false) int toEndMinute) {
+                                               @RequestParam(value = "toEndMinute", defaultValue = "59", required = false) int toEndMinute,
+                                               @RequestParam(value = "limit", required = false) Integer limit,
+                                               @RequestParam(value = "after", required = false) String after,
+                                               @RequestParam(value = "minuteFields", defaultValue = "false", required = false) boolean minuteFields,
+                                               WebRequest request) throws HttpMediaTypeNotAcceptableException {
 
 
-        return shiftService.searchShifts(null, getSearchShiftDto(fromStartHour, fromStartMinute, toEndHour, toEndMinute));
+        SearchShiftDto searchShiftDto = getSearchShiftDto(fromDate, toDate, fromStartHour, fromStartMinute, toEndHour, toEndMinute, limit, after, minuteFields);
+        return getPageResponse(request, shiftService.getShiftsVersion(null), searchShiftDto, () -> shiftService.searchShifts(null, searchShiftDto));
     }
 
     /**
      * Search all roles for a specific user. Only managers can access this endpoint.
      * Takes search params that are given in integers for a 24-hour clock.
      * @param username the username for which shifts are being searched
+     * @param fromDate the first date of the search request, i.e. 2018-11-30. Not limited when not given
+     * @param toDate the last date of the search request. Not limited when not given
      * @param fromStartHour the beginning hour of the search request. Defaults to 0 (12am)
      * @param fromStartMinute the beginning minute of the search request. Defaults to 0
      * @param toEndHour the end hour of the search request. Defaults to 23 (11pm)
      * @param toEndMinute the end hour of the search request. Defaults to 59
-     * @return A list of {@link ResultShiftDto} shifts
+     * @param limit the maximum number of shifts returned. Returns every shift when not given
+     * @param after the cursor returned in the {@value #NEXT_CURSOR_HEADER} header of the previous page
+     * @param minuteFields true to return the start and end minutes of the day instead of the display times. Defaults to false
+     * @param request the request, answered with 304 Not Modified when its If-None-Match header has the current ETag
+     * @return A list of {@link ResultShiftDto} shifts, with an ETag header and a {@value #NEXT_CURSOR_HEADER} header when there are more shifts.
+     * Encoded as json, or as Smile or CBOR when the Accept header asks for {@value #SMILE_CONTENT_TYPE} or {@value #CBOR_CONTENT_TYPE}
+     * @throws HttpMediaTypeNotAcceptableException when the Accept header allows none of json, Smile or CBOR
      * @throws UsernameNotFoundException when the given username does not exist
      */
     @PreAuthorize("hasRole('ROLE_MANAGER')")
     @GetMapping("/users/{username}")
-    public List<ResultShiftDto> getAllShiftsForUser(@PathVariable(value = "username") String username,
+    public ResponseEntity<byte[]> getAllShiftsForUser(@PathVariable(value = "username") String username,
+                                                    @RequestParam(value = "fromDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+                                                    @RequestParam(value = "toDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
                                                     @RequestParam(value = "fromStartHour", defaultValue = "0", required = false) int fromStartHour,
                                                     @RequestParam(value = "fromStartMinute", defaultValue = "0", required = false) int fromStartMinute,
                                                     @RequestParam(value = "toEndHour", defaultValue = "23", required = false) int toEndHour,
-                                                    @RequestParam(value = "toEndMinute", defaultValue = "59", required = false) int toEndMinute) throws UsernameNotFoundException {
+                                                    @RequestParam(value = "toEndMinute", defaultValue = "59", required = false) int toEndMinute,
+                                                    @RequestParam(value = "limit", required = false) Integer limit,
+                                                    @RequestParam(value = "after", required = false) String after,
+                                                    @RequestParam(value = "minuteFields", defaultValue = "false", required = false) boolean minuteFields,
+                                                    WebRequest request) throws UsernameNotFoundException, HttpMediaTypeNotAcceptableException {
 
 
-        return shiftService.searchShifts(username, getSearchShiftDto(fromStartHour, fromStartMinute, toEndHour, toEndMinute));
+        SearchShiftDto searchShiftDto = getSearchShiftDto(fromDate, toDate, fromStartHour, fromStartMinute, toEndHour, toEndMinute, limit, after, minuteFields);
+        return getPageResponse(request, shiftService.getShiftsVersion(username), searchShiftDto, () -> shiftService.searchShifts(username, searchShiftDto));
     }
 
     // encapsulation
-    private SearchShiftDto getSearchShiftDto(int fromStartHour, int fromStartMinute, int toEndHour, int toEndMinute) {
-        return new SearchShiftDto(fromStartHour, fromStartMinute, toEndHour, toEndMinute);
+    private SearchShiftDto getSearchShiftDto(LocalDate fromDate, LocalDate toDate, int fromStartHour, int fromStartMinute, int toEndHour, int toEndMinute, Integer limit, String after,
+                                             boolean minuteFields) {
+        return SearchShiftDto.builder()
+                .fromDate(fromDate)
+                .toDate(toDate)
+                .fromStartHour(fromStartHour)
+                .fromStartMinute(fromStartMinute)
+                .toEndHour(toEndHour)
+                .toEndMinute(toEndMinute)
+                .limit(limit)
+                .after(after)
+                .minuteFields(minuteFields)
+                .build();
+    }
+
+    // encapsulation
+    private LocalDate valueOrToday(LocalDate date) {
+        return date != null ? date : LocalDate.now();
+    }
+
+    // the version is read before searching, so the ETag of a page is never newer than its shifts;
+    // checkNotModified sets the ETag header, and answers with 304 without searching when the client has the page
+    private ResponseEntity<byte[]> getPageResponse(WebRequest request, String version, SearchShiftDto searchShiftDto,
+                                                   Supplier<ResultShiftPageDto> search) throws HttpMediaTypeNotAcceptableException {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        MediaType mediaType = shiftPageCache.getMediaType(accept != null ? MediaType.parseMediaTypes(accept) : Collections.emptyList());
+        if (request.checkNotModified(ShiftPageCache.getETag(version, searchShiftDto, mediaType))) {
+            return null;
+        }
+
+        ShiftPageCache.CachedShiftPage page = shiftPageCache.getPage(version, searchShiftDto, mediaType, search);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getBody());
     }
 }
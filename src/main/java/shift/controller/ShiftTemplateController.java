@@ -0,0 +1,77 @@
+package shift.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.bind.annotation.*;
+import shift.domain.dto.ResultShiftTemplateDto;
+import shift.domain.dto.ShiftTemplateDto;
+import shift.exception.ShiftIllegalArgumentException;
+import shift.exception.ShiftNotFoundException;
+import shift.service.Shift.ShiftTemplateService;
+
+import javax.validation.Valid;
+import java.util.List;
+
+/**
+ * Provides endpoints for managing recurring shift templates.
+ * Occurrences of the templates are returned by the shift search endpoints whenever both ends of the date range are given.
+ */
+@RestController
+@RequestMapping("/shifts/templates")
+public class ShiftTemplateController {
+    private ShiftTemplateService shiftTemplateService;
+
+    @Autowired
+    public ShiftTemplateController(ShiftTemplateService shiftTemplateService) {
+        this.shiftTemplateService = shiftTemplateService;
+    }
+
+    /**
+     * Creates a recurring shift template. Only a manager can access this endpoint
+     * @param shiftTemplateDto A {@link ShiftTemplateDto} with the weekdays, times and validity period of the shift, and the user it is created for
+     * @return {@link ResultShiftTemplateDto} to confirm how the template was created.
+     * @throws UsernameNotFoundException when the given username does not exist
+     * @throws ShiftIllegalArgumentException when an occurrence would overlap another template or an existing shift of the specified user
+     */
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    @PostMapping("")
+    public ResultShiftTemplateDto createShiftTemplate(@Valid @RequestBody ShiftTemplateDto shiftTemplateDto) throws UsernameNotFoundException, ShiftIllegalArgumentException {
+        return shiftTemplateService.createShiftTemplate(shiftTemplateDto);
+    }
+
+    /**
+     * Gets a single shift template. Only managers and employees can access this endpoint.
+     * @param templateId the unique id of the template
+     * @return A {@link ResultShiftTemplateDto}
+     * @throws ShiftNotFoundException when no template with the given id exists
+     */
+    @PreAuthorize("hasAnyRole('ROLE_MANAGER, ROLE_EMPLOYEE')")
+    @GetMapping("/{templateId}")
+    public ResultShiftTemplateDto getShiftTemplate(@PathVariable(value = "templateId") long templateId) throws ShiftNotFoundException {
+        return shiftTemplateService.getShiftTemplate(templateId);
+    }
+
+    /**
+     * Gets every shift template of a user. Only a manager can access this endpoint.
+     * @param username the user owning the templates
+     * @return A list of {@link ResultShiftTemplateDto}
+     * @throws UsernameNotFoundException when the given username does not exist
+     */
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    @GetMapping("/users/{username}")
+    public List<ResultShiftTemplateDto> getShiftTemplates(@PathVariable(value = "username") String username) throws UsernameNotFoundException {
+        return shiftTemplateService.getShiftTemplates(username);
+    }
+
+    /**
+     * Deletes a shift template and every occurrence of it. Only a manager can access this endpoint.
+     * @param templateId the unique id of the template
+     * @throws ShiftNotFoundException when no template with the given id exists
+     */
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    @DeleteMapping("/{templateId}")
+    public void deleteShiftTemplate(@PathVariable(value = "templateId") long templateId) throws ShiftNotFoundException {
+        shiftTemplateService.deleteShiftTemplate(templateId);
+    }
+}
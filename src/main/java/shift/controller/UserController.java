@@ -2,9 +2,8 @@ package shift.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.bind.annotation.*;
 import shift.domain.h2.User.User;
 import shift.service.User.UserService;
 
@@ -33,4 +32,15 @@ public class UserController {
     public List<User> getAllUsers() {
         return userService.getAllUsers();
     }
+
+    /**
+     * Revokes every token issued to a user, so the user has to log in again. Only managers can access this endpoint
+     * @param username the user whose tokens are revoked
+     * @throws UsernameNotFoundException when no user exists with the given username
+     */
+    @PreAuthorize("hasRole('ROLE_MANAGER')")
+    @PostMapping("/{username}/revoke-tokens")
+    public void revokeTokens(@PathVariable(value = "username") String username) throws UsernameNotFoundException {
+        userService.revokeTokens(username);
+    }
 }
@@ -2,13 +2,67 @@ package shift.domain.dao;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import shift.domain.h2.Shift.Shift;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 /**
  * Data access layer for shift data extends {@link JpaRepository} for interacting with the Java Persistence Api
  */
 @Repository
-public interface ShiftRepository extends JpaRepository<Shift, Long>, JpaSpecificationExecutor<Shift> {
+public interface ShiftRepository extends JpaRepository<Shift, Long>, JpaSpecificationExecutor<Shift>, ShiftRepositoryCustom {
+
+    /**
+     * Deletes the given shifts with a single statement, without loading them
+     * @param ids the ids of the shifts to delete
+     * @return the number of deleted shifts
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from Shift s where s.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * @return the highest shift id, or null when there are no shifts
+     */
+    @Query("select max(s.id) from Shift s")
+    Long findMaxId();
+
+    /**
+     * Streams every shift sorted by date and start time, fetching rows from the database in chunks.
+     * Must be called within a transaction, and the stream must be closed after use.
+     * @return a {@link Stream} of every shift
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select s from Shift s order by s.shiftDate, s.startTime, s.id")
+    Stream<Shift> streamAll();
+
+    /**
+     * Streams the shifts on one date sorted by start time, reading only that date's range of the date index.
+     * Must be called within a transaction, and the stream must be closed after use.
+     * @param shiftDate the date of the shifts
+     * @return a {@link Stream} of the date's shifts
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select s from Shift s where s.shiftDate = :shiftDate order by s.startTime, s.id")
+    Stream<Shift> streamByShiftDate(@Param("shiftDate") LocalDate shiftDate);
 
 }
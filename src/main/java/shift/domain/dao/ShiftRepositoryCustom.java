@@ -0,0 +1,37 @@
+package shift.domain.dao;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import shift.domain.h2.Shift.Shift;
+
+import java.util.List;
+
+/**
+ * Shift queries that are not provided by {@link org.springframework.data.jpa.repository.JpaSpecificationExecutor}
+ */
+public interface ShiftRepositoryCustom {
+
+    /**
+     * Checks if any shift matches the given specification without loading the matching shifts
+     * @param specification the {@link Specification} to match
+     * @return true if at least one shift matches
+     */
+    boolean exists(Specification<Shift> specification);
+
+    /**
+     * Gets at most the given number of shifts matching the specification, without counting every match like a page query does
+     * @param specification the {@link Specification} to match
+     * @param sort the order of the returned shifts
+     * @param limit the maximum number of shifts returned
+     * @return the first matching shifts
+     */
+    List<Shift> findAll(Specification<Shift> specification, Sort sort, int limit);
+
+    /**
+     * Gets the id, username, date and times of every shift matching the specification, selecting only those columns.
+     * The returned shifts are not managed, so they cost the persistence context nothing
+     * @param specification the {@link Specification} to match
+     * @return the matching shifts, with only those fields set
+     */
+    List<Shift> findShiftTimes(Specification<Shift> specification);
+}
@@ -0,0 +1,87 @@
+package shift.domain.dao;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import shift.domain.h2.Shift.Shift;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Implements {@link ShiftRepositoryCustom} with the JPA criteria api
+ */
+public class ShiftRepositoryCustomImpl implements ShiftRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public boolean exists(Specification<Shift> specification) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Shift> root = query.from(Shift.class);
+        query.select(root.get("id"));
+
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        // only the first matching id is fetched, so the query stops at the first index hit
+        return !entityManager.createQuery(query)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    @Override
+    public List<Shift> findAll(Specification<Shift> specification, Sort sort, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Shift> query = builder.createQuery(Shift.class);
+        Root<Shift> root = query.from(Shift.class);
+
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, builder));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<Shift> findShiftTimes(Specification<Shift> specification) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = builder.createQuery(Object[].class);
+        Root<Shift> root = query.from(Shift.class);
+        query.multiselect(root.get("id"), root.get("username"), root.get("shiftDate"), root.get("startTime"), root.get("endTime"));
+
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        return entityManager.createQuery(query)
+                .getResultList()
+                .stream()
+                .map(row -> Shift.builder()
+                        .id((Long) row[0])
+                        .username((String) row[1])
+                        .shiftDate((LocalDate) row[2])
+                        .startTime((LocalTime) row[3])
+                        .endTime((LocalTime) row[4])
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,43 @@
+package shift.domain.dao;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import shift.domain.h2.Shift.ShiftTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Data access layer for recurring shift templates extends {@link JpaRepository} for interacting with the Java Persistence Api
+ */
+@Repository
+public interface ShiftTemplateRepository extends JpaRepository<ShiftTemplate, Long> {
+
+    /**
+     * Gets the templates that are valid on at least one date of the given range
+     * @param fromDate the first date of the range
+     * @param toDate the last date of the range
+     * @return the templates valid within the range
+     */
+    @Query("select t from ShiftTemplate t where t.validFrom <= :toDate and (t.validTo is null or t.validTo >= :fromDate)")
+    List<ShiftTemplate> findValidBetween(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    /**
+     * Gets a user's templates that are valid on at least one date of the given range
+     * @param username the user owning the templates
+     * @param fromDate the first date of the range
+     * @param toDate the last date of the range
+     * @return the user's templates valid within the range
+     */
+    @Query("select t from ShiftTemplate t where t.username = :username and t.validFrom <= :toDate and (t.validTo is null or t.validTo >= :fromDate)")
+    List<ShiftTemplate> findValidBetweenForUser(@Param("username") String username, @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    /**
+     * Gets every template of a user
+     * @param username the user owning the templates
+     * @return the user's templates
+     */
+    List<ShiftTemplate> findByUsername(String username);
+}
@@ -0,0 +1,21 @@
+package shift.domain.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Provides returned data object for a time window in which every requested user is free, or every requested user is working
+ */
+@Builder
+@Getter
+@Setter
+@Data
+public class AvailabilityWindowDto {
+    private String startTime;
+
+    // the last minute of the window
+    private String endTime;
+    private int durationMinutes;
+}
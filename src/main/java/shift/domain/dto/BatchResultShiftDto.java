@@ -0,0 +1,22 @@
+package shift.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Provides returned data object for a single item of a batch shift request
+ */
+@Builder
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Data
+public class BatchResultShiftDto {
+    private int index;
+    private boolean success;
+    private ResultShiftDto shift;
+    private String error;
+}
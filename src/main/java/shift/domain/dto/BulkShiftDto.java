@@ -0,0 +1,46 @@
+package shift.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import org.hibernate.validator.constraints.Range;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Provides input data object for changing many shifts at once.
+ * Shifts are selected by id, by username and time frame, or both.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Data
+public class BulkShiftDto {
+
+    private List<Long> ids;
+
+    private String username;
+
+    // only selects shifts on this date when given
+    private LocalDate date;
+
+    @Range(max = 23, message = "Shift hour can only be between 0-23")
+    private Integer fromStartHour;
+
+    @Range(max = 59, message = "Shift minute can only be between 0-59")
+    private Integer fromStartMinute;
+
+    @Range(max = 23, message = "Shift hour can only be between 0-23")
+    private Integer toEndHour;
+
+    @Range(max = 59, message = "Shift minute can only be between 0-59")
+    private Integer toEndMinute;
+
+    @Range(min = -1439, max = 1439, message = "Shifts can be moved by at most 1439 minutes")
+    private Integer offsetMinutes;
+}
@@ -0,0 +1,22 @@
+package shift.domain.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Provides returned data object for the headcount within a time slot of the day
+ */
+@Builder
+@Getter
+@Setter
+@Data
+public class CoverageBucketDto {
+    private String startTime;
+
+    // the last minute of the time slot
+    private String endTime;
+    private int minHeadcount;
+    private int maxHeadcount;
+}
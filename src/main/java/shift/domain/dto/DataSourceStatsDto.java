@@ -0,0 +1,24 @@
+package shift.domain.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Provides returned data object for the usage of a database connection pool
+ */
+@Builder
+@Getter
+@Setter
+@Data
+public class DataSourceStatsDto {
+    // primary or read
+    private String pool;
+    private String url;
+
+    // connections handed out by the pool since startup, one per transaction or non-transactional query
+    private long connectionsServed;
+    private int activeConnections;
+    private int idleConnections;
+}
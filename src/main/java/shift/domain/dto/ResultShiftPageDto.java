@@ -0,0 +1,22 @@
+package shift.domain.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Provides returned data object for a page of shifts
+ */
+@Builder
+@Getter
+@Setter
+@Data
+public class ResultShiftPageDto {
+    private List<ResultShiftDto> shifts;
+
+    // null when there are no more shifts
+    private String nextCursor;
+}
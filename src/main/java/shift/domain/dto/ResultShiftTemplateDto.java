@@ -0,0 +1,30 @@
+package shift.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.DayOfWeek;
+import java.util.List;
+
+/**
+ * Provides returned data object for a recurring shift template
+ */
+@Builder
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Data
+public class ResultShiftTemplateDto {
+    private Long id;
+    private String user;
+    private List<DayOfWeek> daysOfWeek;
+    private String startTime;
+    private String endTime;
+    private String validFrom;
+
+    // absent when the template is open-ended
+    private String validTo;
+}
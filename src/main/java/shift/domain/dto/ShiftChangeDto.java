@@ -0,0 +1,34 @@
+package shift.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Provides returned data object for one change in a shift's history.
+ * The previous fields are left out for a created shift, and the current fields for a deleted shift.
+ */
+@Builder
+@Getter
+@Setter
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ShiftChangeDto {
+    // created, updated or deleted
+    private String type;
+    private Long shiftId;
+    private String changedAt;
+    private String changedBy;
+
+    private String previousUser;
+    private String previousDate;
+    private String previousStartTime;
+    private String previousEndTime;
+
+    private String user;
+    private String date;
+    private String startTime;
+    private String endTime;
+}
@@ -0,0 +1,27 @@
+package shift.domain.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Provides returned data object for the counters and state of the shift change log
+ */
+@Builder
+@Getter
+@Setter
+@Data
+public class ShiftChangeLogStatsDto {
+    private long appendedRecords;
+    private long syncedRecords;
+
+    // committed changes written to the overflow file because the writer was a whole queue behind, or was failing
+    private long spilledRecords;
+
+    // committed changes that are lost, because not even the overflow file could be written
+    private long droppedRecords;
+
+    // why the writer is failing to write the log, or null while it works
+    private String failure;
+}
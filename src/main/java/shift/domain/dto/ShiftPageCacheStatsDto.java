@@ -0,0 +1,20 @@
+package shift.domain.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Provides returned data object for the counters and size of the cache of serialized shift pages
+ */
+@Builder
+@Getter
+@Setter
+@Data
+public class ShiftPageCacheStatsDto {
+    private long hits;
+    private long misses;
+    private int pages;
+    private long bytes;
+}
@@ -0,0 +1,27 @@
+package shift.domain.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Provides returned data object for the size and write cost of the store answering shift searches
+ */
+@Builder
+@Getter
+@Setter
+@Data
+public class ShiftStoreStatsDto {
+    // jpa or offheap
+    private String store;
+    private int shifts;
+    private int users;
+
+    // memory reserved outside of the heap, 0 for the jpa store
+    private long offHeapBytes;
+
+    // committed changes applied to the off-heap store, and the time spent applying them while holding its write lock
+    private long changes;
+    private long changeNanos;
+}
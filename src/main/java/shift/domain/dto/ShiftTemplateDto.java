@@ -0,0 +1,55 @@
+package shift.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import lombok.*;
+import org.hibernate.validator.constraints.Range;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Provides input data object for creating a recurring shift template
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(Include.NON_NULL)
+@Data
+public class ShiftTemplateDto {
+
+    private String username;
+
+    // i.e. ["MONDAY", "WEDNESDAY"]
+    @NotEmpty
+    private Set<DayOfWeek> daysOfWeek;
+
+    @Range(max = 23, message = "Shift hour can be between 0-23")
+    @NotNull
+    private Integer startHour;
+
+    @Range(max = 59, message = "Shift minute can be between 0-59")
+    @NotNull
+    private Integer startMinute;
+
+    @Range(max = 23, message = "Shift hour can be between 0-23")
+    @NotNull
+    private Integer endHour;
+
+    @Range(max = 59, message = "Shift minute can be between 0-59")
+    @NotNull
+    private Integer endMinute;
+
+    // defaults to today
+    private LocalDate validFrom;
+
+    // open-ended when null
+    private LocalDate validTo;
+}
@@ -5,7 +5,9 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 
 /**
  * Provides search criteria data for building a {@link Specification}
@@ -20,12 +22,37 @@ public class SearchCriteria {
         this.time = time;
     }
 
+    public SearchCriteria(String operation, LocalTime time, LocalTime endTime) {
+        this.operation = operation;
+        this.time = time;
+        this.endTime = endTime;
+    }
+
+    public SearchCriteria(String key, String operation, LocalDate date) {
+        this.key = key;
+        this.operation = operation;
+        this.date = date;
+    }
+
+    public SearchCriteria(String operation, LocalDate date, LocalTime time, long id) {
+        this.operation = operation;
+        this.date = date;
+        this.time = time;
+        this.id = id;
+    }
+
     public SearchCriteria(String key, String operation, String username) {
         this.key = key;
         this.operation = operation;
         this.username = username;
     }
 
+    public SearchCriteria(String key, String operation, Collection<Long> ids) {
+        this.key = key;
+        this.operation = operation;
+        this.ids = ids;
+    }
+
     public SearchCriteria(String key, String operation, long id) {
         this.key = key;
         this.operation = operation;
@@ -34,7 +61,10 @@ public class SearchCriteria {
 
     private String key;
     private String operation;
+    private LocalDate date;
     private LocalTime time;
+    private LocalTime endTime;
     private String username;
     private long id;
+    private Collection<Long> ids;
 }
@@ -0,0 +1,23 @@
+package shift.domain.h2.Shift;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.time.LocalTime;
+
+/**
+ * Stores shift times as a SMALLINT minute of the day instead of a TIME column.
+ * Minutes keep the same order as times, so range queries and sorting on the column are unchanged.
+ */
+@Converter
+public class MinuteOfDayConverter implements AttributeConverter<LocalTime, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(LocalTime time) {
+        return time == null ? null : (short) MinuteOfDay.of(time);
+    }
+
+    @Override
+    public LocalTime convertToEntityAttribute(Short minute) {
+        return minute == null ? null : MinuteOfDay.toLocalTime(minute);
+    }
+}
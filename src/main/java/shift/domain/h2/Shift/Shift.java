@@ -4,6 +4,7 @@ import lombok.*;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
 import java.time.LocalTime;
 
 /**
@@ -15,16 +16,35 @@ import java.time.LocalTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
+// shifts are mostly read a date at a time; the date-led indexes keep each day's rows together however long the history grows,
+// and the username-led index serves a user's shifts across dates
+@Table(indexes = {
+        @Index(name = "idx_shift_date_username_time", columnList = "shiftDate, username, startTime, endTime"),
+        @Index(name = "idx_shift_date_start_time_id", columnList = "shiftDate, startTime, id"),
+        @Index(name = "idx_shift_username_date_time", columnList = "username, shiftDate, startTime")
+})
 public class Shift {
+    // a pooled sequence hands out ids without a round-trip per insert, which allows inserts to be batched
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shift_sequence")
+    @SequenceGenerator(name = "shift_sequence", sequenceName = "shift_sequence", allocationSize = 50)
     private Long id;
 
     private String username;
 
     @NotNull
+    private LocalDate shiftDate;
+
+    // times are stored as minutes of the day, see MinuteOfDayConverter
+    @NotNull
+    @Convert(converter = MinuteOfDayConverter.class)
     private LocalTime startTime;
 
     @NotNull
+    @Convert(converter = MinuteOfDayConverter.class)
     private LocalTime endTime;
+
+    // set on unsaved occurrences of a recurring ShiftTemplate, which have no id
+    @Transient
+    private Long templateId;
 }
@@ -8,11 +8,17 @@ import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import java.time.LocalDate;
 
 /**
  * Implements {@link Specification} for querying the {@link Shift} table
  */
 public class ShiftSpecification implements Specification<Shift> {
+    private static final String ID_KEY = "id";
+    private static final String DATE_KEY = "shiftDate";
+    private static final String START_TIME_KEY = "startTime";
+    private static final String END_TIME_KEY = "endTime";
+
     private SearchCriteria criteria;
 
     @Autowired
@@ -28,17 +34,50 @@ public class ShiftSpecification implements Specification<Shift> {
 
         if (operation.equalsIgnoreCase(":")) {
             if (root.get(criteria.getKey()).getJavaType() == String.class) {
-                return builder.like(
-                        root.get(criteria.getKey()), "%" + criteria.getUsername() + "%");
+                return builder.equal(root.get(criteria.getKey()), criteria.getUsername());
             } else if (root.get(criteria.getKey()).getJavaType() == Long.class) {
                 return builder.equal(root.get(criteria.getKey()), criteria.getId());
+            } else if (root.get(criteria.getKey()).getJavaType() == LocalDate.class) {
+                return builder.equal(root.get(criteria.getKey()), criteria.getDate());
             } else {
                 return builder.equal(root.get(criteria.getKey()), criteria.getTime());
             }
+        } else if (operation.equalsIgnoreCase("~")) {
+            // substring search cannot use an index and should not be used on hot paths
+            return builder.like(
+                    root.get(criteria.getKey()), "%" + criteria.getUsername() + "%");
+        } else if (operation.equalsIgnoreCase("!:")) {
+            return builder.notEqual(root.get(criteria.getKey()), criteria.getId());
+        } else if (operation.equalsIgnoreCase("in")) {
+            return root.get(criteria.getKey()).in(criteria.getIds());
+        } else if (operation.equalsIgnoreCase("overlaps")) {
+            // shifts may share endpoints, so only strictly overlapping ranges match
+            return builder.and(
+                    builder.lessThan(root.get(START_TIME_KEY), criteria.getEndTime()),
+                    builder.greaterThan(root.get(END_TIME_KEY), criteria.getTime()));
+        } else if (operation.equalsIgnoreCase("after")) {
+            // keyset position in the (shiftDate, startTime, id) sort order
+            return builder.or(
+                    builder.greaterThan(root.get(DATE_KEY), criteria.getDate()),
+                    builder.and(
+                            builder.equal(root.get(DATE_KEY), criteria.getDate()),
+                            builder.or(
+                                    builder.greaterThan(root.get(START_TIME_KEY), criteria.getTime()),
+                                    builder.and(
+                                            builder.equal(root.get(START_TIME_KEY), criteria.getTime()),
+                                            builder.greaterThan(root.get(ID_KEY), criteria.getId())))));
         } else if (operation.equalsIgnoreCase("<:")) {
+            if (root.get(criteria.getKey()).getJavaType() == LocalDate.class) {
+                return builder.lessThanOrEqualTo(
+                        root.get(criteria.getKey()), criteria.getDate());
+            }
             return builder.lessThanOrEqualTo(
                     root.get(criteria.getKey()), criteria.getTime());
         } else if (operation.equalsIgnoreCase(">:")) {
+            if (root.get(criteria.getKey()).getJavaType() == LocalDate.class) {
+                return builder.greaterThanOrEqualTo(
+                        root.get(criteria.getKey()), criteria.getDate());
+            }
             return builder.greaterThanOrEqualTo(
                     root.get(criteria.getKey()), criteria.getTime());
         }
@@ -0,0 +1,69 @@
+package shift.domain.h2.Shift;
+
+import lombok.*;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Provides entity model for a recurring shift, worked on the same weekdays and times throughout its validity period.
+ * Occurrences are not stored; they are worked out from the template when a date range is read.
+ */
+@Getter
+@Setter
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(indexes = {
+        @Index(name = "idx_shift_template_username_valid", columnList = "username, validFrom, validTo"),
+        @Index(name = "idx_shift_template_valid", columnList = "validFrom, validTo")
+})
+public class ShiftTemplate {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    private String username;
+
+    // bit (dayOfWeek.getValue() - 1) is set for each weekday the shift is worked
+    @NotNull
+    private Integer daysOfWeek;
+
+    @NotNull
+    @Convert(converter = MinuteOfDayConverter.class)
+    private LocalTime startTime;
+
+    @NotNull
+    @Convert(converter = MinuteOfDayConverter.class)
+    private LocalTime endTime;
+
+    @NotNull
+    private LocalDate validFrom;
+
+    // open-ended when null
+    private LocalDate validTo;
+
+    /**
+     * @param dayOfWeek the weekday to check
+     * @return true if the shift is worked on the weekday
+     */
+    public boolean isWorkedOn(DayOfWeek dayOfWeek) {
+        return (daysOfWeek & toDayOfWeekBit(dayOfWeek)) != 0;
+    }
+
+    /**
+     * @param date the date to check
+     * @return true if the shift has an occurrence on the date
+     */
+    public boolean occursOn(LocalDate date) {
+        return !date.isBefore(validFrom) && (validTo == null || !date.isAfter(validTo)) && isWorkedOn(date.getDayOfWeek());
+    }
+
+    public static int toDayOfWeekBit(DayOfWeek dayOfWeek) {
+        return 1 << (dayOfWeek.getValue() - 1);
+    }
+}
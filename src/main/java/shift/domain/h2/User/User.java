@@ -36,6 +36,10 @@ public class User {
             @JoinColumn(name = "ROLE_ID") })
     private Set<Role> roles;
 
+    // bumped to revoke every token issued to the user; null until the first revocation
+    @JsonIgnore
+    private Integer tokenVersion;
+
     public User(String username, String password, Set<Role> roles) {
         this.username = username;
         this.password = password;
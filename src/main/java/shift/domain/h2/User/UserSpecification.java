@@ -27,6 +27,9 @@ public class UserSpecification implements Specification<User> {
         String operation = criteria.getOperation();
 
         if (operation.equalsIgnoreCase(":")) {
+            return builder.equal(root.get(criteria.getKey()), criteria.getUsername());
+        } else if (operation.equalsIgnoreCase("~")) {
+            // substring search cannot use an index and should not be used on hot paths
             return builder.like(
                     root.get(criteria.getKey()), "%" + criteria.getUsername() + "%");
         }
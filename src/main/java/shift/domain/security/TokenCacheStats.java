@@ -0,0 +1,19 @@
+package shift.domain.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Data object returned for verified token cache metrics
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@Data
+public class TokenCacheStats {
+    private long hits;
+    private long misses;
+    private int size;
+}
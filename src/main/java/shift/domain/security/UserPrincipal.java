@@ -27,12 +27,21 @@ public class UserPrincipal implements UserDetails {
 
     private Collection<? extends GrantedAuthority> authorities;
 
+    private int tokenVersion;
+
     public UserPrincipal(User user) {
         this.username = user.getUsername();
         this.password = user.getPassword();
         this.authorities = user.getRoles().stream()
                 .map(role -> new SimpleGrantedAuthority(role.getName()))
                 .collect(Collectors.toList());
+        this.tokenVersion = user.getTokenVersion() != null ? user.getTokenVersion() : 0;
+    }
+
+    public UserPrincipal(String username, Collection<? extends GrantedAuthority> authorities, int tokenVersion) {
+        this.username = username;
+        this.authorities = authorities;
+        this.tokenVersion = tokenVersion;
     }
 
     public static UserDetails create(User user) {
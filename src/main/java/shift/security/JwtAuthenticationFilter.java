@@ -1,20 +1,25 @@
 package shift.security;
 
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
+import shift.domain.security.UserPrincipal;
 import shift.service.User.UserDetailsServiceImpl;
+import shift.service.User.UserService;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Optional;
 
 /**
  * Extends {@link OncePerRequestFilter} used to filter any application requests and perform authentication
@@ -28,9 +33,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsServiceImpl;
 
-    @Autowired public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserDetailsServiceImpl userDetailsServiceImpl) {
+    @Autowired
+    private UserService userService;
+
+    // builds the authentication from the token's claims instead of loading the user on every request
+    @Value("${app.jwtStatelessAuthentication:false}")
+    private boolean statelessAuthentication;
+
+    @Autowired public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserDetailsServiceImpl userDetailsServiceImpl, UserService userService) {
         this.tokenProvider = tokenProvider;
         this.userDetailsServiceImpl = userDetailsServiceImpl;
+        this.userService = userService;
     }
 
     @Override
@@ -39,11 +52,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (requestURI.contains("shifts") || requestURI.contains("users") || requestURI.contains("app")) {
             String jwt = getJwtFromRequest(request);
 
-            if (tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
+            Optional<Claims> verifiedClaims = tokenProvider.verifyToken(jwt);
+            if (verifiedClaims.isPresent()) {
+                Claims claims = verifiedClaims.get();
+
+                UserPrincipal userPrincipal = statelessAuthentication
+                        ? getUserPrincipalFromClaims(claims)
+                        : (UserPrincipal) userDetailsServiceImpl.loadUserByUsername(claims.getSubject());
+                if (tokenProvider.getTokenVersionFromClaims(claims) != userPrincipal.getTokenVersion()) {
+                    throw new SecurityException("Token has been revoked.");
+                }
 
-                UserDetails userDetails = userDetailsServiceImpl.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userPrincipal, null, userPrincipal.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -55,6 +75,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // only the user's token version is looked up, and it is cached
+    private UserPrincipal getUserPrincipalFromClaims(Claims claims) throws SecurityException {
+        String username = claims.getSubject();
+        try {
+            return new UserPrincipal(username, tokenProvider.getAuthoritiesFromClaims(claims), userService.getTokenVersion(username));
+        } catch (UsernameNotFoundException ex) {
+            throw new SecurityException("Username does not exist.");
+        }
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) throws SecurityException {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -1,12 +1,20 @@
 package shift.security;
 
 import io.jsonwebtoken.*;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import shift.domain.security.UserPrincipal;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -15,6 +23,7 @@ import java.util.stream.Collectors;
 @Component
 public class JwtTokenProvider {
     private static final String AUTHORITIES_KEY = "authorities";
+    private static final String TOKEN_VERSION_KEY = "ver";
 
     @Value("${app.jwtSecret}")
     private String jwtSecret;
@@ -22,6 +31,9 @@ public class JwtTokenProvider {
     @Value("${app.jwtExpirationInMs}")
     private int jwtExpirationInMs;
 
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
     /**
      * Generates a token given a {@link Authentication} with user info and roles
      * @param authentication {@link Authentication} object with user info and roles
@@ -35,24 +47,90 @@ public class JwtTokenProvider {
         return Jwts.builder()
                 .setSubject(authentication.getName())
                 .claim(AUTHORITIES_KEY, authorities)
+                .claim(TOKEN_VERSION_KEY, getTokenVersion(authentication))
                 .signWith(SignatureAlgorithm.HS256, jwtSecret)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationInMs))
                 .compact();
     }
 
+    /**
+     * Verifies a given token once and gets its claims.
+     * Verified tokens are cached until they expire, so repeat requests with the same token skip signature verification.
+     * @param token the user token
+     * @return the token's {@link Claims}, or empty if the token is invalid or expired
+     */
+    public Optional<Claims> verifyToken(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+
+        String digest = VerifiedTokenCache.digest(token);
+        Optional<Claims> cachedClaims = verifiedTokenCache.get(digest);
+        if (cachedClaims.isPresent()) {
+            return cachedClaims;
+        }
+
+        try {
+            Claims claims = Jwts.parser()
+                    .setSigningKey(jwtSecret)
+                    .parseClaimsJws(token)
+                    .getBody();
+            if (claims.getExpiration() == null || System.currentTimeMillis() >= claims.getExpiration().getTime()) {
+                return Optional.empty();
+            }
+
+            verifiedTokenCache.put(digest, claims);
+            return Optional.of(claims);
+        } catch (JwtException | IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+    }
+
     /**
      * Parses a given token and gets the username
      * @param token the user token
      * @return the username
+     * @throws SecurityException if the token is invalid or expired
      */
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(jwtSecret)
-                .parseClaimsJws(token)
-                .getBody();
+    public String getUsernameFromToken(String token) throws SecurityException {
+        return getClaimsFromToken(token).getSubject();
+    }
 
-        return claims.getSubject();
+    /**
+     * Parses a given token and gets all of its claims
+     * @param token the user token
+     * @return the token's {@link Claims}
+     * @throws SecurityException if the token is invalid or expired
+     */
+    public Claims getClaimsFromToken(String token) throws SecurityException {
+        return verifyToken(token)
+                .orElseThrow(() -> new SecurityException("Invalid or expired token given."));
+    }
+
+    /**
+     * Gets the authorities the token was issued with
+     * @param claims the token's {@link Claims}
+     * @return the user's authorities at the time the token was generated
+     */
+    public List<GrantedAuthority> getAuthoritiesFromClaims(Claims claims) {
+        String authorities = claims.get(AUTHORITIES_KEY, String.class);
+        if (StringUtils.isEmpty(authorities)) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(authorities.split(","))
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the user's token version the token was issued with
+     * @param claims the token's {@link Claims}
+     * @return the token version, or 0 for tokens issued before token versions existed
+     */
+    public int getTokenVersionFromClaims(Claims claims) {
+        Integer tokenVersion = claims.get(TOKEN_VERSION_KEY, Integer.class);
+        return tokenVersion != null ? tokenVersion : 0;
     }
 
     /**
@@ -61,16 +139,13 @@ public class JwtTokenProvider {
      * @return true if token is valid; false if token is invalid or expired
      */
     public boolean validateToken(String authToken) {
-        try {
-            Claims claims = Jwts.parser()
-                    .setSigningKey(jwtSecret)
-                    .parseClaimsJws(authToken)
-                    .getBody();
-
+        return verifyToken(authToken).isPresent();
+    }
 
-            return System.currentTimeMillis() < claims.getExpiration().getTime();
-        } catch (SignatureException | MalformedJwtException | UnsupportedJwtException | IllegalArgumentException ex) {
-            return false;
+    private int getTokenVersion(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof UserPrincipal) {
+            return ((UserPrincipal) authentication.getPrincipal()).getTokenVersion();
         }
+        return 0;
     }
 }
@@ -0,0 +1,155 @@
+package shift.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import shift.domain.security.TokenCacheStats;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of recently verified tokens, so that repeat requests with the same token skip signature verification until the token expires.
+ * Tokens are keyed by their SHA-256 digest, and the least recently used token is dropped once the cache is full.
+ * <p>
+ * Every request reads the cache, so it is split into segments by digest, each with its own lock and its own share of the
+ * maximum size: requests with different tokens rarely wait for each other, and the locks do not pin virtual threads the way
+ * monitors do. The least recently used token is dropped per segment, which is close to the whole cache's order.
+ * The claims are cached as an unmodifiable copy, so a request cannot change the claims another request reads.
+ * </p>
+ */
+@Component
+public class VerifiedTokenCache {
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Autowired
+    public VerifiedTokenCache(@Value("${app.jwtVerifiedTokenCacheSize:10000}") int maximumSize) {
+        this(maximumSize, SEGMENTS);
+    }
+
+    // a single segment keeps the exact least recently used order
+    VerifiedTokenCache(int maximumSize, int segmentCount) {
+        int segmentSize = Math.max(1, (maximumSize + segmentCount - 1) / segmentCount);
+        this.segments = new Segment[segmentCount];
+        for (int segment = 0; segment < segmentCount; segment++) {
+            segments[segment] = new Segment(segmentSize);
+        }
+    }
+
+    /**
+     * Gets the digest a token is cached by
+     * @param token the token
+     * @return the token's SHA-256 digest
+     */
+    public static String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    /**
+     * Gets the claims of a previously verified token that has not expired yet
+     * @param digest the token's digest
+     * @return the token's {@link Claims}, which cannot be modified, or empty when the token has to be verified
+     */
+    public Optional<Claims> get(String digest) {
+        Segment segment = getSegment(digest);
+        CachedClaims cachedClaims;
+        segment.lock.lock();
+        try {
+            cachedClaims = segment.claimsByDigest.get(digest);
+            if (cachedClaims != null && cachedClaims.getExpiresAt() <= System.currentTimeMillis()) {
+                segment.claimsByDigest.remove(digest);
+                cachedClaims = null;
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+
+        if (cachedClaims == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        return Optional.of(Jwts.claims(cachedClaims.getClaims()));
+    }
+
+    /**
+     * Caches a copy of the claims of a verified token until the token expires
+     * @param digest the token's digest
+     * @param claims the verified token's {@link Claims}
+     */
+    public void put(String digest, Claims claims) {
+        if (claims.getExpiration() == null) {
+            return;
+        }
+        CachedClaims cachedClaims = new CachedClaims(Collections.unmodifiableMap(new LinkedHashMap<>(claims)), claims.getExpiration().getTime());
+        Segment segment = getSegment(digest);
+        segment.lock.lock();
+        try {
+            segment.claimsByDigest.put(digest, cachedClaims);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * @return the cache's hit and miss counters and current size
+     */
+    public TokenCacheStats getStats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.claimsByDigest.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return new TokenCacheStats(hits.get(), misses.get(), size);
+    }
+
+    private Segment getSegment(String digest) {
+        return segments[(digest.hashCode() & Integer.MAX_VALUE) % segments.length];
+    }
+
+    private static class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, CachedClaims> claimsByDigest;
+
+        Segment(int maximumSize) {
+            this.claimsByDigest = new LinkedHashMap<String, CachedClaims>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedClaims> eldest) {
+                    return size() > maximumSize;
+                }
+            };
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class CachedClaims {
+        private final Map<String, Object> claims;
+        private final long expiresAt;
+    }
+}
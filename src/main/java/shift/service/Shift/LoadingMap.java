@@ -0,0 +1,111 @@
+package shift.service.Shift;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Concurrent map whose values are loaded from the database the first time their key is read.
+ * <p>
+ * Unlike {@link ConcurrentHashMap#computeIfAbsent}, which runs the loader inside the monitor of the map's bin, no monitor is
+ * held while loading: a monitor held across a query blocks every other key in the bin and pins a virtual thread to its carrier.
+ * Instead an entry is published before its load starts, and its lock is held until the load finishes, so a thread reading the
+ * key meanwhile waits for the same load. A key removed during its load is loaded again on next read.
+ * </p>
+ * @param <K> the key
+ * @param <V> the loaded value
+ */
+class LoadingMap<K, V> {
+    private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Function<K, V> loader;
+
+    /**
+     * @param loader loads the value of a key that is not loaded yet
+     */
+    LoadingMap(Function<K, V> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Gets the value of a key, loading it unless it is loaded or being loaded already
+     * @param key the key
+     * @return the loaded value
+     */
+    V get(K key) {
+        while (true) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                Entry<V> newEntry = new Entry<>();
+                newEntry.lock.lock();
+                try {
+                    entry = entries.putIfAbsent(key, newEntry);
+                    if (entry == null) {
+                        return load(key, newEntry);
+                    }
+                } finally {
+                    newEntry.lock.unlock();
+                }
+            }
+
+            // a failed load is removed from the map, so the next pass loads again
+            V value = entry.await();
+            if (value != null) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Gets the value of a key without loading it, waiting for a load in progress
+     * @param key the key
+     * @return the loaded value, or null when the key is not loaded
+     */
+    V getIfLoaded(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null ? entry.await() : null;
+    }
+
+    /**
+     * Drops the value of a key, so it is loaded again on next read
+     * @param key the key
+     */
+    void remove(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Drops the values of every matching key
+     * @param filter matches the keys to drop
+     */
+    void removeIf(Predicate<K> filter) {
+        entries.keySet().removeIf(filter);
+    }
+
+    private V load(K key, Entry<V> entry) {
+        try {
+            entry.value = loader.apply(key);
+            return entry.value;
+        } catch (RuntimeException | Error ex) {
+            entries.remove(key, entry);
+            throw ex;
+        }
+    }
+
+    private static class Entry<V> {
+        private final ReentrantLock lock = new ReentrantLock();
+
+        // set once, by the loading thread while holding the lock; null when the load failed
+        private V value;
+
+        V await() {
+            lock.lock();
+            try {
+                return value;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
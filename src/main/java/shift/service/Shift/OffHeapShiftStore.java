@@ -0,0 +1,512 @@
+package shift.service.Shift;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import shift.domain.dao.ShiftRepository;
+import shift.domain.dto.ShiftStoreStatsDto;
+import shift.domain.h2.Shift.MinuteOfDay;
+import shift.domain.h2.Shift.Shift;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Keeps every stored shift in off-heap columns and answers shift searches from them instead of the database.
+ * Enabled with app.shiftStore=offheap.
+ * <p>
+ * Each shift takes one row of five direct {@link ByteBuffer} columns: id, interned user id, epoch day and start and end
+ * minute, 20 bytes in total and no objects on the heap. Rows are sorted by user, date, start time and id, so a user's shifts
+ * are a contiguous row range found by binary search, already in page order.
+ * </p>
+ * <p>
+ * The database stays the system of record. The store is loaded from it on startup, or from the snapshot file written on
+ * the last shutdown when the database still has the snapshot's number of shifts and highest id, and follows committed
+ * {@link ShiftChangedEvent}s afterwards. Like the in-memory overlap index it only
+ * sees this instance's writes, so it is meant for single instance deployments.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "app.shiftStore", havingValue = "offheap")
+public class OffHeapShiftStore {
+    private static final int SNAPSHOT_MAGIC = 0x53484654;
+    private static final int SNAPSHOT_VERSION = 2;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int COPY_CHUNK_BYTES = 64 * 1024;
+
+    private static final int ID = 0;
+    private static final int USER = 1;
+    private static final int DATE = 2;
+    private static final int START = 3;
+    private static final int END = 4;
+    // bytes per value of each column
+    private static final int[] WIDTHS = { 8, 4, 4, 2, 2 };
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ShiftRepository shiftDao;
+    private final TransactionTemplate transactionTemplate;
+    private final Path snapshotPath;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> userIds = new HashMap<>();
+    private final List<String> usernames = new ArrayList<>();
+    // used while holding the write lock
+    private final byte[] moveChunk = new byte[COPY_CHUNK_BYTES];
+    private ByteBuffer[] columns;
+    private int capacity;
+    private int size;
+    private long changes;
+    private long changeNanos;
+
+    @Autowired
+    public OffHeapShiftStore(ShiftRepository shiftDao, PlatformTransactionManager transactionManager,
+                             @Value("${app.shiftStoreSnapshot:${user.home}/shift-store.snapshot}") String snapshotPath) {
+        this.shiftDao = shiftDao;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotPath = Paths.get(snapshotPath);
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Loads the store from the snapshot written on the last shutdown, or from the database when there is none or the database
+     * changed since, i.e. was recreated empty on restart. A snapshot is read only once, so the store is rebuilt from the
+     * database after a shutdown that did not write one
+     * @throws IOException when the snapshot cannot be deleted after reading it
+     */
+    @PostConstruct
+    public void load() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (Files.exists(snapshotPath) && readSnapshot()) {
+                Files.delete(snapshotPath);
+            } else {
+                loadFromDatabase();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the store to the snapshot file, replacing any previous snapshot
+     * @throws IOException when the snapshot cannot be written
+     */
+    @PreDestroy
+    public void writeSnapshot() throws IOException {
+        lock.readLock().lock();
+        try {
+            Path temporaryPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryPath)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeBoolean(ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN);
+                out.writeInt(size);
+                out.writeLong(getMaxId());
+                out.writeInt(usernames.size());
+                for (String username : usernames) {
+                    out.writeUTF(username);
+                }
+
+                byte[] chunk = new byte[COPY_CHUNK_BYTES];
+                for (int column = 0; column < columns.length; column++) {
+                    ByteBuffer values = columns[column].duplicate();
+                    values.clear().limit(size * WIDTHS[column]);
+                    while (values.hasRemaining()) {
+                        int length = Math.min(chunk.length, values.remaining());
+                        values.get(chunk, 0, length);
+                        out.write(chunk, 0, length);
+                    }
+                }
+            }
+            Files.move(temporaryPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a committed shift change
+     * @param event the committed change
+     */
+    @EventListener
+    public void onShiftChanged(ShiftChangedEvent event) {
+        lock.writeLock().lock();
+        long started = System.nanoTime();
+        try {
+            if (event.getPrevious() != null) {
+                removeRow(event.getPrevious());
+            }
+            if (event.getCurrent() != null) {
+                // the load may already have read the change
+                removeRow(event.getCurrent());
+                insertRow(event.getCurrent());
+            }
+        } finally {
+            changes++;
+            changeNanos += System.nanoTime() - started;
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the shifts matching a search, sorted by date, start time and id like the database search
+     * @param username the user whose shifts are searched, or null for every user
+     * @param fromDate the first date searched, or null for no lower bound
+     * @param toDate the last date searched, or null for no upper bound
+     * @param fromStartTime the earliest start time searched
+     * @param toEndTime the latest end time searched
+     * @param after the cursor the shifts must be sorted after, or null from the first shift
+     * @param limit the maximum number of shifts returned, or null for every matching shift
+     * @return the matching shifts. They are not managed by JPA
+     */
+    public List<Shift> findShifts(String username, LocalDate fromDate, LocalDate toDate, LocalTime fromStartTime, LocalTime toEndTime,
+                                  ShiftCursor after, Integer limit) {
+        int fromDay = fromDate != null ? (int) fromDate.toEpochDay() : Integer.MIN_VALUE;
+        int toDay = toDate != null ? (int) toDate.toEpochDay() : Integer.MAX_VALUE;
+        int fromStartMinute = MinuteOfDay.of(fromStartTime);
+        int toEndMinute = MinuteOfDay.of(toEndTime);
+        int maxShifts = limit != null ? limit : Integer.MAX_VALUE;
+
+        lock.readLock().lock();
+        try {
+            List<Shift> shifts = new ArrayList<>();
+            if (username != null) {
+                Integer userId = userIds.get(username);
+                if (userId != null) {
+                    collect(userId, fromDay, toDay, fromStartMinute, toEndMinute, after, maxShifts, shifts);
+                }
+                return shifts;
+            }
+
+            // each user's first matching rows are candidates for the page
+            for (int userId = 0; userId < usernames.size(); userId++) {
+                collect(userId, fromDay, toDay, fromStartMinute, toEndMinute, after, maxShifts, shifts);
+            }
+            shifts.sort(ShiftCursor.ORDER);
+            return shifts.size() > maxShifts ? new ArrayList<>(shifts.subList(0, maxShifts)) : shifts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of shifts and users in the store, the off-heap memory reserved for its columns, and the number of
+     * changes applied and the time spent applying them
+     */
+    public ShiftStoreStatsDto getStats() {
+        lock.readLock().lock();
+        try {
+            long offHeapBytes = 0;
+            for (ByteBuffer column : columns) {
+                offHeapBytes += column.capacity();
+            }
+            return ShiftStoreStatsDto.builder()
+                    .store("offheap")
+                    .shifts(size)
+                    .users(usernames.size())
+                    .offHeapBytes(offHeapBytes)
+                    .changes(changes)
+                    .changeNanos(changeNanos)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // the user's rows are in page order, so the scan starts at the first row searched and stops at the last date searched
+    private void collect(int userId, int fromDay, int toDay, int fromStartMinute, int toEndMinute, ShiftCursor after,
+                         int maxShifts, List<Shift> shifts) {
+        int row = lowerBound(userId, fromDay, Integer.MIN_VALUE, Long.MIN_VALUE);
+        if (after != null) {
+            row = Math.max(row, lowerBound(userId, (int) after.getShiftDate().toEpochDay(), MinuteOfDay.of(after.getStartTime()), after.getId() + 1));
+        }
+
+        int found = 0;
+        for (; row < size && getUser(row) == userId && getDate(row) <= toDay && found < maxShifts; row++) {
+            if (getStart(row) >= fromStartMinute && getEnd(row) <= toEndMinute) {
+                shifts.add(buildShift(row));
+                found++;
+            }
+        }
+    }
+
+    private void loadFromDatabase() {
+        size = 0;
+        userIds.clear();
+        usernames.clear();
+        transactionTemplate.execute(status -> {
+            try (Stream<Shift> shifts = shiftDao.streamAll()) {
+                shifts.forEach(shift -> {
+                    ensureCapacity(size + 1);
+                    writeRow(size++, shift.getId(), internUser(shift.getUsername()), (int) shift.getShiftDate().toEpochDay(),
+                            MinuteOfDay.of(shift.getStartTime()), MinuteOfDay.of(shift.getEndTime()));
+                    entityManager.detach(shift);
+                });
+            }
+            return null;
+        });
+        sortByUser();
+    }
+
+    // shifts are streamed in (date, start time, id) order, so a stable counting sort by user gives (user, date, start time, id)
+    private void sortByUser() {
+        int[] nextRows = new int[usernames.size() + 1];
+        for (int row = 0; row < size; row++) {
+            nextRows[getUser(row) + 1]++;
+        }
+        for (int userId = 1; userId < nextRows.length; userId++) {
+            nextRows[userId] += nextRows[userId - 1];
+        }
+
+        ByteBuffer[] sorted = createColumns(capacity);
+        for (int row = 0; row < size; row++) {
+            int sortedRow = nextRows[getUser(row)]++;
+            for (int column = 0; column < columns.length; column++) {
+                copyValue(columns[column], row, sorted[column], sortedRow, WIDTHS[column]);
+            }
+        }
+        columns = sorted;
+    }
+
+    // false when the snapshot is unreadable, was written on a machine with a different byte order or does not match the database
+    private boolean readSnapshot() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION ||
+                    in.readBoolean() != (ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN)) {
+                return false;
+            }
+            int rows = in.readInt();
+            long maxId = in.readLong();
+            if (!matchesDatabase(rows, maxId)) {
+                return false;
+            }
+            int users = in.readInt();
+
+            userIds.clear();
+            usernames.clear();
+            for (int userId = 0; userId < users; userId++) {
+                internUser(in.readUTF());
+            }
+
+            allocate(Math.max(INITIAL_CAPACITY, rows));
+            byte[] chunk = new byte[COPY_CHUNK_BYTES];
+            for (int column = 0; column < columns.length; column++) {
+                ByteBuffer values = columns[column].duplicate();
+                values.clear().limit(rows * WIDTHS[column]);
+                while (values.hasRemaining()) {
+                    int length = Math.min(chunk.length, values.remaining());
+                    in.readFully(chunk, 0, length);
+                    values.put(chunk, 0, length);
+                }
+            }
+            size = rows;
+            return true;
+        } catch (IOException | BufferUnderflowException ex) {
+            return false;
+        }
+    }
+
+    // shifts written while the service was stopped, or a database recreated on restart, change the count or the highest id
+    private boolean matchesDatabase(int rows, long maxId) {
+        Long storedMaxId = shiftDao.findMaxId();
+        return shiftDao.count() == rows && (storedMaxId != null ? storedMaxId : 0L) == maxId;
+    }
+
+    private long getMaxId() {
+        long maxId = 0L;
+        for (int row = 0; row < size; row++) {
+            maxId = Math.max(maxId, getId(row));
+        }
+        return maxId;
+    }
+
+    private void insertRow(ShiftInterval interval) {
+        int userId = internUser(interval.getUsername());
+        int day = (int) interval.getDate().toEpochDay();
+        int row = lowerBound(userId, day, interval.getStartMinute(), interval.getId());
+
+        ensureCapacity(size + 1);
+        moveRows(row, row + 1, size - row);
+        writeRow(row, interval.getId(), userId, day, interval.getStartMinute(), interval.getEndMinute());
+        size++;
+    }
+
+    private void removeRow(ShiftInterval interval) {
+        Integer userId = userIds.get(interval.getUsername());
+        if (userId == null) {
+            return;
+        }
+        int row = lowerBound(userId, (int) interval.getDate().toEpochDay(), interval.getStartMinute(), interval.getId());
+        if (row < size && getId(row) == interval.getId()) {
+            moveRows(row + 1, row, size - row - 1);
+            size--;
+        }
+    }
+
+    // the first row sorted at or after the given key
+    private int lowerBound(int userId, int day, int startMinute, long id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareRow(middle, userId, day, startMinute, id) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int compareRow(int row, int userId, int day, int startMinute, long id) {
+        int compared = Integer.compare(getUser(row), userId);
+        if (compared == 0) {
+            compared = Integer.compare(getDate(row), day);
+        }
+        if (compared == 0) {
+            compared = Integer.compare(getStart(row), startMinute);
+        }
+        if (compared == 0) {
+            compared = Long.compare(getId(row), id);
+        }
+        return compared;
+    }
+
+    // moves each column's values as one block of bytes
+    private void moveRows(int fromRow, int toRow, int rows) {
+        for (int column = 0; column < columns.length; column++) {
+            int width = WIDTHS[column];
+            moveBytes(columns[column], fromRow * width, toRow * width, rows * width);
+        }
+    }
+
+    // copies in chunks, starting from the end when moving up, so each chunk is read before an overlapping chunk overwrites it
+    private void moveBytes(ByteBuffer values, int from, int to, int length) {
+        ByteBuffer source = values.duplicate();
+        ByteBuffer target = values.duplicate();
+        for (int moved = 0; moved < length; ) {
+            int chunkLength = Math.min(moveChunk.length, length - moved);
+            int offset = to > from ? length - moved - chunkLength : moved;
+            source.position(from + offset);
+            source.get(moveChunk, 0, chunkLength);
+            target.position(to + offset);
+            target.put(moveChunk, 0, chunkLength);
+            moved += chunkLength;
+        }
+    }
+
+    private void copyValue(ByteBuffer from, int fromRow, ByteBuffer to, int toRow, int width) {
+        switch (width) {
+            case 8:
+                to.putLong(toRow * 8, from.getLong(fromRow * 8));
+                break;
+            case 4:
+                to.putInt(toRow * 4, from.getInt(fromRow * 4));
+                break;
+            default:
+                to.putShort(toRow * 2, from.getShort(fromRow * 2));
+        }
+    }
+
+    private void writeRow(int row, long id, int userId, int day, int startMinute, int endMinute) {
+        columns[ID].putLong(row * 8, id);
+        columns[USER].putInt(row * 4, userId);
+        columns[DATE].putInt(row * 4, day);
+        columns[START].putShort(row * 2, (short) startMinute);
+        columns[END].putShort(row * 2, (short) endMinute);
+    }
+
+    private Shift buildShift(int row) {
+        return Shift.builder()
+                .id(getId(row))
+                .username(usernames.get(getUser(row)))
+                .shiftDate(LocalDate.ofEpochDay(getDate(row)))
+                .startTime(MinuteOfDay.toLocalTime(getStart(row)))
+                .endTime(MinuteOfDay.toLocalTime(getEnd(row)))
+                .build();
+    }
+
+    private long getId(int row) {
+        return columns[ID].getLong(row * 8);
+    }
+
+    private int getUser(int row) {
+        return columns[USER].getInt(row * 4);
+    }
+
+    private int getDate(int row) {
+        return columns[DATE].getInt(row * 4);
+    }
+
+    private int getStart(int row) {
+        return columns[START].getShort(row * 2);
+    }
+
+    private int getEnd(int row) {
+        return columns[END].getShort(row * 2);
+    }
+
+    private int internUser(String username) {
+        return userIds.computeIfAbsent(username, key -> {
+            usernames.add(key);
+            return usernames.size() - 1;
+        });
+    }
+
+    // capacity doubles, so inserts copy the columns a logarithmic number of times
+    private void ensureCapacity(int rows) {
+        if (rows <= capacity) {
+            return;
+        }
+        ByteBuffer[] previous = columns;
+        int previousSize = size;
+        allocate(Math.max(rows, capacity * 2));
+        for (int column = 0; column < columns.length; column++) {
+            ByteBuffer values = previous[column].duplicate();
+            values.clear().limit(previousSize * WIDTHS[column]);
+            columns[column].put(values);
+            columns[column].clear();
+        }
+    }
+
+    private void allocate(int rows) {
+        capacity = rows;
+        columns = createColumns(rows);
+    }
+
+    private ByteBuffer[] createColumns(int rows) {
+        ByteBuffer[] created = new ByteBuffer[WIDTHS.length];
+        for (int column = 0; column < WIDTHS.length; column++) {
+            created[column] = ByteBuffer.allocateDirect(rows * WIDTHS[column]).order(ByteOrder.nativeOrder());
+        }
+        return created;
+    }
+}
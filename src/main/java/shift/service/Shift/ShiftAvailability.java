@@ -0,0 +1,235 @@
+package shift.service.Shift;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import shift.domain.dao.ShiftRepository;
+import shift.domain.dto.AvailabilityWindowDto;
+import shift.domain.h2.SearchCriteria;
+import shift.domain.h2.Shift.MinuteOfDay;
+import shift.domain.h2.Shift.ShiftSpecification;
+import shift.exception.ShiftIllegalArgumentException;
+
+import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Finds the time windows of a date in which a team is all free, or all working.
+ * <p>
+ * Each user's date is kept as a bitmap with one bit per minute, set while the user is on shift. Bitmaps are built from the
+ * user's shifts and recurring shift occurrences on that date on first use, and dropped when one of those shifts or one of the
+ * user's templates changes. Only the bitmaps of the {@value #MAX_LOADED_DATES} most recently queried dates are kept, so
+ * queries over many dates do not grow the cache without bound. A query combines the team's bitmaps
+ * 64 minutes at a time and scans the result for runs of set bits.
+ * </p>
+ */
+@Service
+public class ShiftAvailability {
+    public static final String FREE_MODE = "free";
+    public static final String WORKING_MODE = "working";
+
+    private static final String USERNAME_KEY = "username";
+    private static final String DATE_KEY = "shiftDate";
+    private static final int WORDS_PER_DAY = (MinuteOfDay.MINUTES_PER_DAY + 63) / 64;
+    // the bits past the last minute of the day in the last word
+    private static final long LAST_WORD_MASK = -1L >>> (WORDS_PER_DAY * 64 - MinuteOfDay.MINUTES_PER_DAY);
+    private static final int MAX_LOADED_DATES = 31;
+
+    private final LoadingMap<UserDay, long[]> userBitmaps = new LoadingMap<>(this::loadUserBitmap);
+    // the dates with loaded bitmaps, least recently queried first
+    private final Set<LocalDate> loadedDates = Collections.newSetFromMap(new LinkedHashMap<>(16, 0.75f, true));
+    private final Lock datesLock = new ReentrantLock();
+    private ShiftRepository shiftDao;
+    private ShiftTemplateService shiftTemplateService;
+
+    @Autowired
+    public ShiftAvailability(ShiftRepository shiftDao, ShiftTemplateService shiftTemplateService) {
+        this.shiftDao = shiftDao;
+        this.shiftTemplateService = shiftTemplateService;
+    }
+
+    /**
+     * Gets the windows of at least the given length in which every given user is free, or every given user is working.
+     * Users without shifts on the date are free all day.
+     * @param date the date of the shifts
+     * @param usernames the users to check
+     * @param minDurationMinutes the shortest window returned, in minutes
+     * @param mode {@value #FREE_MODE} for windows with every user off shift, or {@value #WORKING_MODE} for windows with every user on shift
+     * @return an {@link AvailabilityWindowDto} per matching window, in order of time
+     * @throws ShiftIllegalArgumentException when no users are given, the duration is not within the day or the mode is unknown
+     */
+    public List<AvailabilityWindowDto> getAvailability(@NotNull LocalDate date, @NotNull List<String> usernames, int minDurationMinutes, String mode) throws ShiftIllegalArgumentException {
+        if (usernames.isEmpty()) {
+            throw new ShiftIllegalArgumentException("At least one username is required.");
+        }
+        if (minDurationMinutes < 1 || minDurationMinutes > MinuteOfDay.MINUTES_PER_DAY) {
+            throw new ShiftIllegalArgumentException("The minimum duration must be between 1 and " + MinuteOfDay.MINUTES_PER_DAY + " minutes.");
+        }
+        boolean free = FREE_MODE.equalsIgnoreCase(mode);
+        if (!free && !WORKING_MODE.equalsIgnoreCase(mode)) {
+            throw new ShiftIllegalArgumentException("The availability mode must be " + FREE_MODE + " or " + WORKING_MODE + ".");
+        }
+
+        long[] matching = new long[WORDS_PER_DAY];
+        if (free) {
+            // free while nobody is working: the complement of the union of everyone's shifts
+            for (String username : new LinkedHashSet<>(usernames)) {
+                long[] bitmap = getUserBitmap(new UserDay(username, date));
+                for (int word = 0; word < WORDS_PER_DAY; word++) {
+                    matching[word] |= bitmap[word];
+                }
+            }
+            for (int word = 0; word < WORDS_PER_DAY; word++) {
+                matching[word] = ~matching[word];
+            }
+        } else {
+            Arrays.fill(matching, -1L);
+            for (String username : new LinkedHashSet<>(usernames)) {
+                long[] bitmap = getUserBitmap(new UserDay(username, date));
+                for (int word = 0; word < WORDS_PER_DAY; word++) {
+                    matching[word] &= bitmap[word];
+                }
+            }
+        }
+        matching[WORDS_PER_DAY - 1] &= LAST_WORD_MASK;
+        markQueried(date);
+
+        return getWindows(matching, minDurationMinutes);
+    }
+
+    /**
+     * Drops the cached bitmaps of the users and dates whose shifts changed
+     * @param event the committed change
+     */
+    @EventListener
+    public void onShiftChanged(ShiftChangedEvent event) {
+        if (event.getPrevious() != null && event.getPrevious().getUsername() != null) {
+            userBitmaps.remove(UserDay.of(event.getPrevious()));
+        }
+        if (event.getCurrent() != null && event.getCurrent().getUsername() != null) {
+            userBitmaps.remove(UserDay.of(event.getCurrent()));
+        }
+    }
+
+    /**
+     * Drops the bitmaps of a user after a committed change to one of the user's templates
+     * @param event the committed change
+     */
+    @EventListener
+    public void onShiftTemplateChanged(ShiftTemplateChangedEvent event) {
+        userBitmaps.removeIf(userDay -> userDay.getUsername().equals(event.getUsername()));
+    }
+
+    // encapsulation
+    private long[] getUserBitmap(UserDay userDay) {
+        return userBitmaps.get(userDay);
+    }
+
+    // called after the date's bitmaps are loaded, so bitmaps loaded while their date was being evicted are tracked again
+    private void markQueried(LocalDate date) {
+        LocalDate evicted = null;
+        datesLock.lock();
+        try {
+            if (loadedDates.add(date) && loadedDates.size() > MAX_LOADED_DATES) {
+                Iterator<LocalDate> eldest = loadedDates.iterator();
+                evicted = eldest.next();
+                eldest.remove();
+            }
+        } finally {
+            datesLock.unlock();
+        }
+        if (evicted != null) {
+            LocalDate evictedDate = evicted;
+            userBitmaps.removeIf(userDay -> userDay.getDate().equals(evictedDate));
+        }
+    }
+
+    // a change committed while the bitmap is being built drops it, so the next query builds it again
+    private long[] loadUserBitmap(UserDay userDay) {
+        long[] bitmap = new long[WORDS_PER_DAY];
+        shiftDao.findAll(Specification.where(new ShiftSpecification(new SearchCriteria(DATE_KEY, ":", userDay.getDate())))
+                .and(new ShiftSpecification(new SearchCriteria(USERNAME_KEY, ":", userDay.getUsername()))))
+                .forEach(shift -> setRange(bitmap, MinuteOfDay.of(shift.getStartTime()), MinuteOfDay.of(shift.getEndTime())));
+        shiftTemplateService.getOccurrences(userDay.getUsername(), userDay.getDate(), userDay.getDate())
+                .forEach(occurrence -> setRange(bitmap, MinuteOfDay.of(occurrence.getStartTime()), MinuteOfDay.of(occurrence.getEndTime())));
+        return bitmap;
+    }
+
+    // encapsulation
+    private List<AvailabilityWindowDto> getWindows(long[] bitmap, int minDurationMinutes) {
+        List<AvailabilityWindowDto> windows = new ArrayList<>();
+        int minute = nextSetBit(bitmap, 0);
+        while (minute < MinuteOfDay.MINUTES_PER_DAY) {
+            int end = nextClearBit(bitmap, minute);
+            if (end - minute >= minDurationMinutes) {
+                windows.add(AvailabilityWindowDto.builder()
+                        .startTime(MinuteOfDay.format(minute))
+                        .endTime(MinuteOfDay.format(end - 1))
+                        .durationMinutes(end - minute)
+                        .build());
+            }
+            minute = nextSetBit(bitmap, end);
+        }
+        return windows;
+    }
+
+    // sets the bits of the minutes in [from, to)
+    private static void setRange(long[] bitmap, int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (firstWord == lastWord) {
+            bitmap[firstWord] |= firstMask & lastMask;
+            return;
+        }
+        bitmap[firstWord] |= firstMask;
+        for (int word = firstWord + 1; word < lastWord; word++) {
+            bitmap[word] = -1L;
+        }
+        bitmap[lastWord] |= lastMask;
+    }
+
+    // returns the day's length when there is no set bit from the given minute
+    private static int nextSetBit(long[] bitmap, int from) {
+        int word = from >>> 6;
+        if (word >= WORDS_PER_DAY) {
+            return MinuteOfDay.MINUTES_PER_DAY;
+        }
+        long bits = bitmap[word] & (-1L << from);
+        while (bits == 0) {
+            if (++word == WORDS_PER_DAY) {
+                return MinuteOfDay.MINUTES_PER_DAY;
+            }
+            bits = bitmap[word];
+        }
+        return Math.min(word * 64 + Long.numberOfTrailingZeros(bits), MinuteOfDay.MINUTES_PER_DAY);
+    }
+
+    // returns the day's length when every bit from the given minute is set
+    private static int nextClearBit(long[] bitmap, int from) {
+        int word = from >>> 6;
+        long bits = ~bitmap[word] & (-1L << from);
+        while (bits == 0) {
+            if (++word == WORDS_PER_DAY) {
+                return MinuteOfDay.MINUTES_PER_DAY;
+            }
+            bits = ~bitmap[word];
+        }
+        return Math.min(word * 64 + Long.numberOfTrailingZeros(bits), MinuteOfDay.MINUTES_PER_DAY);
+    }
+}
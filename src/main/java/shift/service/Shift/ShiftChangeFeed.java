@@ -0,0 +1,264 @@
+package shift.service.Shift;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import shift.config.VirtualThreads;
+import shift.domain.dto.ShiftChangeDto;
+import shift.exception.ServiceOverloadedException;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes committed shift changes to server-sent event subscribers.
+ * <p>
+ * Subscribers hold no thread while idle: each connection is an asynchronous request with a bounded queue of pending events.
+ * A change is serialized once, offered to the queue of every matching subscriber and sent by a small shared pool of threads.
+ * Each send builds its own event from the serialized change, as building an event appends to the builder and is not thread-safe.
+ * Writers never wait for subscribers: a subscriber whose queue is full is disconnected, and is expected to reconnect and
+ * read the shifts it missed. A comment is sent to every subscriber periodically, so closed connections are noticed.
+ * Sends block on the connection, so each one is written by a separate writer thread and the sender waits at most
+ * app.shiftStreamSendTimeoutInMs for it: a subscriber that does not take an event in time is disconnected too, and its
+ * stuck write no longer holds up the senders shared by every other subscriber.
+ * With app.virtualThreads=true each send runs on its own virtual thread instead, so a slow subscriber only holds up itself.
+ * </p>
+ */
+@Component
+public class ShiftChangeFeed {
+    private final ObjectWriter changeWriter;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders;
+    private final ExecutorService writers;
+    private final ScheduledExecutorService heartbeats;
+    private final long timeoutMillis;
+    private final long sendTimeoutMillis;
+    private final int queueCapacity;
+    private final int maxSubscribers;
+
+    @Autowired
+    public ShiftChangeFeed(ObjectMapper objectMapper,
+                           @Value("${app.shiftStreamThreads:2}") int threads,
+                           @Value("${app.shiftStreamQueueCapacity:256}") int queueCapacity,
+                           @Value("${app.shiftStreamMaxSubscribers:5000}") int maxSubscribers,
+                           @Value("${app.shiftStreamTimeoutInMs:1800000}") long timeoutMillis,
+                           @Value("${app.shiftStreamHeartbeatInMs:30000}") long heartbeatMillis,
+                           @Value("${app.shiftStreamSendTimeoutInMs:10000}") long sendTimeoutMillis,
+                           @Value("${app.virtualThreads:false}") boolean virtualThreads) {
+        this.changeWriter = objectMapper.writerFor(ShiftChangeDto.class);
+        this.queueCapacity = queueCapacity;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeoutMillis;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        this.senders = virtualThreads ? VirtualThreads.newExecutor("shift-stream-sender-") : Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "shift-stream-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // idle writers are reused, so only writes stuck on a slow connection add threads
+        this.writers = virtualThreads ? VirtualThreads.newExecutor("shift-stream-writer-") : Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "shift-stream-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shift-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeats.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Subscribes to committed shift changes
+     * @param username only send changes to this user's shifts, or null for every change
+     * @return the emitter to return from the request
+     * @throws ServiceOverloadedException when the maximum number of subscribers is connected
+     */
+    public SseEmitter subscribe(String username) throws ServiceOverloadedException {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ServiceOverloadedException("Too many shift stream subscribers. Please try again later.");
+        }
+
+        Subscriber subscriber = new Subscriber(createEmitter(timeoutMillis), username, queueCapacity);
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return subscriber.emitter;
+    }
+
+    /**
+     * Queues a committed change for every subscriber following it
+     * @param event the committed change
+     */
+    @EventListener
+    public void onShiftChanged(ShiftChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        ShiftChangeDto change = ShiftChangeRecord.of(event).toShiftChangeDto();
+        Message message = new Message(change.getType(), serialize(change));
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.follows(event)) {
+                offer(subscriber, message);
+            }
+        }
+    }
+
+    /**
+     * @return the number of connected subscribers
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        writers.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    /**
+     * @param timeoutMillis how long the connection stays open before the client has to reconnect
+     * @return a new emitter for a subscriber
+     */
+    protected SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void sendHeartbeats() {
+        subscribers.forEach(subscriber -> offer(subscriber, Message.HEARTBEAT));
+    }
+
+    private void offer(Subscriber subscriber, Message message) {
+        if (!subscriber.queue.offer(message)) {
+            // too slow to keep up: the subscriber reconnects and catches up by reading the shifts
+            disconnect(subscriber);
+            return;
+        }
+        if (subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> send(subscriber));
+        }
+    }
+
+    // one sender per subscriber at a time keeps its events in order
+    private void send(Subscriber subscriber) {
+        try {
+            Message message;
+            while ((message = subscriber.queue.poll()) != null) {
+                write(subscriber, message);
+            }
+        } catch (IOException | IllegalStateException | TimeoutException ex) {
+            // the client is gone, the emitter has completed or the client stopped reading
+            disconnect(subscriber);
+            return;
+        } catch (InterruptedException ex) {
+            // the feed is shutting down
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            subscriber.sending.set(false);
+        }
+        // an event queued after the queue was found empty, but before the flag was cleared, is sent by another run
+        if (!subscriber.queue.isEmpty() && subscriber.sending.compareAndSet(false, true)) {
+            senders.execute(() -> send(subscriber));
+        }
+    }
+
+    private void write(Subscriber subscriber, Message message) throws IOException, TimeoutException, InterruptedException {
+        Future<?> write = writers.submit(() -> {
+            subscriber.emitter.send(message.toEvent());
+            return null;
+        });
+        try {
+            write.get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException | InterruptedException ex) {
+            write.cancel(true);
+            throw ex;
+        }
+    }
+
+    private void disconnect(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.queue.clear();
+            subscriber.emitter.complete();
+        }
+    }
+
+    private String serialize(ShiftChangeDto change) {
+        try {
+            return changeWriter.writeValueAsString(change);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static class Subscriber {
+        private final SseEmitter emitter;
+        private final String username;
+        private final BlockingQueue<Message> queue;
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, String username, int queueCapacity) {
+            this.emitter = emitter;
+            this.username = username;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        boolean follows(ShiftChangedEvent event) {
+            return username == null ||
+                    (event.getPrevious() != null && username.equals(event.getPrevious().getUsername())) ||
+                    (event.getCurrent() != null && username.equals(event.getCurrent().getUsername()));
+        }
+    }
+
+    // immutable, so one instance is shared by every subscriber's queue
+    private static class Message {
+        private static final Message HEARTBEAT = new Message(null, null);
+
+        private final String name;
+        private final String data;
+
+        Message(String name, String data) {
+            this.name = name;
+            this.data = data;
+        }
+
+        SseEmitter.SseEventBuilder toEvent() {
+            if (data == null) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            return SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON);
+        }
+    }
+}
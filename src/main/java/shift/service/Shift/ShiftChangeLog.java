@@ -0,0 +1,471 @@
+package shift.service.Shift;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import shift.domain.dto.ShiftChangeDto;
+import shift.domain.dto.ShiftChangeLogStatsDto;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of every committed shift change, kept for auditing.
+ * <p>
+ * Changes are queued once their transaction has committed, so the database transaction never waits for the log. A single
+ * writer thread appends queued records to a memory-mapped segment file and forces the segment to disk once per batch, so
+ * records queued while the previous batch was being synced share one sync. A full segment is synced and closed, and a new
+ * one is started. See {@link ShiftChangeLogReader} for the file format and for replaying the log.
+ * </p>
+ * <p>
+ * The change is already committed when it is logged, so logging never fails the request, and appending never waits for the
+ * writer. While the queue is full, records are spilled in order to an overflow file in the log directory and synced there,
+ * and the writer moves them into the log once it has caught up. A writer that fails logs the error, reports itself down in
+ * the health of the application, and retries the batch on a new segment every app.changeLogRetryInMs. A batch whose sync
+ * failed is written again, so it may appear twice in the log. Records are only lost when the overflow file cannot be written
+ * either; they are counted in {@link #getStats()} and keep the log reported down until the application is restarted.
+ * </p>
+ * <p>
+ * Appending and waiting for a sync block with locks rather than monitors, so request handlers on virtual threads do not pin
+ * their carrier threads while a record is spilled or a sync is in progress.
+ * </p>
+ */
+@Component
+public class ShiftChangeLog {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShiftChangeLog.class);
+    private static final long POLL_MILLIS = 100;
+    private static final String OVERFLOW_FILE = "overflow.log";
+    private static final String DRAINING_FILE = "overflow-draining.log";
+    private static final String UNWRITTEN_FILE = "overflow-unwritten.log";
+
+    private final Path directory;
+    private final Path overflow;
+    private final Path draining;
+    private final int segmentBytes;
+    private final BlockingQueue<byte[]> queue;
+    private final long retryMillis;
+    private final AtomicLong appendedRecords = new AtomicLong();
+    private final AtomicLong spilledRecords = new AtomicLong();
+    private final AtomicLong droppedRecords = new AtomicLong();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition synced = syncLock.newCondition();
+    private long syncedRecords;
+    private volatile boolean running;
+    private volatile boolean writing;
+    private volatile Throwable failure;
+    private Thread writer;
+
+    // guarded by appendLock: once a record is spilled, later records are spilled too until the writer takes the overflow file
+    private boolean overflowing;
+    private FileChannel overflowChannel;
+    private final CRC32 overflowCrc = new CRC32();
+
+    // only used by the writer thread once started
+    private int segmentNumber;
+    private FileChannel segmentChannel;
+    private MappedByteBuffer segment;
+    private final CRC32 crc = new CRC32();
+
+    @Autowired
+    public ShiftChangeLog(@Value("${app.changeLogDirectory:${user.home}/shift-changelog}") String directory,
+                          @Value("${app.changeLogSegmentBytes:67108864}") int segmentBytes,
+                          @Value("${app.changeLogQueueCapacity:10000}") int queueCapacity,
+                          @Value("${app.changeLogRetryInMs:1000}") long retryMillis) {
+        this.directory = Paths.get(directory);
+        this.overflow = this.directory.resolve(OVERFLOW_FILE);
+        this.draining = this.directory.resolve(DRAINING_FILE);
+        this.segmentBytes = segmentBytes;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.retryMillis = retryMillis;
+    }
+
+    /**
+     * Starts a new segment after the existing ones and starts the writer thread.
+     * Earlier segments are never written again, so a record cut off by a crash stays the last record read from its segment.
+     * Records left in the overflow file by an earlier run are moved into the log first
+     * @throws IOException when the log directory or segment cannot be opened
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> segments = new ShiftChangeLogReader(directory).getSegments();
+        if (segments.isEmpty()) {
+            openSegment(0);
+        } else {
+            String name = segments.get(segments.size() - 1).getFileName().toString();
+            openSegment(Integer.parseInt(name.substring(ShiftChangeLogReader.SEGMENT_PREFIX.length(), name.length() - ShiftChangeLogReader.SEGMENT_SUFFIX.length())) + 1);
+        }
+        overflowing = Files.exists(overflow);
+        appendedRecords.set(countRecords(draining) + countRecords(overflow));
+
+        running = true;
+        writing = true;
+        writer = new Thread(this::writeRecords, "shift-changelog-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Writes the queued records, syncs them and closes the segment.
+     * Records the writer cannot write are left in the overflow file for the next start
+     * @throws InterruptedException when interrupted while waiting for the writer thread
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (failure != null) {
+            // stop waiting to retry
+            writer.interrupt();
+        }
+        writer.join();
+    }
+
+    /**
+     * Queues a committed shift change, recording the current user as the one who made it.
+     * Never throws: a change that cannot be logged is counted, and reported in the health of the application
+     * @param event the committed change
+     */
+    @EventListener
+    public void onShiftChanged(ShiftChangedEvent event) {
+        try {
+            append(ShiftChangeRecord.of(event));
+        } catch (RuntimeException ex) {
+            droppedRecords.incrementAndGet();
+            LOGGER.error("Shift change {} could not be logged", event.getId(), ex);
+        }
+    }
+
+    /**
+     * Queues a record for the writer thread, or spills it to the overflow file when the writer has fallen a whole queue behind.
+     * Never waits for the writer
+     * @param record the record to append
+     * @return the number of records appended so far, which {@link #awaitSynced(long)} can wait for
+     * @throws IllegalStateException when the record is larger than a segment, or could neither be queued nor spilled
+     */
+    public long append(ShiftChangeRecord record) throws IllegalStateException {
+        byte[] bytes = record.encode();
+        if (bytes.length + ShiftChangeLogReader.FRAME_HEADER_BYTES > segmentBytes) {
+            throw new IllegalStateException("Shift change record does not fit in a log segment");
+        }
+
+        // one append at a time keeps the returned count in the order records reach the log
+        appendLock.lock();
+        try {
+            if (overflowing || !queue.offer(bytes)) {
+                overflowing = true;
+                spill(bytes);
+            }
+            return appendedRecords.incrementAndGet();
+        } catch (IOException ex) {
+            throw new IllegalStateException("The shift change log cannot be written", ex);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the given number of records are synced to disk, or the writer has stopped
+     * @param records the count returned by {@link #append(ShiftChangeRecord)}
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public void awaitSynced(long records) throws InterruptedException {
+        syncLock.lock();
+        try {
+            while (syncedRecords < records && writing) {
+                synced.await();
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the history of a shift by scanning the log from its first segment
+     * @param shiftId the id of the shift
+     * @return a {@link ShiftChangeDto} per change to the shift, oldest first. Changes still queued or spilled are not included
+     */
+    public List<ShiftChangeDto> getHistory(long shiftId) {
+        try {
+            return new ShiftChangeLogReader(directory).getHistory(shiftId).stream()
+                    .map(ShiftChangeRecord::toShiftChangeDto)
+                    .collect(Collectors.toList());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * @return the number of records appended, synced, spilled and lost, and why the writer is failing if it is
+     */
+    public ShiftChangeLogStatsDto getStats() {
+        Throwable failed = failure;
+        syncLock.lock();
+        try {
+            return ShiftChangeLogStatsDto.builder()
+                    .appendedRecords(appendedRecords.get())
+                    .syncedRecords(syncedRecords)
+                    .spilledRecords(spilledRecords.get())
+                    .droppedRecords(droppedRecords.get())
+                    .failure(failed != null ? failed.toString() : null)
+                    .build();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void writeRecords() {
+        List<byte[]> batch = new ArrayList<>();
+        boolean drainingBatch = false;
+        while (true) {
+            try {
+                if (segment == null) {
+                    openSegment(segmentNumber + 1);
+                }
+                if (batch.isEmpty()) {
+                    drainingBatch = Files.exists(draining);
+                    if (drainingBatch) {
+                        readRecords(draining, batch);
+                    } else if (!takeBatch(batch) && !takeOverflow() && !running) {
+                        break;
+                    }
+                }
+                writeBatch(batch);
+                if (drainingBatch) {
+                    Files.delete(draining);
+                    drainingBatch = false;
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Throwable ex) {
+                // the rest of the batch is written again to a new segment, as the failed one may not have reached the disk
+                failure = ex;
+                LOGGER.error("The shift change log cannot be written, retrying in {} ms", retryMillis, ex);
+                closeSegment();
+                if (!running || !pause()) {
+                    break;
+                }
+            }
+        }
+        // an interrupt would close the overflow file while the unwritten records are kept in it
+        boolean interrupted = Thread.interrupted();
+        keepUnwritten(drainingBatch ? new ArrayList<>() : batch);
+        closeSegment();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        writing = false;
+        markSynced(0);
+    }
+
+    // waits for a record for a while, then takes every record queued behind it
+    private boolean takeBatch(List<byte[]> batch) throws InterruptedException {
+        byte[] first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return false;
+        }
+        batch.add(first);
+        queue.drainTo(batch);
+        return true;
+    }
+
+    // once every record queued before the spilled ones is written, the overflow file is taken over and new records are queued again
+    private boolean takeOverflow() throws IOException {
+        appendLock.lock();
+        try {
+            if (!overflowing || !queue.isEmpty()) {
+                return false;
+            }
+            if (overflowChannel != null) {
+                overflowChannel.close();
+                overflowChannel = null;
+            }
+            // the overflow file is missing when not even the first spilled record could be written
+            if (Files.exists(overflow)) {
+                Files.move(overflow, draining);
+            }
+            overflowing = false;
+            return true;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void readRecords(Path file, List<byte[]> records) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ShiftChangeLogReader.scan(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), record -> records.add(record.encode()));
+        }
+    }
+
+    private long countRecords(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        AtomicLong records = new AtomicLong();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ShiftChangeLogReader.scan(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), record -> records.incrementAndGet());
+        }
+        return records.get();
+    }
+
+    private void spill(byte[] bytes) throws IOException {
+        if (overflowChannel == null) {
+            overflowChannel = FileChannel.open(overflow, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        writeFrame(overflowChannel, bytes);
+        overflowChannel.force(false);
+        spilledRecords.incrementAndGet();
+    }
+
+    // overflow files are framed like segments, so they are read the same way
+    private void writeFrame(FileChannel channel, byte[] bytes) throws IOException {
+        overflowCrc.reset();
+        overflowCrc.update(bytes);
+        ByteBuffer frame = ByteBuffer.allocate(ShiftChangeLogReader.FRAME_HEADER_BYTES + bytes.length);
+        frame.putInt(bytes.length).putInt((int) overflowCrc.getValue()).put(bytes).flip();
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+
+    // records that did not reach the log are kept in the overflow file for the next start, in the order they were appended
+    private void keepUnwritten(List<byte[]> batch) {
+        appendLock.lock();
+        List<byte[]> unwritten = new ArrayList<>();
+        try {
+            queue.drainTo(batch);
+            if (overflowChannel != null) {
+                overflowChannel.close();
+                overflowChannel = null;
+            }
+            if (Files.exists(draining)) {
+                readRecords(draining, unwritten);
+            }
+            unwritten.addAll(batch);
+            if (Files.exists(overflow)) {
+                readRecords(overflow, unwritten);
+            }
+            if (!unwritten.isEmpty()) {
+                Path kept = directory.resolve(UNWRITTEN_FILE);
+                try (FileChannel channel = FileChannel.open(kept, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    for (byte[] bytes : unwritten) {
+                        writeFrame(channel, bytes);
+                    }
+                    channel.force(false);
+                }
+                Files.move(kept, overflow, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            Files.deleteIfExists(draining);
+        } catch (IOException ex) {
+            // the overflow files are left as they were, so only the records held in memory are lost
+            droppedRecords.addAndGet(batch.size());
+            LOGGER.error("{} shift changes could not be kept for the next start", batch.size(), ex);
+        } finally {
+            // appends after the writer stopped only reach the overflow file
+            overflowing = true;
+            appendLock.unlock();
+        }
+    }
+
+    private void markSynced(int records) {
+        if (records > 0 && failure != null) {
+            LOGGER.info("The shift change log writer recovered");
+            failure = null;
+        }
+        syncLock.lock();
+        try {
+            syncedRecords += records;
+            synced.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    // group commit: one sync for every record in the batch
+    private void writeBatch(List<byte[]> batch) throws IOException {
+        int written = 0;
+        while (written < batch.size()) {
+            byte[] bytes = batch.get(written);
+            if (segment.remaining() < ShiftChangeLogReader.FRAME_HEADER_BYTES + bytes.length) {
+                // the records written so far are synced with the full segment, so failing to start the next one does not repeat them
+                segment.force();
+                markSynced(written);
+                batch.subList(0, written).clear();
+                written = 0;
+                closeSegment();
+                openSegment(segmentNumber + 1);
+            }
+            write(bytes);
+            written++;
+        }
+        if (written > 0) {
+            segment.force();
+            markSynced(written);
+            batch.clear();
+        }
+    }
+
+    // the length is written last, so readers never see the length of a record whose bytes are not written yet
+    private void write(byte[] bytes) {
+        crc.reset();
+        crc.update(bytes);
+        int position = segment.position();
+        segment.putInt(position + 4, (int) crc.getValue());
+        segment.position(position + ShiftChangeLogReader.FRAME_HEADER_BYTES);
+        segment.put(bytes);
+        segment.putInt(position, bytes.length);
+    }
+
+    private void openSegment(int number) throws IOException {
+        segmentNumber = number;
+        Path path = directory.resolve(ShiftChangeLogReader.segmentFileName(number));
+        segmentChannel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = segmentChannel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+    }
+
+    private void closeSegment() {
+        segment = null;
+        if (segmentChannel != null) {
+            try {
+                segmentChannel.close();
+            } catch (IOException ex) {
+                LOGGER.warn("Shift change log segment {} could not be closed", segmentNumber, ex);
+            }
+            segmentChannel = null;
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(retryMillis);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
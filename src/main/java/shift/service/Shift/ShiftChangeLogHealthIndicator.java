@@ -0,0 +1,39 @@
+package shift.service.Shift;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+import shift.domain.dto.ShiftChangeLogStatsDto;
+
+/**
+ * Reports the shift change log in /actuator/health.
+ * The log is down while its writer is failing, and stays down once a committed change has been lost,
+ * so the loss is noticed instead of only being counted.
+ * /actuator/health is not behind the token filter, so it only shows the status; the details are kept for
+ * health endpoints configured to show them, and the counters are always at /app/metrics/change-log.
+ */
+@Component
+public class ShiftChangeLogHealthIndicator implements HealthIndicator {
+    private ShiftChangeLog shiftChangeLog;
+
+    @Autowired
+    public ShiftChangeLogHealthIndicator(ShiftChangeLog shiftChangeLog) {
+        this.shiftChangeLog = shiftChangeLog;
+    }
+
+    @Override
+    public Health health() {
+        ShiftChangeLogStatsDto stats = shiftChangeLog.getStats();
+        Health.Builder health = stats.getFailure() == null && stats.getDroppedRecords() == 0 ? Health.up() : Health.down();
+        if (stats.getFailure() != null) {
+            health.withDetail("failure", stats.getFailure());
+        }
+        return health
+                .withDetail("appendedRecords", stats.getAppendedRecords())
+                .withDetail("syncedRecords", stats.getSyncedRecords())
+                .withDetail("spilledRecords", stats.getSpilledRecords())
+                .withDetail("droppedRecords", stats.getDroppedRecords())
+                .build();
+    }
+}
@@ -0,0 +1,165 @@
+package shift.service.Shift;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Reads the segments written by {@link ShiftChangeLog}, oldest first, one record after another.
+ * <p>
+ * Each record is framed as its length, the CRC32 of its bytes and the bytes of the encoded {@link ShiftChangeRecord}.
+ * A segment ends at the first zero length, or at a record that was not completely written.
+ * Can be run on its own to print the history of a shift, or the shifts rebuilt from the log:
+ * {@code java -cp <classpath> shift.service.Shift.ShiftChangeLogReader <directory> [shiftId]}
+ * </p>
+ */
+public class ShiftChangeLogReader {
+    static final String SEGMENT_PREFIX = "segment-";
+    static final String SEGMENT_SUFFIX = ".log";
+    static final int FRAME_HEADER_BYTES = 8;
+
+    private final Path directory;
+
+    public ShiftChangeLogReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @param number the number of the segment, counting up from 1
+     * @return the name of the segment's file within the log directory
+     */
+    public static String segmentFileName(int number) {
+        return String.format("%s%010d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Prints the history of a shift, or every shift rebuilt from the log when no shift id is given
+     * @param args the log directory, and optionally a shift id
+     * @throws IOException when the log cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ShiftChangeLogReader <directory> [shiftId]");
+            System.exit(1);
+        }
+        ShiftChangeLogReader reader = new ShiftChangeLogReader(Paths.get(args[0]));
+        if (args.length > 1) {
+            reader.getHistory(Long.parseLong(args[1])).forEach(System.out::println);
+        } else {
+            reader.rebuild().values().forEach(System.out::println);
+        }
+    }
+
+    /**
+     * Reads every record in the log, in the order they were written
+     * @param consumer receives each record
+     * @throws IOException when a segment cannot be read
+     */
+    public void replay(Consumer<ShiftChangeRecord> consumer) throws IOException {
+        for (Path segment : getSegments()) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                scan(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), consumer);
+            }
+        }
+    }
+
+    /**
+     * @param shiftId the id of the shift
+     * @return every change to the shift, oldest first
+     * @throws IOException when a segment cannot be read
+     */
+    public List<ShiftChangeRecord> getHistory(long shiftId) throws IOException {
+        List<ShiftChangeRecord> history = new ArrayList<>();
+        replay(record -> {
+            if (record.getShiftId() == shiftId) {
+                history.add(record);
+            }
+        });
+        return history;
+    }
+
+    /**
+     * Rebuilds the shifts by applying every change in the log
+     * @return the shifts that exist after the last change, by id
+     * @throws IOException when a segment cannot be read
+     */
+    public Map<Long, ShiftInterval> rebuild() throws IOException {
+        Map<Long, ShiftInterval> shifts = new TreeMap<>();
+        replay(record -> {
+            if (record.getCurrent() != null) {
+                shifts.put(record.getShiftId(), record.getCurrent());
+            } else {
+                shifts.remove(record.getShiftId());
+            }
+        });
+        return shifts;
+    }
+
+    /**
+     * @return the segment files of the log, oldest first
+     * @throws IOException when the directory cannot be listed
+     */
+    List<Path> getSegments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            // segment numbers are zero padded, so names sort in the order segments were written
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Reads the complete records at the start of a segment
+     * @param segment the segment's contents
+     * @param consumer receives each record, or null to only find the end of the records
+     * @return the position after the last complete record
+     */
+    static int scan(ByteBuffer segment, Consumer<ShiftChangeRecord> consumer) {
+        int position = 0;
+        CRC32 crc = new CRC32();
+        while (position + FRAME_HEADER_BYTES <= segment.limit()) {
+            int length = segment.getInt(position);
+            if (length <= 0 || length > segment.limit() - position - FRAME_HEADER_BYTES) {
+                break;
+            }
+
+            byte[] bytes = new byte[length];
+            ByteBuffer recordBytes = segment.duplicate();
+            recordBytes.position(position + FRAME_HEADER_BYTES);
+            recordBytes.get(bytes);
+            crc.reset();
+            crc.update(bytes);
+            if ((int) crc.getValue() != segment.getInt(position + 4)) {
+                break;
+            }
+
+            if (consumer != null) {
+                try {
+                    consumer.accept(ShiftChangeRecord.decode(bytes));
+                } catch (IOException ex) {
+                    break;
+                }
+            }
+            position += FRAME_HEADER_BYTES + length;
+        }
+        return position;
+    }
+}
@@ -0,0 +1,151 @@
+package shift.service.Shift;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import shift.domain.dto.ShiftChangeDto;
+import shift.domain.h2.Shift.MinuteOfDay;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A committed shift change as written to the {@link ShiftChangeLog}: who changed the shift, when, and its date and time
+ * range before and after the change. The previous interval is null for a created shift, and the current interval is null for
+ * a deleted shift.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class ShiftChangeRecord {
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+
+    private static final String SYSTEM_USER = "system";
+    private static final int FORMAT_VERSION = 1;
+    private static final int HAS_PREVIOUS = 1;
+    private static final int HAS_CURRENT = 2;
+
+    private final long changedAt;
+    private final String changedBy;
+    private final long shiftId;
+    private final ShiftInterval previous;
+    private final ShiftInterval current;
+
+    /**
+     * Creates the record of a change committed now by the current user, or by "system" outside of a request
+     * @param event the committed change
+     * @return the record of the change
+     */
+    public static ShiftChangeRecord of(ShiftChangedEvent event) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String changedBy = authentication != null ? authentication.getName() : SYSTEM_USER;
+        return new ShiftChangeRecord(Instant.now().toEpochMilli(), changedBy, event.getId(), event.getPrevious(), event.getCurrent());
+    }
+
+    /**
+     * @return {@value #CREATED}, {@value #UPDATED} or {@value #DELETED}
+     */
+    public String getType() {
+        if (previous == null) {
+            return CREATED;
+        }
+        return current == null ? DELETED : UPDATED;
+    }
+
+    /**
+     * @return the {@link ShiftChangeDto} returned to clients for this change
+     */
+    public ShiftChangeDto toShiftChangeDto() {
+        ShiftChangeDto.ShiftChangeDtoBuilder builder = ShiftChangeDto.builder()
+                .type(getType())
+                .shiftId(shiftId)
+                .changedAt(Instant.ofEpochMilli(changedAt).toString())
+                .changedBy(changedBy);
+        if (previous != null) {
+            builder.previousUser(previous.getUsername())
+                    .previousDate(previous.getDate().toString())
+                    .previousStartTime(MinuteOfDay.format(previous.getStartMinute()))
+                    .previousEndTime(MinuteOfDay.format(previous.getEndMinute()));
+        }
+        if (current != null) {
+            builder.user(current.getUsername())
+                    .date(current.getDate().toString())
+                    .startTime(MinuteOfDay.format(current.getStartMinute()))
+                    .endTime(MinuteOfDay.format(current.getEndMinute()));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Encodes the record into its binary form: a version byte, the time in epoch milliseconds, the shift id, the user who made
+     * the change, and a flag byte followed by the username, epoch day and start and end minute of each interval that is present
+     * @return the encoded record
+     */
+    public byte[] encode() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(changedAt);
+            out.writeLong(shiftId);
+            out.writeUTF(changedBy);
+            out.writeByte((previous != null ? HAS_PREVIOUS : 0) | (current != null ? HAS_CURRENT : 0));
+            writeInterval(out, previous);
+            writeInterval(out, current);
+            return bytes.toByteArray();
+        } catch (IOException ex) {
+            // writing to memory does not fail
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Decodes a record written by {@link #encode()}
+     * @param bytes the encoded record
+     * @return the decoded record
+     * @throws IOException when the bytes are not an encoded record
+     */
+    public static ShiftChangeRecord decode(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readByte() != FORMAT_VERSION) {
+            throw new IOException("Unknown shift change record version");
+        }
+        long changedAt = in.readLong();
+        long shiftId = in.readLong();
+        String changedBy = in.readUTF();
+        int flags = in.readByte();
+        ShiftInterval previous = (flags & HAS_PREVIOUS) != 0 ? readInterval(in, shiftId) : null;
+        ShiftInterval current = (flags & HAS_CURRENT) != 0 ? readInterval(in, shiftId) : null;
+        return new ShiftChangeRecord(changedAt, changedBy, shiftId, previous, current);
+    }
+
+    private static void writeInterval(DataOutputStream out, ShiftInterval interval) throws IOException {
+        if (interval == null) {
+            return;
+        }
+        out.writeUTF(interval.getUsername());
+        out.writeInt((int) interval.getDate().toEpochDay());
+        out.writeShort(interval.getStartMinute());
+        out.writeShort(interval.getEndMinute());
+    }
+
+    private static ShiftInterval readInterval(DataInputStream in, long shiftId) throws IOException {
+        String username = in.readUTF();
+        LocalDate date = LocalDate.ofEpochDay(in.readInt());
+        int startMinute = in.readShort();
+        int endMinute = in.readShort();
+        return new ShiftInterval(shiftId, username, date, startMinute, endMinute);
+    }
+}
@@ -0,0 +1,36 @@
+package shift.service.Shift;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published once a change to a shift is committed, so in-memory shift views can follow the database.
+ * The previous interval is null for a created shift, and the current interval is null for a deleted shift.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class ShiftChangedEvent {
+    private final ShiftInterval previous;
+    private final ShiftInterval current;
+
+    public static ShiftChangedEvent created(ShiftInterval current) {
+        return new ShiftChangedEvent(null, current);
+    }
+
+    public static ShiftChangedEvent updated(ShiftInterval previous, ShiftInterval current) {
+        return new ShiftChangedEvent(previous, current);
+    }
+
+    public static ShiftChangedEvent deleted(ShiftInterval previous) {
+        return new ShiftChangedEvent(previous, null);
+    }
+
+    /**
+     * @return the id of the changed shift
+     */
+    public Long getId() {
+        return current != null ? current.getId() : previous.getId();
+    }
+}
@@ -0,0 +1,129 @@
+package shift.service.Shift;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import shift.domain.dao.ShiftRepository;
+import shift.domain.dto.CoverageBucketDto;
+import shift.domain.h2.Shift.MinuteOfDay;
+import shift.exception.ShiftIllegalArgumentException;
+
+import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Provides the number of people working at each time of a date.
+ * <p>
+ * Every shift adds +1 at its start minute and -1 at its end minute. A prefix sum over those changes gives the
+ * headcount of each minute, so a change to a shift is two array updates and reading the coverage costs the same
+ * regardless of the number of shifts.
+ * </p>
+ */
+@Service
+public class ShiftCoverage extends ShiftView<ShiftCoverage.DateCoverage> {
+    private static final Pattern RESOLUTION_PATTERN = Pattern.compile("(\\d+)([mh]?)");
+
+    @Autowired
+    public ShiftCoverage(ShiftRepository shiftDao, ShiftTemplateService shiftTemplateService, PlatformTransactionManager transactionManager) {
+        super(shiftDao, shiftTemplateService, transactionManager);
+    }
+
+    /**
+     * Gets the headcount across a date, in buckets of the given resolution
+     * @param date the date of the shifts
+     * @param resolution the length of each bucket in minutes (i.e. 15m or 15) or hours (i.e. 1h). Must divide the day evenly
+     * @return a {@link CoverageBucketDto} per bucket, in order, with the lowest and highest headcount within the bucket
+     * @throws ShiftIllegalArgumentException when the resolution is invalid
+     */
+    public List<CoverageBucketDto> getCoverage(@NotNull LocalDate date, String resolution) throws ShiftIllegalArgumentException {
+        int bucketMinutes = parseResolution(resolution);
+        List<CoverageBucketDto> buckets = new ArrayList<>(MinuteOfDay.MINUTES_PER_DAY / bucketMinutes);
+
+        Lock lock = getLock();
+        lock.lock();
+        try {
+            int[] headcounts = getDate(date).getHeadcounts();
+
+            for (int bucketStart = 0; bucketStart < MinuteOfDay.MINUTES_PER_DAY; bucketStart += bucketMinutes) {
+                int bucketEnd = bucketStart + bucketMinutes;
+                int minHeadcount = Integer.MAX_VALUE;
+                int maxHeadcount = 0;
+                for (int minute = bucketStart; minute < bucketEnd; minute++) {
+                    minHeadcount = Math.min(minHeadcount, headcounts[minute]);
+                    maxHeadcount = Math.max(maxHeadcount, headcounts[minute]);
+                }
+
+                buckets.add(CoverageBucketDto.builder()
+                        .startTime(MinuteOfDay.format(bucketStart))
+                        .endTime(MinuteOfDay.format(bucketEnd - 1))
+                        .minHeadcount(minHeadcount)
+                        .maxHeadcount(maxHeadcount)
+                        .build());
+            }
+        } finally {
+            lock.unlock();
+        }
+        return buckets;
+    }
+
+    @Override
+    protected DateCoverage createDate() {
+        return new DateCoverage();
+    }
+
+    @Override
+    protected void add(DateCoverage coverage, ShiftInterval interval) {
+        coverage.change(interval, 1);
+    }
+
+    @Override
+    protected void remove(DateCoverage coverage, ShiftInterval interval) {
+        coverage.change(interval, -1);
+    }
+
+    // encapsulation
+    private int parseResolution(String resolution) throws ShiftIllegalArgumentException {
+        Matcher matcher = RESOLUTION_PATTERN.matcher(resolution == null ? "" : resolution.trim().toLowerCase());
+        if (!matcher.matches() || matcher.group(1).length() > 4) {
+            throw new ShiftIllegalArgumentException("Coverage resolution must be given in minutes or hours, i.e. 15m or 1h.");
+        }
+
+        int minutes = Integer.parseInt(matcher.group(1)) * ("h".equals(matcher.group(2)) ? 60 : 1);
+        if (minutes < 1 || minutes > MinuteOfDay.MINUTES_PER_DAY || MinuteOfDay.MINUTES_PER_DAY % minutes != 0) {
+            throw new ShiftIllegalArgumentException("Coverage resolution must divide the day evenly, i.e. 15m or 1h.");
+        }
+        return minutes;
+    }
+
+    static class DateCoverage {
+        // changes[minute] is the headcount difference between minute - 1 and minute
+        private final int[] changes = new int[MinuteOfDay.MINUTES_PER_DAY + 1];
+
+        // headcount per minute, rebuilt from the changes when a shift changed since the last read
+        private final int[] headcounts = new int[MinuteOfDay.MINUTES_PER_DAY];
+        private boolean stale = true;
+
+        void change(ShiftInterval interval, int headcount) {
+            changes[interval.getStartMinute()] += headcount;
+            changes[interval.getEndMinute()] -= headcount;
+            stale = true;
+        }
+
+        int[] getHeadcounts() {
+            if (stale) {
+                int headcount = 0;
+                for (int minute = 0; minute < MinuteOfDay.MINUTES_PER_DAY; minute++) {
+                    headcount += changes[minute];
+                    headcounts[minute] = headcount;
+                }
+                stale = false;
+            }
+            return headcounts;
+        }
+    }
+}
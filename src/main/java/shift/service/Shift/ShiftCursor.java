@@ -0,0 +1,96 @@
+package shift.service.Shift;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import shift.domain.h2.SearchCriteria;
+import shift.domain.h2.Shift.Shift;
+import shift.domain.h2.Shift.ShiftSpecification;
+import shift.exception.ShiftIllegalArgumentException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Base64;
+import java.util.Comparator;
+
+/**
+ * Position of a shift in a list of shifts sorted by date, start time and id, used for keyset pagination.
+ * Clients receive the position as an opaque string and send it back to get the following page.
+ * Occurrences of recurring shift templates have no id and are sorted by their negated template id instead,
+ * ahead of the stored shifts starting at the same time.
+ */
+@Getter
+@AllArgsConstructor
+public class ShiftCursor {
+    private static final String SEPARATOR = ",";
+
+    /**
+     * Orders shifts and template occurrences the same way pages are read
+     */
+    public static final Comparator<Shift> ORDER = Comparator.comparing(Shift::getShiftDate)
+            .thenComparing(Shift::getStartTime)
+            .thenComparingLong(ShiftCursor::getSortId);
+
+    private final LocalDate shiftDate;
+    private final LocalTime startTime;
+    private final long id;
+
+    /**
+     * Creates the cursor pointing after the given shift
+     * @param shift the last shift of a page
+     * @return the cursor for the following page
+     */
+    public static ShiftCursor of(Shift shift) {
+        return new ShiftCursor(shift.getShiftDate(), shift.getStartTime(), getSortId(shift));
+    }
+
+    /**
+     * @param shift a stored shift or a template occurrence
+     * @return the shift's id, the negated template id of an occurrence, or 0 for a shift that is not saved yet
+     */
+    public static long getSortId(Shift shift) {
+        if (shift.getId() != null) {
+            return shift.getId();
+        }
+        return shift.getTemplateId() != null ? -shift.getTemplateId() : 0;
+    }
+
+    /**
+     * Reads a cursor previously returned to a client
+     * @param cursor the opaque cursor string
+     * @return the decoded cursor
+     * @throws ShiftIllegalArgumentException when the cursor was not created by {@link #encode()}
+     */
+    public static ShiftCursor decode(String cursor) throws ShiftIllegalArgumentException {
+        try {
+            String[] values = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR);
+            return new ShiftCursor(LocalDate.parse(values[0]), LocalTime.parse(values[1]), Long.parseLong(values[2]));
+        } catch (IllegalArgumentException | DateTimeException | IndexOutOfBoundsException ex) {
+            throw new ShiftIllegalArgumentException("Invalid cursor " + cursor);
+        }
+    }
+
+    /**
+     * @return the opaque cursor string given to clients
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((shiftDate + SEPARATOR + startTime + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param shift a stored shift or a template occurrence
+     * @return true if the shift is sorted after this cursor
+     */
+    public boolean precedes(Shift shift) {
+        return ORDER.compare(Shift.builder().shiftDate(shiftDate).startTime(startTime).id(id).build(), shift) < 0;
+    }
+
+    /**
+     * @return a {@link ShiftSpecification} matching the shifts sorted after this cursor
+     */
+    public ShiftSpecification toSpecification() {
+        return new ShiftSpecification(new SearchCriteria("after", shiftDate, startTime, id));
+    }
+}
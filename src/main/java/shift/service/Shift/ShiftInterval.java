@@ -0,0 +1,56 @@
+package shift.service.Shift;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import shift.domain.h2.Shift.MinuteOfDay;
+import shift.domain.h2.Shift.Shift;
+
+import java.time.LocalDate;
+
+/**
+ * Immutable snapshot of a stored shift's date and time range, kept by the in-memory shift indexes.
+ * Times are held as minutes of the day (0-1439) so comparisons stay cheap.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class ShiftInterval {
+    private final Long id;
+    private final String username;
+    private final LocalDate date;
+    private final int startMinute;
+    private final int endMinute;
+
+    /**
+     * Creates an interval from a stored {@link Shift}, or from a template occurrence which is identified by its negated template id.
+     * A shift that is not saved yet has neither, and gets an interval without an id.
+     * @param shift the stored shift or template occurrence
+     * @return the interval covering the shift's time range
+     */
+    public static ShiftInterval of(Shift shift) {
+        return new ShiftInterval(getId(shift), shift.getUsername(), shift.getShiftDate(),
+                MinuteOfDay.of(shift.getStartTime()), MinuteOfDay.of(shift.getEndTime()));
+    }
+
+    /**
+     * Checks if the given time range overlaps this interval.
+     * Shifts may share endpoints (i.e. one shift can end at 1:30pm and another can start at 1:30pm).
+     * @param startMinute the start of the range in minutes of the day
+     * @param endMinute the end of the range in minutes of the day
+     * @return true if the ranges overlap
+     */
+    public boolean overlaps(int startMinute, int endMinute) {
+        return startMinute < this.endMinute && this.startMinute < endMinute;
+    }
+
+    // encapsulation
+    private static Long getId(Shift shift) {
+        if (shift.getId() != null) {
+            return shift.getId();
+        }
+        return shift.getTemplateId() != null ? -shift.getTemplateId() : null;
+    }
+}
@@ -0,0 +1,130 @@
+package shift.service.Shift;
+
+import shift.domain.h2.Shift.Shift;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.BiFunction;
+
+/**
+ * Keeps each user's shifts on each date sorted by start time so that overlap checks do not need to load and scan every shift of the user.
+ * <p>
+ * A user's shifts on a date are loaded from the database the first time they are needed and are then kept in sync through
+ * {@link #put(ShiftInterval)} and {@link #remove(ShiftInterval)}. Updates for dates that have not been loaded yet are ignored,
+ * since the load will read them from the database. Updates for dates being loaded wait for the load to finish.
+ * </p>
+ * <p>
+ * The index relies on a user's shifts on a date never overlapping each other, which {@link ShiftService} enforces on every write.
+ * </p>
+ */
+public class ShiftIntervalIndex {
+    private final LoadingMap<UserDay, UserShifts> shiftsByUserDay = new LoadingMap<>(this::load);
+    private final BiFunction<String, LocalDate, List<Shift>> loader;
+
+    /**
+     * @param loader loads every stored shift for a username and date on a cold start
+     */
+    public ShiftIntervalIndex(BiFunction<String, LocalDate, List<Shift>> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Checks if the given time range overlaps any of the user's shifts on the given date
+     * @param username the user owning the shifts
+     * @param date the date of the shifts
+     * @param startMinute the start of the range in minutes of the day
+     * @param endMinute the end of the range in minutes of the day
+     * @param excludedShiftId a shift to ignore (i.e. the shift being updated), or null
+     * @return true if the range overlaps a shift other than the excluded one
+     */
+    public boolean overlaps(String username, LocalDate date, int startMinute, int endMinute, Long excludedShiftId) {
+        if (username == null || date == null) {
+            return false;
+        }
+        return shiftsByUserDay.get(new UserDay(username, date)).overlaps(startMinute, endMinute, excludedShiftId);
+    }
+
+    /**
+     * Adds a stored shift, replacing its previous time range if it is already indexed
+     * @param interval the stored shift's interval
+     */
+    public void put(ShiftInterval interval) {
+        UserShifts shifts = isIndexable(interval) ? shiftsByUserDay.getIfLoaded(UserDay.of(interval)) : null;
+        if (shifts != null) {
+            shifts.put(interval);
+        }
+    }
+
+    /**
+     * Removes a deleted shift
+     * @param interval the deleted shift's interval
+     */
+    public void remove(ShiftInterval interval) {
+        UserShifts shifts = isIndexable(interval) ? shiftsByUserDay.getIfLoaded(UserDay.of(interval)) : null;
+        if (shifts != null) {
+            shifts.remove(interval.getId());
+        }
+    }
+
+    /**
+     * Drops a user's shifts on a date so they are reloaded from the database when next needed
+     * @param username the user to evict
+     * @param date the date to evict
+     */
+    public void evict(String username, LocalDate date) {
+        if (username != null && date != null) {
+            shiftsByUserDay.remove(new UserDay(username, date));
+        }
+    }
+
+    // shifts that were never persisted have no id and cannot be tracked
+    private boolean isIndexable(ShiftInterval interval) {
+        return interval.getId() != null && interval.getUsername() != null && interval.getDate() != null;
+    }
+
+    private UserShifts load(UserDay userDay) {
+        UserShifts shifts = new UserShifts();
+        loader.apply(userDay.getUsername(), userDay.getDate()).forEach(shift -> shifts.put(ShiftInterval.of(shift)));
+        return shifts;
+    }
+
+    private static class UserShifts {
+        private static final Comparator<ShiftInterval> BY_START = Comparator.comparingInt(ShiftInterval::getStartMinute)
+                .thenComparing(ShiftInterval::getId);
+
+        private final NavigableSet<ShiftInterval> byStart = new TreeSet<>(BY_START);
+        private final Map<Long, ShiftInterval> byId = new HashMap<>();
+
+        synchronized UserShifts put(ShiftInterval interval) {
+            if (interval.getId() == null) {
+                return this;
+            }
+            ShiftInterval previous = byId.put(interval.getId(), interval);
+            if (previous != null) {
+                byStart.remove(previous);
+            }
+            byStart.add(interval);
+            return this;
+        }
+
+        synchronized UserShifts remove(Long id) {
+            ShiftInterval previous = byId.remove(id);
+            if (previous != null) {
+                byStart.remove(previous);
+            }
+            return this;
+        }
+
+        // shifts are disjoint, so only the shift starting closest before the end of the range (skipping the excluded shift) can overlap it
+        synchronized boolean overlaps(int startMinute, int endMinute, Long excludedShiftId) {
+            ShiftInterval probe = new ShiftInterval(Long.MIN_VALUE, null, null, endMinute, endMinute);
+            for (ShiftInterval candidate : byStart.headSet(probe, false).descendingSet()) {
+                if (candidate.getId().equals(excludedShiftId)) {
+                    continue;
+                }
+                return candidate.overlaps(startMinute, endMinute);
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package shift.service.Shift;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import shift.config.WebMvcConfig;
+import shift.domain.dto.ResultShiftDto;
+import shift.domain.dto.ResultShiftPageDto;
+import shift.domain.dto.SearchShiftDto;
+import shift.domain.dto.ShiftPageCacheStatsDto;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of serialized pages of shifts, keyed by the version of the searched shifts, the search and the encoding.
+ * Pages are encoded as json, or as Smile or CBOR for clients asking for a binary encoding.
+ * Repeat searches for the same shifts are answered with the bytes written the first time, without querying or serializing again.
+ * A change to the shifts moves the search to a new version, so pages of older versions are never read again and age out.
+ * The least recently used pages are dropped once the cached bytes exceed the limit.
+ */
+@Component
+public class ShiftPageCache {
+    private static final String KEY_SEPARATOR = "|";
+
+    // in order of preference, for clients accepting several encodings
+    private final Map<MediaType, ObjectWriter> pageWriters = new LinkedHashMap<>();
+    private final long maximumBytes;
+    private final Map<String, CachedShiftPage> pagesByKey = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private long cachedBytes;
+
+    @Autowired
+    public ShiftPageCache(ObjectMapper objectMapper, @Value("${app.shiftPageCacheBytes:16777216}") long maximumBytes) {
+        pageWriters.put(MediaType.APPLICATION_JSON_UTF8, getPageWriter(objectMapper));
+        pageWriters.put(WebMvcConfig.APPLICATION_SMILE, getPageWriter(Jackson2ObjectMapperBuilder.smile().build()));
+        pageWriters.put(WebMvcConfig.APPLICATION_CBOR, getPageWriter(Jackson2ObjectMapperBuilder.cbor().build()));
+        this.maximumBytes = maximumBytes;
+    }
+
+    /**
+     * Chooses the encoding of a page
+     * @param acceptedMediaTypes the media types the client accepts, from its Accept header
+     * @return the most preferred of json, Smile and CBOR the client accepts. Json when the client accepts anything
+     * @throws HttpMediaTypeNotAcceptableException when the client accepts none of them
+     */
+    public MediaType getMediaType(List<MediaType> acceptedMediaTypes) throws HttpMediaTypeNotAcceptableException {
+        List<MediaType> mediaTypes = new ArrayList<>(acceptedMediaTypes);
+        if (mediaTypes.isEmpty()) {
+            mediaTypes.add(MediaType.ALL);
+        }
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        for (MediaType acceptedMediaType : mediaTypes) {
+            if (acceptedMediaType.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType mediaType : pageWriters.keySet()) {
+                if (acceptedMediaType.includes(mediaType)) {
+                    return mediaType;
+                }
+            }
+        }
+        throw new HttpMediaTypeNotAcceptableException(new ArrayList<>(pageWriters.keySet()));
+    }
+
+    /**
+     * Gets the entity tag of a page, which changes whenever the version of the searched shifts changes
+     * @param version the version of the searched shifts, read before searching
+     * @param searchShiftDto the search
+     * @param mediaType the encoding of the page, from {@link #getMediaType(List)}
+     * @return the quoted entity tag
+     */
+    public static String getETag(String version, SearchShiftDto searchShiftDto, MediaType mediaType) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(getKey(version, searchShiftDto, mediaType).getBytes(StandardCharsets.UTF_8));
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    /**
+     * Gets a serialized page of shifts, searching and serializing only when the page is not cached
+     * @param version the version of the searched shifts, read before searching
+     * @param searchShiftDto the search
+     * @param mediaType the encoding of the page, from {@link #getMediaType(List)}
+     * @param search runs the search
+     * @return the {@link CachedShiftPage} with the encoded array of {@link ResultShiftDto} shifts
+     */
+    public CachedShiftPage getPage(String version, SearchShiftDto searchShiftDto, MediaType mediaType, Supplier<ResultShiftPageDto> search) {
+        String key = getKey(version, searchShiftDto, mediaType);
+        CachedShiftPage page;
+        synchronized (pagesByKey) {
+            page = pagesByKey.get(key);
+        }
+        if (page != null) {
+            hits.incrementAndGet();
+            return page;
+        }
+        misses.incrementAndGet();
+
+        // concurrent misses for the same page both search; the page is the same either way
+        ResultShiftPageDto result = search.get();
+        page = new CachedShiftPage(serialize(pageWriters.get(mediaType), result.getShifts()), result.getNextCursor());
+        put(key, page);
+        return page;
+    }
+
+    /**
+     * @return the cache's hit and miss counters and current size
+     */
+    public ShiftPageCacheStatsDto getStats() {
+        synchronized (pagesByKey) {
+            return ShiftPageCacheStatsDto.builder()
+                    .hits(hits.get())
+                    .misses(misses.get())
+                    .pages(pagesByKey.size())
+                    .bytes(cachedBytes)
+                    .build();
+        }
+    }
+
+    private void put(String key, CachedShiftPage page) {
+        if (page.getBody().length > maximumBytes) {
+            return;
+        }
+        synchronized (pagesByKey) {
+            CachedShiftPage replaced = pagesByKey.put(key, page);
+            cachedBytes += page.getBody().length - (replaced != null ? replaced.getBody().length : 0);
+
+            Iterator<CachedShiftPage> leastRecentlyUsed = pagesByKey.values().iterator();
+            while (cachedBytes > maximumBytes) {
+                cachedBytes -= leastRecentlyUsed.next().getBody().length;
+                leastRecentlyUsed.remove();
+            }
+        }
+    }
+
+    private ObjectWriter getPageWriter(ObjectMapper objectMapper) {
+        return objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, ResultShiftDto.class));
+    }
+
+    private byte[] serialize(ObjectWriter pageWriter, List<ResultShiftDto> shifts) {
+        try {
+            return pageWriter.writeValueAsBytes(shifts);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String getKey(String version, SearchShiftDto searchShiftDto, MediaType mediaType) {
+        return version + KEY_SEPARATOR + mediaType + KEY_SEPARATOR + searchShiftDto.isMinuteFields() + KEY_SEPARATOR + searchShiftDto.getFromDate() + KEY_SEPARATOR + searchShiftDto.getToDate() +
+                KEY_SEPARATOR + searchShiftDto.getFromStartHour() + KEY_SEPARATOR + searchShiftDto.getFromStartMinute() +
+                KEY_SEPARATOR + searchShiftDto.getToEndHour() + KEY_SEPARATOR + searchShiftDto.getToEndMinute() +
+                KEY_SEPARATOR + searchShiftDto.getLimit() + KEY_SEPARATOR + searchShiftDto.getAfter();
+    }
+
+    /**
+     * A serialized page of shifts
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class CachedShiftPage {
+        // array of ResultShiftDto, encoded as requested
+        private final byte[] body;
+
+        // null when there are no more shifts
+        private final String nextCursor;
+    }
+}
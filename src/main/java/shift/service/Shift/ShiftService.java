@@ -1,25 +1,45 @@
 package shift.service.Shift;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.h2.util.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import shift.domain.dao.ShiftRepository;
+import shift.domain.dto.BatchResultShiftDto;
+import shift.domain.dto.BulkShiftDto;
 import shift.domain.dto.ResultShiftDto;
+import shift.domain.dto.ResultShiftPageDto;
 import shift.domain.dto.SearchShiftDto;
 import shift.domain.dto.ShiftDto;
 import shift.domain.h2.SearchCriteria;
+import shift.domain.h2.Shift.MinuteOfDay;
 import shift.domain.h2.Shift.Shift;
 import shift.domain.h2.Shift.ShiftSpecification;
 import shift.exception.ShiftIllegalArgumentException;
 import shift.exception.ShiftNotFoundException;
 import shift.service.User.UserService;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.DateTimeException;
+import java.time.LocalDate;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Provides methods for viewing and managing shifts in general, and viewing and managing shifts by user.
@@ -28,21 +48,51 @@ import java.util.stream.Collectors;
 public class ShiftService {
     private static final String START_TIME_KEY = "startTime";
     private static final String END_TIME_KEY = "endTime";
+    private static final String DATE_KEY = "shiftDate";
+    private static final String DATABASE_OVERLAP_CHECK = "database";
+    private static final int LAST_MINUTE_OF_DAY = 23 * 60 + 59;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    // "index" checks overlaps against the in-memory per-user index; "database" runs one indexed query per validation
+    @Value("${app.shiftOverlapCheck:index}")
+    private String overlapCheck;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // answers searches instead of the database when app.shiftStore=offheap
+    @Autowired(required = false)
+    private OffHeapShiftStore shiftStore;
 
     private ShiftRepository shiftDao;
     private UserService userService;
+    private ApplicationEventPublisher eventPublisher;
+    private ShiftTemplateService shiftTemplateService;
+    private ShiftIntervalIndex shiftIndex;
+    // from the application's ObjectMapper, so the export writes shifts like the other endpoints do
+    private ObjectWriter shiftWriter;
+
+    // bumped by every committed change; only sees this instance's writes
+    private final ShiftVersions versions = new ShiftVersions();
 
-    public ShiftService(ShiftRepository userDao, UserService userService) {
+    public ShiftService(ShiftRepository userDao, UserService userService, ApplicationEventPublisher eventPublisher,
+                        ShiftTemplateService shiftTemplateService, ObjectMapper objectMapper) {
         this.shiftDao = userDao;
         this.userService = userService;
+        this.eventPublisher = eventPublisher;
+        this.shiftTemplateService = shiftTemplateService;
+        this.shiftIndex = new ShiftIntervalIndex(this::getUserShiftsFromDb);
+        this.shiftWriter = objectMapper.writerFor(ResultShiftDto.class);
     }
 
     /**
-     * Gets all stored shifts within the given time frame.
+     * Gets all stored shifts within the given time frame and, when given, date range.
+     * When both ends of the date range are given, the occurrences of recurring shift templates within it are included.
      * @param searchShiftDto the {@link SearchShiftDto} for restricting the search
-     * @return the results from the search query
+     * @return the results from the search query, paged when the search has a limit
      */
-    public List<ResultShiftDto> getAllShifts(@NotNull SearchShiftDto searchShiftDto) {
+    @Transactional(readOnly = true)
+    public ResultShiftPageDto getAllShifts(@NotNull SearchShiftDto searchShiftDto) {
         LocalTime searchStartTime = convertToTime(searchShiftDto.getFromStartHour(), searchShiftDto.getFromStartMinute());
         LocalTime searchEndTime = convertToTime(searchShiftDto.getToEndHour(), searchShiftDto.getToEndMinute());
 
@@ -50,18 +100,19 @@ public class ShiftService {
         ShiftSpecification startSpec = getShiftSpecificationForTime(START_TIME_KEY, ">:", searchStartTime);
         ShiftSpecification endSpec = getShiftSpecificationForTime(END_TIME_KEY, "<:", searchEndTime);
 
-        return shiftDao.findAll(Specification.where(startSpec).and(endSpec), getSortShiftByStartTime()).stream()
-                .map(this::buildResultShift)
-                .collect(Collectors.toList());
+        return findShiftPage(withDateRange(Specification.where(startSpec).and(endSpec), searchShiftDto), searchShiftDto,
+                null, searchStartTime, searchEndTime);
     }
 
     /**
-     * Gets all stored shifts for a specific user within the given time frame.
+     * Gets all stored shifts for a specific user within the given time frame and, when given, date range.
+     * When both ends of the date range are given, the occurrences of the user's recurring shift templates within it are included.
      * @param username the user's shifts that are being searched
      * @param searchShiftDto the {@link SearchShiftDto} for restricting the search
-     * @return the results from the search query
+     * @return the results from the search query, paged when the search has a limit
      */
-    public List<ResultShiftDto> searchShifts(String username, @NotNull SearchShiftDto searchShiftDto) {
+    @Transactional(readOnly = true)
+    public ResultShiftPageDto searchShifts(String username, @NotNull SearchShiftDto searchShiftDto) {
         String user = userService.getCurrentUsername(username);
         userService.validateUser(user);
 
@@ -73,19 +124,66 @@ public class ShiftService {
         ShiftSpecification startSpec = getShiftSpecificationForTime(START_TIME_KEY, ">:", searchStartTime);
         ShiftSpecification endSpec = getShiftSpecificationForTime(END_TIME_KEY, "<:", searchEndTime);
 
-        return shiftDao.findAll(Specification.where(userSpec).and(startSpec).and(endSpec), getSortShiftByStartTime()).stream()
-                .map(this::buildResultShift)
-                .collect(Collectors.toList());
+        return findShiftPage(withDateRange(Specification.where(userSpec).and(startSpec).and(endSpec), searchShiftDto), searchShiftDto,
+                user, searchStartTime, searchEndTime);
+    }
+
+    /**
+     * Gets the version of every user's shifts, which changes whenever a change to any shift or shift template is committed.
+     * Read the version before searching, so a result is never kept under a version newer than its shifts
+     * @return the opaque version of the results of {@link #getAllShifts(SearchShiftDto)}
+     */
+    public String getShiftsVersion() {
+        return versions.getVersion();
+    }
+
+    /**
+     * Gets the version of a user's shifts, which changes whenever a change to one of the user's shifts or shift templates is committed.
+     * Read the version before searching, so a result is never kept under a version newer than its shifts
+     * @param username the user, or null for the currently logged in user
+     * @return the opaque version of the results of {@link #searchShifts(String, SearchShiftDto)} for the user
+     */
+    public String getShiftsVersion(String username) {
+        return versions.getVersion(userService.getCurrentUsername(username));
     }
 
     /**
-     * Creates the shift for a given user
+     * Bumps the versions of a user's shifts once a change to one of the user's shift templates is committed
+     * @param event the committed change
+     */
+    @EventListener
+    public void onShiftTemplateChanged(ShiftTemplateChangedEvent event) {
+        versions.bump(event.getUsername());
+    }
+
+    /**
+     * Writes every stored shift to the given stream as newline delimited json, one {@link ResultShiftDto} per line.
+     * Shifts are read from the database in chunks and released once written, so memory use does not grow with the number of shifts.
+     * @param outputStream the stream to write the shifts to
+     * @throws IOException when writing to the stream fails
+     */
+    @Transactional(readOnly = true)
+    public void exportShifts(@NotNull OutputStream outputStream) throws IOException {
+        try (Stream<Shift> shifts = shiftDao.streamAll()) {
+            Iterator<Shift> iterator = shifts.iterator();
+            while (iterator.hasNext()) {
+                Shift shift = iterator.next();
+                outputStream.write(shiftWriter.writeValueAsBytes(buildResultShift(shift)));
+                outputStream.write('\n');
+                entityManager.detach(shift);
+            }
+        }
+        outputStream.flush();
+    }
+
+    /**
+     * Creates the shift for a given user, on the given date or today
      * <p>
      * Does the below validations:
      * 1. The username given in {@link ShiftDto} is an existing username
      * 2. The shift's start time is not the same as the shift's end time
      * 3. The shift's end time is not set before the shift's start time
-     * 4. The updated shift does not overlap with another shift of the user
+     * 4. The updated shift does not overlap with another shift of the user on the same date, stored or recurring
      * </p>
      * @param shiftDto the {@link ShiftDto} providing parameters for creating the shift
      * @return the result of the shift creation
@@ -93,20 +191,83 @@ public class ShiftService {
      * @throws ShiftIllegalArgumentException when the given params from the shiftDto violates rules listed in the method description
      */
     public ResultShiftDto createShift(@NotNull ShiftDto shiftDto) throws UsernameNotFoundException, ShiftIllegalArgumentException {
+        setDefaultDate(shiftDto, LocalDate.now());
         doShiftValidations(shiftDto, null);
 
         Shift shift = translateDtoToShift(shiftDto);
 
         shiftDao.save(shift);
+        shiftIndex.put(ShiftInterval.of(shift));
+        publishShiftChange(ShiftChangedEvent.created(ShiftInterval.of(shift)));
         return buildResultShift(shift);
     }
 
+    /**
+     * Creates a batch of shifts.
+     * <p>
+     * Each shift is validated with the same rules as {@link #createShift(ShiftDto)}, and additionally must not overlap
+     * another shift for the same user within the batch. Each username is only validated once per batch.
+     * Valid shifts are saved together in batched inserts; invalid shifts are skipped and reported.
+     * </p>
+     * @param shiftDtos the {@link ShiftDto}s providing parameters for creating the shifts
+     * @return the result of each shift creation, in the order given
+     */
+    public List<BatchResultShiftDto> createShifts(@NotNull List<ShiftDto> shiftDtos) {
+        Map<String, String> userErrors = new HashMap<>();
+        ShiftIntervalIndex batchIndex = new ShiftIntervalIndex((username, date) -> Collections.emptyList());
+        LocalDate today = LocalDate.now();
+        List<BatchResultShiftDto> results = new ArrayList<>();
+        List<Shift> shifts = new ArrayList<>();
+
+        for (int index = 0; index < shiftDtos.size(); index++) {
+            ShiftDto shiftDto = shiftDtos.get(index);
+            setDefaultDate(shiftDto, today);
+            try {
+                String username = userService.getCurrentUsername(shiftDto.getUsername());
+                String userError = userErrors.computeIfAbsent(username, this::getUserValidationError);
+                if (!userError.isEmpty()) {
+                    throw new ShiftIllegalArgumentException(userError);
+                }
+                ShiftRules.validateTimes(shiftDto);
+
+                Shift shift = translateDtoToShift(shiftDto);
+                int startMinute = MinuteOfDay.of(shift.getStartTime());
+                int endMinute = MinuteOfDay.of(shift.getEndTime());
+                if (batchIndex.overlaps(username, shift.getShiftDate(), startMinute, endMinute, null) ||
+                        isOverlappingShift(username, shift.getShiftDate(), shift.getStartTime(), shift.getEndTime(), null)) {
+                    throw new ShiftIllegalArgumentException(ShiftRules.getOverlapMessage(username));
+                }
+
+                // batch items have no id yet, so they are tracked by their negated position
+                batchIndex.put(new ShiftInterval(-1L - index, username, shift.getShiftDate(), startMinute, endMinute));
+                shifts.add(shift);
+                results.add(BatchResultShiftDto.builder().index(index).success(true).build());
+            } catch (ShiftIllegalArgumentException | DateTimeException ex) {
+                results.add(BatchResultShiftDto.builder().index(index).success(false).error(ex.getMessage()).build());
+            }
+        }
+
+        shiftDao.saveAll(shifts);
+
+        Iterator<Shift> savedShifts = shifts.iterator();
+        for (BatchResultShiftDto result : results) {
+            if (result.isSuccess()) {
+                Shift shift = savedShifts.next();
+                shiftIndex.put(ShiftInterval.of(shift));
+                publishShiftChange(ShiftChangedEvent.created(ShiftInterval.of(shift)));
+                result.setShift(buildResultShift(shift));
+            }
+        }
+        return results;
+    }
+
     /**
      * Gets a single shift from the db.
      * @param shiftId the unique id of the shift
      * @return a {@link ResultShiftDto} of the shift
      * @throws ShiftNotFoundException when no shift with the given id is found
      */
+    @Transactional(readOnly = true)
     public ResultShiftDto getShift(Long shiftId) throws ShiftNotFoundException {
         return buildResultShift(getShiftFromDb(shiftId));
     }
@@ -118,10 +279,10 @@ public class ShiftService {
      * 1. The username given in {@link ShiftDto} is an existing username
      * 2. The shift's start time is not the same as the shift's end time
      * 3. The shift's end time is not set before the shift's start time
-     * 4. The updated shift does not overlap with another shift of the user
+     * 4. The updated shift does not overlap with another shift of the user on the same date, stored or recurring
      * </p>
      * @param shiftId the shift to be updated
-     * @param shiftDto the updated parameters {@link ShiftDto}. Any given username will be ignored.
+     * @param shiftDto the updated parameters {@link ShiftDto}. Any given username will be ignored, and the date is kept when not given.
      * @return the result of the shift update
      * @throws ShiftNotFoundException when there is no shift existing for the given username with the given id
      * @throws ShiftIllegalArgumentException when the given params from the shiftDto violates rules listed in the method description
@@ -131,14 +292,19 @@ public class ShiftService {
 
         // updating the username so that we make sure we are validating the correct shift
         shiftDto.setUsername(existingShift.getUsername());
+        setDefaultDate(shiftDto, existingShift.getShiftDate());
 
         doShiftValidations(shiftDto, shiftId);
+        ShiftInterval previous = ShiftInterval.of(existingShift);
 
-        // only make updates to the time of the existing shift
+        // only make updates to the date and time of the existing shift
+        existingShift.setShiftDate(shiftDto.getDate());
         existingShift.setStartTime(convertToTime(shiftDto.getStartHour(), shiftDto.getStartMinute()));
         existingShift.setEndTime(convertToTime(shiftDto.getEndHour(), shiftDto.getEndMinute()));
 
         shiftDao.save(existingShift);
+        shiftIndex.put(ShiftInterval.of(existingShift));
+        publishShiftChange(ShiftChangedEvent.updated(previous, ShiftInterval.of(existingShift)));
 
         return buildResultShift(existingShift);
     }
@@ -149,7 +315,139 @@ public class ShiftService {
      * @throws ShiftNotFoundException when the shift for the given user with the given id does not exist
      */
     public void deleteShift(@NotNull long shiftId) throws ShiftNotFoundException {
-        shiftDao.delete(getShiftFromDb(shiftId));
+        Shift existingShift = getShiftFromDb(shiftId);
+        shiftDao.delete(existingShift);
+        shiftIndex.remove(ShiftInterval.of(existingShift));
+        publishShiftChange(ShiftChangedEvent.deleted(ShiftInterval.of(existingShift)));
+    }
+
+    /**
+     * Moves many shifts by the same number of minutes.
+     * <p>
+     * The moved shifts must stay within their day and must not overlap the user's shifts on that date that are not being moved,
+     * nor the occurrences of the user's recurring shift templates.
+     * Overlaps are checked once per affected user and date, and either every selected shift is moved or none are.
+     * </p>
+     * @param bulkShiftDto the {@link BulkShiftDto} selecting the shifts and giving the minutes to move them by
+     * @return the moved shifts
+     * @throws ShiftIllegalArgumentException when no shifts are selected, or a moved shift would leave the day or overlap another shift
+     */
+    @Transactional
+    public List<ResultShiftDto> updateShifts(@NotNull BulkShiftDto bulkShiftDto) throws ShiftIllegalArgumentException {
+        if (bulkShiftDto.getOffsetMinutes() == null) {
+            throw new ShiftIllegalArgumentException("The minutes to move the shifts by are required.");
+        }
+        int offsetMinutes = bulkShiftDto.getOffsetMinutes();
+        List<Shift> shifts = shiftDao.findAll(getBulkShiftSpecification(bulkShiftDto), getSortShiftByStartTime());
+
+        shifts.stream()
+                .collect(Collectors.groupingBy(shift -> UserDay.of(ShiftInterval.of(shift))))
+                .forEach((userDay, userShifts) -> validateMovedUserShifts(userDay, userShifts, offsetMinutes));
+
+        List<ShiftInterval> previousIntervals = shifts.stream()
+                .map(ShiftInterval::of)
+                .collect(Collectors.toList());
+        shifts.forEach(shift -> {
+            shift.setStartTime(shift.getStartTime().plusMinutes(offsetMinutes));
+            shift.setEndTime(shift.getEndTime().plusMinutes(offsetMinutes));
+        });
+        shiftDao.saveAll(shifts);
+
+        afterCommit(() -> shifts.forEach(shift -> shiftIndex.put(ShiftInterval.of(shift))));
+        for (int index = 0; index < shifts.size(); index++) {
+            publishShiftChange(ShiftChangedEvent.updated(previousIntervals.get(index), ShiftInterval.of(shifts.get(index))));
+        }
+        return buildResultShifts(shifts);
+    }
+
+    /**
+     * Deletes many shifts with a single statement
+     * @param bulkShiftDto the {@link BulkShiftDto} selecting the shifts to delete
+     * @return the number of deleted shifts
+     * @throws ShiftIllegalArgumentException when no shifts are selected
+     */
+    @Transactional
+    public int deleteShifts(@NotNull BulkShiftDto bulkShiftDto) throws ShiftIllegalArgumentException {
+        // only the columns the index and change events need, instead of managed entities that are deleted right after
+        List<ShiftInterval> intervals = shiftDao.findShiftTimes(getBulkShiftSpecification(bulkShiftDto)).stream()
+                .map(ShiftInterval::of)
+                .collect(Collectors.toList());
+        if (intervals.isEmpty()) {
+            return 0;
+        }
+
+        int deletedShifts = shiftDao.deleteByIds(intervals.stream()
+                .map(ShiftInterval::getId)
+                .collect(Collectors.toList()));
+
+        afterCommit(() -> intervals.forEach(shiftIndex::remove));
+        intervals.forEach(interval -> publishShiftChange(ShiftChangedEvent.deleted(interval)));
+        return deletedShifts;
+    }
+
+    // pages are read by keyset (date, startTime, id) so that every page costs the same as the first one.
+    // occurrences of recurring templates are only generated for a bounded date range, then merged into the stored shifts
+    private ResultShiftPageDto findShiftPage(Specification<Shift> specification, SearchShiftDto searchShiftDto,
+                                             String username, LocalTime searchStartTime, LocalTime searchEndTime) throws ShiftIllegalArgumentException {
+        ShiftCursor cursor = searchShiftDto.getAfter() != null ? ShiftCursor.decode(searchShiftDto.getAfter()) : null;
+        if (cursor != null) {
+            specification = specification.and(cursor.toSpecification());
+        }
+
+        Integer limit = searchShiftDto.getLimit();
+        // checked here because the dto's @Range is not validated on the search path, and limit + 1 overflows
+        if (limit != null && (limit < 1 || limit > MAX_PAGE_SIZE)) {
+            throw new ShiftIllegalArgumentException("Shift page size can only be between 1-" + MAX_PAGE_SIZE);
+        }
+
+        List<Shift> occurrences = getOccurrences(searchShiftDto, username, searchStartTime, searchEndTime, cursor);
+        if (limit == null) {
+            List<Shift> shifts = shiftStore != null
+                    ? shiftStore.findShifts(username, searchShiftDto.getFromDate(), searchShiftDto.getToDate(), searchStartTime, searchEndTime, cursor, null)
+                    : shiftDao.findAll(specification, getSortShiftByStartTime());
+            return ResultShiftPageDto.builder()
+                    .shifts(buildResultShifts(merge(shifts, occurrences), searchShiftDto.isMinuteFields()))
+                    .build();
+        }
+
+        // one extra shift tells if there is a following page
+        List<Shift> storedShifts = shiftStore != null
+                ? shiftStore.findShifts(username, searchShiftDto.getFromDate(), searchShiftDto.getToDate(), searchStartTime, searchEndTime, cursor, limit + 1)
+                : shiftDao.findAll(specification, getSortShiftByStartTime(), limit + 1);
+        List<Shift> shifts = merge(storedShifts, occurrences);
+        String nextCursor = null;
+        if (shifts.size() > limit) {
+            shifts = shifts.subList(0, limit);
+            nextCursor = ShiftCursor.of(shifts.get(limit - 1)).encode();
+        }
+
+        return ResultShiftPageDto.builder()
+                .shifts(buildResultShifts(shifts, searchShiftDto.isMinuteFields()))
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    // occurrences within the searched dates and time frame that sort after the cursor
+    private List<Shift> getOccurrences(SearchShiftDto searchShiftDto, String username, LocalTime searchStartTime,
+                                       LocalTime searchEndTime, ShiftCursor cursor) throws ShiftIllegalArgumentException {
+        if (searchShiftDto.getFromDate() == null || searchShiftDto.getToDate() == null) {
+            return Collections.emptyList();
+        }
+        return shiftTemplateService.getOccurrences(username, searchShiftDto.getFromDate(), searchShiftDto.getToDate()).stream()
+                .filter(occurrence -> !occurrence.getStartTime().isBefore(searchStartTime) && !occurrence.getEndTime().isAfter(searchEndTime))
+                .filter(occurrence -> cursor == null || cursor.precedes(occurrence))
+                .collect(Collectors.toList());
+    }
+
+    private List<Shift> merge(List<Shift> shifts, List<Shift> occurrences) {
+        if (occurrences.isEmpty()) {
+            return shifts;
+        }
+        List<Shift> merged = new ArrayList<>(shifts.size() + occurrences.size());
+        merged.addAll(shifts);
+        merged.addAll(occurrences);
+        merged.sort(ShiftCursor.ORDER);
+        return merged;
     }
 
     private Shift getShiftFromDb(@NotNull long shiftId) throws ShiftNotFoundException {
@@ -157,31 +455,91 @@ public class ShiftService {
                 .orElseThrow(() -> new ShiftNotFoundException("Unable to find shift with id " + shiftId));
     }
 
+    private List<Shift> getUserShiftsFromDb(String username, LocalDate date) {
+        return shiftDao.findAll(Specification.where(getShiftSpecificationForUsername(username))
+                .and(getShiftSpecificationForDate(DATE_KEY, ":", date)));
+    }
+
     private void validateUserShift(ShiftDto shiftDto, Long shiftId) throws ShiftIllegalArgumentException {
         String username = userService.getCurrentUsername(shiftDto.getUsername());
-        ShiftSpecification userSpec = getShiftSpecificationForUsername(username);
+        LocalTime startTime = convertToTime(shiftDto.getStartHour(), shiftDto.getStartMinute());
+        LocalTime endTime = convertToTime(shiftDto.getEndHour(), shiftDto.getEndMinute());
 
         // validate newly created shift does not overlap with an existing shift
-        // validates against each shift found in the DB for the specified user that is not the shift being updated
-        boolean isOverlapping = shiftDao.findAll(userSpec).stream()
-                .anyMatch(userShift -> (!isUpdatedShiftSameAsExistingShift(shiftId, userShift) &&
-                        isShiftOverlappingWithAnother(shiftDto, userShift)));
-        if(isOverlapping) {
-            throw new ShiftIllegalArgumentException("This shift overlaps with an existing shift for username " + username);
+        // validates against the shifts of the specified user on the same date, ignoring the shift being updated
+        if (isOverlappingShift(username, shiftDto.getDate(), startTime, endTime, shiftId)) {
+            throw new ShiftIllegalArgumentException(ShiftRules.getOverlapMessage(username));
+        }
+    }
+
+    // the moved shifts do not overlap each other since they were disjoint before and all move by the same minutes
+    private void validateMovedUserShifts(UserDay userDay, List<Shift> movedShifts, int offsetMinutes) throws ShiftIllegalArgumentException {
+        String username = userDay.getUsername();
+        Set<Long> movedShiftIds = movedShifts.stream()
+                .map(Shift::getId)
+                .collect(Collectors.toSet());
+        ShiftIntervalIndex unmovedShifts = new ShiftIntervalIndex((user, date) -> getUserShiftsFromDb(user, date).stream()
+                .filter(shift -> !movedShiftIds.contains(shift.getId()))
+                .collect(Collectors.toList()));
+
+        for (Shift shift : movedShifts) {
+            ShiftInterval interval = ShiftInterval.of(shift);
+            int startMinute = interval.getStartMinute() + offsetMinutes;
+            int endMinute = interval.getEndMinute() + offsetMinutes;
+
+            if (startMinute < 0 || endMinute > LAST_MINUTE_OF_DAY) {
+                throw new ShiftIllegalArgumentException("Moving shift " + shift.getId() + " by " + offsetMinutes + " minutes would move it outside of the day.");
+            }
+            if (unmovedShifts.overlaps(username, userDay.getDate(), startMinute, endMinute, null) ||
+                    shiftTemplateService.isOverlappingTemplate(username, userDay.getDate(), MinuteOfDay.toLocalTime(startMinute), MinuteOfDay.toLocalTime(endMinute))) {
+                throw new ShiftIllegalArgumentException(ShiftRules.getOverlapMessage(username));
+            }
         }
     }
 
-    private boolean isUpdatedShiftSameAsExistingShift(Long updatedShiftId, Shift existingShift) {
-        if (updatedShiftId != null) {
-            return updatedShiftId.toString().equals(existingShift.getId().toString());
+    // in-memory state must only change once the database change is committed
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
         }
-        return false;
+    }
+
+    // listeners only hear about changes once they are committed
+    private void publishShiftChange(ShiftChangedEvent event) {
+        afterCommit(() -> {
+            versions.bump(getUsername(event.getPrevious()), getUsername(event.getCurrent()));
+            eventPublisher.publishEvent(event);
+        });
+    }
+
+    private String getUsername(ShiftInterval interval) {
+        return interval != null ? interval.getUsername() : null;
+    }
+
+    // package-private for ShiftValidationBenchmark, which measures the check on its own
+    boolean isOverlappingShift(String username, LocalDate date, LocalTime startTime, LocalTime endTime, Long excludedShiftId) {
+        return isOverlappingStoredShift(username, date, startTime, endTime, excludedShiftId) ||
+                shiftTemplateService.isOverlappingTemplate(username, date, startTime, endTime);
+    }
+
+    private boolean isOverlappingStoredShift(String username, LocalDate date, LocalTime startTime, LocalTime endTime, Long excludedShiftId) {
+        if (DATABASE_OVERLAP_CHECK.equalsIgnoreCase(overlapCheck)) {
+            return shiftDao.exists(getOverlappingShiftSpecification(username, date, startTime, endTime, excludedShiftId));
+        }
+        return shiftIndex.overlaps(username, date, MinuteOfDay.of(startTime), MinuteOfDay.of(endTime), excludedShiftId);
     }
 
     // encapsulation
     private void doShiftValidations(ShiftDto shiftDto, Long shiftId) throws ShiftIllegalArgumentException {
         userService.validateUser(shiftDto.getUsername());
-        validateShiftTimes(shiftDto);
+        ShiftRules.validateTimes(shiftDto);
         validateUserShift(shiftDto, shiftId);
     }
 
@@ -189,15 +547,42 @@ public class ShiftService {
     private ResultShiftDto buildResultShift(Shift shift) {
         return ResultShiftDto.builder()
                 .id(shift.getId())
+                .templateId(shift.getTemplateId())
+                .user(shift.getUsername())
+                .date(shift.getShiftDate() != null ? shift.getShiftDate().toString() : null)
+                .startTime(MinuteOfDay.format(shift.getStartTime()))
+                .endTime(MinuteOfDay.format(shift.getEndTime()))
+                .build();
+    }
+
+    // encapsulation
+    private List<ResultShiftDto> buildResultShifts(List<Shift> shifts) {
+        return buildResultShifts(shifts, false);
+    }
+
+    // encapsulation
+    private List<ResultShiftDto> buildResultShifts(List<Shift> shifts, boolean minuteFields) {
+        return shifts.stream()
+                .map(minuteFields ? this::buildMinuteResultShift : this::buildResultShift)
+                .collect(Collectors.toList());
+    }
+
+    // encapsulation
+    private ResultShiftDto buildMinuteResultShift(Shift shift) {
+        return ResultShiftDto.builder()
+                .id(shift.getId())
+                .templateId(shift.getTemplateId())
                 .user(shift.getUsername())
-                .startTime(formatLocalTime(shift.getStartTime()))
-                .endTime(formatLocalTime(shift.getEndTime()))
+                .date(shift.getShiftDate() != null ? shift.getShiftDate().toString() : null)
+                .startMinute(MinuteOfDay.of(shift.getStartTime()))
+                .endMinute(MinuteOfDay.of(shift.getEndTime()))
                 .build();
     }
 
     // encapsulation
     private Sort getSortShiftByStartTime() {
-        return new Sort(Sort.DEFAULT_DIRECTION, "startTime");
+        // id breaks ties between shifts starting at the same time, which keeps pages stable
+        return new Sort(Sort.DEFAULT_DIRECTION, DATE_KEY, START_TIME_KEY, "id");
     }
 
     // encapsulation
@@ -220,6 +605,42 @@ public class ShiftService {
         return new SearchCriteria("id", ":", id);
     }
 
+    // encapsulation
+    private Specification<Shift> getBulkShiftSpecification(BulkShiftDto bulkShiftDto) throws ShiftIllegalArgumentException {
+        boolean hasIds = bulkShiftDto.getIds() != null && !bulkShiftDto.getIds().isEmpty();
+        boolean hasUsername = !StringUtils.isNullOrEmpty(bulkShiftDto.getUsername());
+        if (!hasIds && !hasUsername) {
+            throw new ShiftIllegalArgumentException("Shifts must be selected by a list of shift ids or a username.");
+        }
+
+        LocalTime searchStartTime = convertToTime(valueOrDefault(bulkShiftDto.getFromStartHour(), 0), valueOrDefault(bulkShiftDto.getFromStartMinute(), 0));
+        LocalTime searchEndTime = convertToTime(valueOrDefault(bulkShiftDto.getToEndHour(), 23), valueOrDefault(bulkShiftDto.getToEndMinute(), 59));
+
+        Specification<Shift> specification = Specification.where(getShiftSpecificationForTime(START_TIME_KEY, ">:", searchStartTime))
+                .and(getShiftSpecificationForTime(END_TIME_KEY, "<:", searchEndTime));
+        if (hasIds) {
+            specification = specification.and(new ShiftSpecification(new SearchCriteria("id", "in", bulkShiftDto.getIds())));
+        }
+        if (hasUsername) {
+            specification = specification.and(getShiftSpecificationForUsername(bulkShiftDto.getUsername()));
+        }
+        if (bulkShiftDto.getDate() != null) {
+            specification = specification.and(getShiftSpecificationForDate(DATE_KEY, ":", bulkShiftDto.getDate()));
+        }
+        return specification;
+    }
+
+    // encapsulation
+    private Specification<Shift> getOverlappingShiftSpecification(String username, LocalDate date, LocalTime startTime, LocalTime endTime, Long excludedShiftId) {
+        Specification<Shift> specification = Specification.where(getShiftSpecificationForDate(DATE_KEY, ":", date))
+                .and(getShiftSpecificationForUsername(username))
+                .and(new ShiftSpecification(new SearchCriteria("overlaps", startTime, endTime)));
+        if (excludedShiftId != null) {
+            specification = specification.and(new ShiftSpecification(new SearchCriteria("id", "!:", excludedShiftId)));
+        }
+        return specification;
+    }
+
     // encapsulation
     private ShiftSpecification getShiftSpecificationForTime(String key, String operation, LocalTime time) {
         return new ShiftSpecification(getSearchCriteriaForShiftTime(key, operation, time));
@@ -231,55 +652,53 @@ public class ShiftService {
     }
 
     // encapsulation
-    private Shift translateDtoToShift(ShiftDto shiftDto) {
-        return new Shift(null, userService.getCurrentUsername(shiftDto.getUsername()),
-                convertToTime(shiftDto.getStartHour(), shiftDto.getStartMinute()),
-                convertToTime(shiftDto.getEndHour(), shiftDto.getEndMinute()));
+    private ShiftSpecification getShiftSpecificationForDate(String key, String operation, LocalDate date) {
+        return new ShiftSpecification(new SearchCriteria(key, operation, date));
     }
 
-    private void validateShiftTimes(ShiftDto shiftDto) {
-        int startHour = shiftDto.getStartHour();
-        int startMinute = shiftDto.getStartMinute();
-        int endHour = shiftDto.getEndHour();
-        int endMinute = shiftDto.getEndMinute();
-
-        LocalTime startTime = convertToTime(startHour, startMinute);
-        LocalTime endTime = convertToTime(endHour, endMinute);
-
-        if (startTime.equals(endTime)) {
-            throw new ShiftIllegalArgumentException("Shifts must have a different start and end time range.");
+    // the date range is optional, and an open end is not filtered
+    private Specification<Shift> withDateRange(Specification<Shift> specification, SearchShiftDto searchShiftDto) {
+        if (searchShiftDto.getFromDate() != null) {
+            specification = specification.and(getShiftSpecificationForDate(DATE_KEY, ">:", searchShiftDto.getFromDate()));
         }
-        if (endTime.isBefore(startTime)) {
-            throw new ShiftIllegalArgumentException("A shift's end time cannot be before a shift's start time.");
+        if (searchShiftDto.getToDate() != null) {
+            specification = specification.and(getShiftSpecificationForDate(DATE_KEY, "<:", searchShiftDto.getToDate()));
         }
+        return specification;
     }
 
-    // checks if the new shift overlaps the existing shift, but allows for the new shift's endpoints to overlap with the existing shift's endpoints
-    // (i.e. existing shift can end at 1:30pm and new shift can start at 1:30pm)
-    private boolean isShiftOverlappingWithAnother(ShiftDto newUserShift, Shift existingShift) {
-        LocalTime newStartTime = convertToTime(newUserShift.getStartHour(), newUserShift.getStartMinute());
-        LocalTime newEndTime = convertToTime(newUserShift.getEndHour(), newUserShift.getEndMinute());
+    // encapsulation
+    private Shift translateDtoToShift(ShiftDto shiftDto) {
+        return Shift.builder()
+                .username(userService.getCurrentUsername(shiftDto.getUsername()))
+                .shiftDate(shiftDto.getDate())
+                .startTime(convertToTime(shiftDto.getStartHour(), shiftDto.getStartMinute()))
+                .endTime(convertToTime(shiftDto.getEndHour(), shiftDto.getEndMinute()))
+                .build();
+    }
 
-        LocalTime existingStartTime = existingShift.getStartTime();
-        LocalTime existingEndTime = existingShift.getEndTime();
+    private void setDefaultDate(ShiftDto shiftDto, LocalDate date) {
+        if (shiftDto.getDate() == null) {
+            shiftDto.setDate(date);
+        }
+    }
 
-        return newStartTime.equals(existingStartTime) ||
-                newEndTime.equals(existingEndTime) ||
-                isTimeWithinRange(newStartTime, existingStartTime, existingEndTime) ||
-                isTimeWithinRange(newEndTime, existingStartTime, existingEndTime) ||
-                (newStartTime.isBefore(existingStartTime) && newEndTime.isAfter(existingEndTime));
+    // empty when the user exists
+    private String getUserValidationError(String username) {
+        try {
+            userService.validateUser(username);
+            return "";
+        } catch (UsernameNotFoundException ex) {
+            return ex.getMessage();
+        }
     }
 
-    private boolean isTimeWithinRange(LocalTime time, LocalTime rangeStartTime, LocalTime rangeEndTime) {
-        return time.isAfter(rangeStartTime) && time.isBefore(rangeEndTime);
+    private int valueOrDefault(Integer value, int defaultValue) {
+        return value != null ? value : defaultValue;
     }
 
     private LocalTime convertToTime(int hour, int minute) {
         return LocalTime.of(hour, minute);
     }
 
-    private String formatLocalTime(LocalTime localTime) {
-        return localTime.format(DateTimeFormatter.ofPattern("hh:mm a"));
-    }
-
 }
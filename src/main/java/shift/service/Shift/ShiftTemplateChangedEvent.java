@@ -0,0 +1,15 @@
+package shift.service.Shift;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published once a recurring shift template is committed or deleted. Its occurrences may change on any date of its validity period
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class ShiftTemplateChangedEvent {
+    private final String username;
+}
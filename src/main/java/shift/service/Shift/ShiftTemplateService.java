@@ -0,0 +1,316 @@
+package shift.service.Shift;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import shift.domain.dao.ShiftRepository;
+import shift.domain.dao.ShiftTemplateRepository;
+import shift.domain.dto.ResultShiftTemplateDto;
+import shift.domain.dto.ShiftTemplateDto;
+import shift.domain.h2.SearchCriteria;
+import shift.domain.h2.Shift.MinuteOfDay;
+import shift.domain.h2.Shift.Shift;
+import shift.domain.h2.Shift.ShiftSpecification;
+import shift.domain.h2.Shift.ShiftTemplate;
+import shift.exception.ShiftIllegalArgumentException;
+import shift.exception.ShiftNotFoundException;
+import shift.service.User.UserService;
+
+import javax.validation.constraints.NotNull;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Provides methods for managing recurring shift templates and for working out their occurrences.
+ * <p>
+ * Occurrences are never stored. They are generated only for the dates being read, and overlap checks compare weekdays,
+ * validity periods and times directly instead of generating occurrences.
+ * </p>
+ */
+@Service
+public class ShiftTemplateService {
+    // longest date range expanded into occurrences by a single read
+    public static final int MAX_EXPANDED_DAYS = 366;
+
+    private static final String USERNAME_KEY = "username";
+    private static final String DATE_KEY = "shiftDate";
+
+    private ShiftTemplateRepository shiftTemplateDao;
+    private ShiftRepository shiftDao;
+    private UserService userService;
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public ShiftTemplateService(ShiftTemplateRepository shiftTemplateDao, ShiftRepository shiftDao,
+                                UserService userService, ApplicationEventPublisher eventPublisher) {
+        this.shiftTemplateDao = shiftTemplateDao;
+        this.shiftDao = shiftDao;
+        this.userService = userService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Creates a recurring shift template for a given user
+     * <p>
+     * Does the below validations:
+     * 1. The username given in {@link ShiftTemplateDto} is an existing username
+     * 2. At least one weekday is given, and the validity period does not end before it starts
+     * 3. The start time is before the end time
+     * 4. No occurrence overlaps an occurrence of another template of the user, or a stored shift of the user
+     * </p>
+     * @param shiftTemplateDto the {@link ShiftTemplateDto} providing parameters for creating the template
+     * @return the created template
+     * @throws UsernameNotFoundException when the specified user does not exist
+     * @throws ShiftIllegalArgumentException when the given params violate rules listed in the method description
+     */
+    @Transactional
+    public ResultShiftTemplateDto createShiftTemplate(@NotNull ShiftTemplateDto shiftTemplateDto) throws UsernameNotFoundException, ShiftIllegalArgumentException {
+        String username = userService.getCurrentUsername(shiftTemplateDto.getUsername());
+        userService.validateUser(username);
+        ShiftTemplate template = translateDtoToShiftTemplate(username, shiftTemplateDto);
+
+        for (ShiftTemplate existingTemplate : shiftTemplateDao.findByUsername(username)) {
+            if (isOverlapping(template, existingTemplate)) {
+                throw new ShiftIllegalArgumentException("This shift template overlaps with shift template " + existingTemplate.getId() + " for username " + username);
+            }
+        }
+        Shift overlappingShift = findOverlappingShift(template);
+        if (overlappingShift != null) {
+            throw new ShiftIllegalArgumentException("This shift template overlaps with shift " + overlappingShift.getId() + " for username " + username);
+        }
+
+        shiftTemplateDao.save(template);
+        publishTemplateChange(username);
+        return buildResultShiftTemplate(template);
+    }
+
+    /**
+     * Gets a single shift template
+     * @param templateId the unique id of the template
+     * @return the template
+     * @throws ShiftNotFoundException when no template with the given id exists
+     */
+    @Transactional(readOnly = true)
+    public ResultShiftTemplateDto getShiftTemplate(long templateId) throws ShiftNotFoundException {
+        return buildResultShiftTemplate(getShiftTemplateFromDb(templateId));
+    }
+
+    /**
+     * Gets every shift template of a user
+     * @param username the user owning the templates, or null for the current user
+     * @return the user's templates
+     * @throws UsernameNotFoundException when the specified user does not exist
+     */
+    @Transactional(readOnly = true)
+    public List<ResultShiftTemplateDto> getShiftTemplates(String username) throws UsernameNotFoundException {
+        String user = userService.getCurrentUsername(username);
+        userService.validateUser(user);
+        return shiftTemplateDao.findByUsername(user).stream()
+                .map(this::buildResultShiftTemplate)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Deletes a shift template, and with it every occurrence of the template
+     * @param templateId the unique id of the template
+     * @throws ShiftNotFoundException when no template with the given id exists
+     */
+    @Transactional
+    public void deleteShiftTemplate(long templateId) throws ShiftNotFoundException {
+        ShiftTemplate template = getShiftTemplateFromDb(templateId);
+        shiftTemplateDao.delete(template);
+        publishTemplateChange(template.getUsername());
+    }
+
+    /**
+     * Generates the occurrences of the templates valid within a date range. Occurrences are unsaved {@link Shift}s
+     * without an id, carrying the id of their template instead
+     * @param username the user owning the templates, or null for every user
+     * @param fromDate the first date of the range
+     * @param toDate the last date of the range
+     * @return the occurrences within the range, in no particular order
+     * @throws ShiftIllegalArgumentException when the range is longer than {@value #MAX_EXPANDED_DAYS} days
+     */
+    public List<Shift> getOccurrences(String username, @NotNull LocalDate fromDate, @NotNull LocalDate toDate) throws ShiftIllegalArgumentException {
+        if (toDate.isBefore(fromDate)) {
+            return new ArrayList<>();
+        }
+        if (ChronoUnit.DAYS.between(fromDate, toDate) >= MAX_EXPANDED_DAYS) {
+            throw new ShiftIllegalArgumentException("Date ranges including recurring shifts can be at most " + MAX_EXPANDED_DAYS + " days long.");
+        }
+
+        List<ShiftTemplate> templates = username == null
+                ? shiftTemplateDao.findValidBetween(fromDate, toDate)
+                : shiftTemplateDao.findValidBetweenForUser(username, fromDate, toDate);
+
+        List<Shift> occurrences = new ArrayList<>();
+        for (ShiftTemplate template : templates) {
+            LocalDate lastDate = template.getValidTo() == null || template.getValidTo().isAfter(toDate) ? toDate : template.getValidTo();
+            for (LocalDate date = later(template.getValidFrom(), fromDate); !date.isAfter(lastDate); date = date.plusDays(1)) {
+                if (template.isWorkedOn(date.getDayOfWeek())) {
+                    occurrences.add(Shift.builder()
+                            .templateId(template.getId())
+                            .username(template.getUsername())
+                            .shiftDate(date)
+                            .startTime(template.getStartTime())
+                            .endTime(template.getEndTime())
+                            .build());
+                }
+            }
+        }
+        return occurrences;
+    }
+
+    /**
+     * Checks if a shift would overlap an occurrence of one of the user's templates, without generating occurrences
+     * @param username the user owning the templates
+     * @param date the date of the shift
+     * @param startTime the start of the shift
+     * @param endTime the end of the shift
+     * @return true if a template occurs on the date with an overlapping time range
+     */
+    public boolean isOverlappingTemplate(String username, LocalDate date, LocalTime startTime, LocalTime endTime) {
+        if (username == null || date == null) {
+            return false;
+        }
+        return shiftTemplateDao.findValidBetweenForUser(username, date, date).stream()
+                .anyMatch(template -> template.occursOn(date) && ShiftRules.isOverlapping(template.getStartTime(), template.getEndTime(), startTime, endTime));
+    }
+
+    // two templates overlap when a date in both validity periods falls on a weekday of both, and their times overlap
+    private boolean isOverlapping(ShiftTemplate template, ShiftTemplate otherTemplate) {
+        if (!ShiftRules.isOverlapping(template.getStartTime(), template.getEndTime(), otherTemplate.getStartTime(), otherTemplate.getEndTime())) {
+            return false;
+        }
+        int commonDays = template.getDaysOfWeek() & otherTemplate.getDaysOfWeek();
+        if (commonDays == 0) {
+            return false;
+        }
+
+        LocalDate firstDate = later(template.getValidFrom(), otherTemplate.getValidFrom());
+        LocalDate lastDate = earlier(template.getValidTo(), otherTemplate.getValidTo());
+        if (lastDate != null && lastDate.isBefore(firstDate)) {
+            return false;
+        }
+        // a common period of a week or more contains every weekday; a shorter one is checked a day at a time
+        if (lastDate == null || ChronoUnit.DAYS.between(firstDate, lastDate) >= 6) {
+            return true;
+        }
+        for (LocalDate date = firstDate; !date.isAfter(lastDate); date = date.plusDays(1)) {
+            if ((commonDays & ShiftTemplate.toDayOfWeekBit(date.getDayOfWeek())) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // reads the user's stored shifts that overlap the template's times within its validity period, and checks their weekdays
+    private Shift findOverlappingShift(ShiftTemplate template) {
+        Specification<Shift> specification = Specification
+                .where(new ShiftSpecification(new SearchCriteria(DATE_KEY, ">:", template.getValidFrom())))
+                .and(new ShiftSpecification(new SearchCriteria(USERNAME_KEY, ":", template.getUsername())))
+                .and(new ShiftSpecification(new SearchCriteria("overlaps", template.getStartTime(), template.getEndTime())));
+        if (template.getValidTo() != null) {
+            specification = specification.and(new ShiftSpecification(new SearchCriteria(DATE_KEY, "<:", template.getValidTo())));
+        }
+
+        return shiftDao.findAll(specification).stream()
+                .filter(shift -> template.isWorkedOn(shift.getShiftDate().getDayOfWeek()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    // listeners only hear about changes once they are committed
+    private void publishTemplateChange(String username) {
+        ShiftTemplateChangedEvent event = new ShiftTemplateChangedEvent(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    eventPublisher.publishEvent(event);
+                }
+            });
+        } else {
+            eventPublisher.publishEvent(event);
+        }
+    }
+
+    private ShiftTemplate getShiftTemplateFromDb(long templateId) throws ShiftNotFoundException {
+        return shiftTemplateDao.findById(templateId)
+                .orElseThrow(() -> new ShiftNotFoundException("Unable to find shift template with id " + templateId));
+    }
+
+    // encapsulation
+    private ShiftTemplate translateDtoToShiftTemplate(String username, ShiftTemplateDto shiftTemplateDto) throws ShiftIllegalArgumentException {
+        if (shiftTemplateDto.getDaysOfWeek() == null || shiftTemplateDto.getDaysOfWeek().isEmpty()) {
+            throw new ShiftIllegalArgumentException("Shift templates must be worked on at least one day of the week.");
+        }
+        if (shiftTemplateDto.getStartHour() == null || shiftTemplateDto.getStartMinute() == null ||
+                shiftTemplateDto.getEndHour() == null || shiftTemplateDto.getEndMinute() == null) {
+            throw new ShiftIllegalArgumentException("Shift templates must have a start and end time.");
+        }
+
+        LocalTime startTime = LocalTime.of(shiftTemplateDto.getStartHour(), shiftTemplateDto.getStartMinute());
+        LocalTime endTime = LocalTime.of(shiftTemplateDto.getEndHour(), shiftTemplateDto.getEndMinute());
+        if (!startTime.isBefore(endTime)) {
+            throw new ShiftIllegalArgumentException("A shift template's start time must be before its end time.");
+        }
+
+        LocalDate validFrom = shiftTemplateDto.getValidFrom() != null ? shiftTemplateDto.getValidFrom() : LocalDate.now();
+        if (shiftTemplateDto.getValidTo() != null && shiftTemplateDto.getValidTo().isBefore(validFrom)) {
+            throw new ShiftIllegalArgumentException("A shift template cannot end before it starts.");
+        }
+
+        int daysOfWeek = 0;
+        for (DayOfWeek dayOfWeek : shiftTemplateDto.getDaysOfWeek()) {
+            daysOfWeek |= ShiftTemplate.toDayOfWeekBit(dayOfWeek);
+        }
+
+        return ShiftTemplate.builder()
+                .username(username)
+                .daysOfWeek(daysOfWeek)
+                .startTime(startTime)
+                .endTime(endTime)
+                .validFrom(validFrom)
+                .validTo(shiftTemplateDto.getValidTo())
+                .build();
+    }
+
+    // encapsulation
+    private ResultShiftTemplateDto buildResultShiftTemplate(ShiftTemplate template) {
+        return ResultShiftTemplateDto.builder()
+                .id(template.getId())
+                .user(template.getUsername())
+                .daysOfWeek(Stream.of(DayOfWeek.values())
+                        .filter(template::isWorkedOn)
+                        .collect(Collectors.toList()))
+                .startTime(MinuteOfDay.format(template.getStartTime()))
+                .endTime(MinuteOfDay.format(template.getEndTime()))
+                .validFrom(template.getValidFrom().toString())
+                .validTo(template.getValidTo() != null ? template.getValidTo().toString() : null)
+                .build();
+    }
+
+    private LocalDate later(LocalDate date, LocalDate otherDate) {
+        return date.isAfter(otherDate) ? date : otherDate;
+    }
+
+    // null is an open end
+    private LocalDate earlier(LocalDate date, LocalDate otherDate) {
+        if (date == null || otherDate == null) {
+            return date == null ? otherDate : date;
+        }
+        return date.isBefore(otherDate) ? date : otherDate;
+    }
+}
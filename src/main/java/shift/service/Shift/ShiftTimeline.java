@@ -0,0 +1,139 @@
+package shift.service.Shift;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import shift.domain.dao.ShiftRepository;
+import shift.domain.dto.ResultShiftDto;
+import shift.domain.h2.Shift.MinuteOfDay;
+import shift.exception.ShiftIllegalArgumentException;
+
+import javax.validation.constraints.NotNull;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Provides the shifts being worked at a given time of a date.
+ * <p>
+ * Each date's shifts are kept in a segment tree over the minutes of the day. A shift is stored at the few nodes whose minute ranges
+ * exactly make up its time range, so a shift is added or removed in O(log minutes) and the shifts at a minute are found
+ * by walking from the root to that minute's leaf, in O(log minutes + shifts found).
+ * </p>
+ */
+@Service
+public class ShiftTimeline extends ShiftView<List<Set<ShiftInterval>>> {
+    // node 1 of a date's tree is the root covering the whole day; node i has children 2i and 2i + 1
+    private static final int NODE_COUNT = 4 * MinuteOfDay.MINUTES_PER_DAY;
+
+    @Autowired
+    public ShiftTimeline(ShiftRepository shiftDao, ShiftTemplateService shiftTemplateService, PlatformTransactionManager transactionManager) {
+        super(shiftDao, shiftTemplateService, transactionManager);
+    }
+
+    /**
+     * Gets the shifts being worked at the given date and time. A shift is worked from its start time up to, but not including, its end time
+     * @param date the date of the shifts
+     * @param hour the hour of the time, on a 24-hour clock
+     * @param minute the minute of the time
+     * @return a {@link ResultShiftDto} for each shift being worked, in no particular order
+     * @throws ShiftIllegalArgumentException when the hour or minute is out of range
+     */
+    public List<ResultShiftDto> getShiftsAt(@NotNull LocalDate date, int hour, int minute) throws ShiftIllegalArgumentException {
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            throw new ShiftIllegalArgumentException("The time must be given as an hour from 0 to 23 and a minute from 0 to 59.");
+        }
+        int minuteOfDay = hour * 60 + minute;
+        List<ResultShiftDto> shifts = new ArrayList<>();
+
+        Lock lock = getLock();
+        lock.lock();
+        try {
+            List<Set<ShiftInterval>> nodes = getDate(date);
+            int node = 1;
+            int from = 0;
+            int to = MinuteOfDay.MINUTES_PER_DAY;
+            while (true) {
+                Set<ShiftInterval> intervals = nodes.get(node);
+                if (intervals != null) {
+                    intervals.forEach(interval -> shifts.add(buildResultShift(interval)));
+                }
+                if (to - from == 1) {
+                    break;
+                }
+
+                int middle = (from + to) / 2;
+                if (minuteOfDay < middle) {
+                    node = 2 * node;
+                    to = middle;
+                } else {
+                    node = 2 * node + 1;
+                    from = middle;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return shifts;
+    }
+
+    @Override
+    protected List<Set<ShiftInterval>> createDate() {
+        return new ArrayList<>(Collections.nCopies(NODE_COUNT, null));
+    }
+
+    @Override
+    protected void add(List<Set<ShiftInterval>> nodes, ShiftInterval interval) {
+        update(nodes, 1, 0, MinuteOfDay.MINUTES_PER_DAY, interval, true);
+    }
+
+    @Override
+    protected void remove(List<Set<ShiftInterval>> nodes, ShiftInterval interval) {
+        update(nodes, 1, 0, MinuteOfDay.MINUTES_PER_DAY, interval, false);
+    }
+
+    // stores or removes the interval at the nodes within [from, to) that are fully covered by it
+    private void update(List<Set<ShiftInterval>> nodes, int node, int from, int to, ShiftInterval interval, boolean add) {
+        if (interval.getEndMinute() <= from || to <= interval.getStartMinute()) {
+            return;
+        }
+
+        if (interval.getStartMinute() <= from && to <= interval.getEndMinute()) {
+            Set<ShiftInterval> intervals = nodes.get(node);
+            if (add) {
+                if (intervals == null) {
+                    intervals = new HashSet<>();
+                    nodes.set(node, intervals);
+                }
+                intervals.add(interval);
+            } else if (intervals != null) {
+                intervals.remove(interval);
+                if (intervals.isEmpty()) {
+                    nodes.set(node, null);
+                }
+            }
+            return;
+        }
+
+        int middle = (from + to) / 2;
+        update(nodes, 2 * node, from, middle, interval, add);
+        update(nodes, 2 * node + 1, middle, to, interval, add);
+    }
+
+    // template occurrences are held under their negated template id
+    private ResultShiftDto buildResultShift(ShiftInterval interval) {
+        boolean isOccurrence = interval.getId() < 0;
+        return ResultShiftDto.builder()
+                .id(isOccurrence ? null : interval.getId())
+                .templateId(isOccurrence ? -interval.getId() : null)
+                .user(interval.getUsername())
+                .date(interval.getDate().toString())
+                .startTime(MinuteOfDay.format(interval.getStartMinute()))
+                .endTime(MinuteOfDay.format(interval.getEndMinute()))
+                .build();
+    }
+}
@@ -0,0 +1,52 @@
+package shift.service.Shift;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters of the stored shifts: one across every user and one per user, bumped once a change is committed.
+ * A search that reads a version before reading the shifts can reuse its result for as long as the version stays the same.
+ * Versions include the time the counters were started, so versions handed out before a restart are never reused.
+ */
+public class ShiftVersions {
+    private static final String ALL_USERS = "all";
+    private static final String USER_PREFIX = "user:";
+
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong version = new AtomicLong();
+    private final Map<String, AtomicLong> versionsByUser = new ConcurrentHashMap<>();
+
+    /**
+     * Bumps the version across every user and the version of each given user
+     * @param usernames the users whose shifts changed. Nulls are ignored
+     */
+    public void bump(String... usernames) {
+        for (String username : usernames) {
+            if (username != null) {
+                versionsByUser.computeIfAbsent(username, user -> new AtomicLong()).incrementAndGet();
+            }
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * @return the version of every user's shifts
+     */
+    public String getVersion() {
+        return format(ALL_USERS, version.get());
+    }
+
+    /**
+     * @param username the user
+     * @return the version of the user's shifts, which differs from the version of any other user's shifts
+     */
+    public String getVersion(String username) {
+        AtomicLong userVersion = versionsByUser.get(username);
+        return format(USER_PREFIX + username, userVersion != null ? userVersion.get() : 0);
+    }
+
+    private String format(String scope, long count) {
+        return scope + "/" + epoch + "." + count;
+    }
+}
@@ -0,0 +1,174 @@
+package shift.service.Shift;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import shift.domain.dao.ShiftRepository;
+import shift.domain.h2.Shift.Shift;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Base class for in-memory views over the shifts of a date.
+ * <p>
+ * A date is loaded from the database on first use and then kept up to date from {@link ShiftChangedEvent}s.
+ * Changes are applied by shift id, replacing whatever the view holds for the shift, so an event that the initial load
+ * already saw leaves the view unchanged. Only the most recently used dates are kept, so the view does not grow with the
+ * shift history. Subclasses read their state while holding the view's lock, from {@link #getLock()}.
+ * The lock is held while a date loads, so it is a {@link ReentrantLock} rather than a monitor, which would pin a virtual thread
+ * to its carrier for the whole query.
+ * </p>
+ * <p>
+ * Occurrences of recurring shift templates are loaded with the date under their negated template id. A template change may
+ * touch any date, so every loaded date is dropped and reloaded on next use.
+ * </p>
+ * @param <D> the view's state for a single date
+ */
+public abstract class ShiftView<D> {
+    private static final int MAX_LOADED_DATES = 31;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ShiftRepository shiftDao;
+    private final ShiftTemplateService shiftTemplateService;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<LocalDate, LoadedDate> dates = new LinkedHashMap<LocalDate, LoadedDate>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<LocalDate, LoadedDate> eldest) {
+            return size() > MAX_LOADED_DATES;
+        }
+    };
+
+    protected ShiftView(ShiftRepository shiftDao, ShiftTemplateService shiftTemplateService, PlatformTransactionManager transactionManager) {
+        this.shiftDao = shiftDao;
+        this.shiftTemplateService = shiftTemplateService;
+        // not read-only, so loads stay on the primary database: a date loaded from a lagging read replica would miss
+        // changes whose events were already ignored because the date was not loaded yet
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Applies a committed shift change. Changes to dates that are not loaded are ignored, since the load reads them from the database
+     * @param event the committed change
+     */
+    @EventListener
+    public void onShiftChanged(ShiftChangedEvent event) {
+        lock.lock();
+        try {
+            if (event.getPrevious() != null) {
+                LoadedDate previousDate = dates.get(event.getPrevious().getDate());
+                if (previousDate != null) {
+                    previousDate.remove(event.getId());
+                }
+            }
+            if (event.getCurrent() != null) {
+                LoadedDate currentDate = dates.get(event.getCurrent().getDate());
+                if (currentDate != null) {
+                    currentDate.remove(event.getId());
+                    currentDate.put(event.getCurrent());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops every loaded date after a committed template change
+     * @param event the committed change
+     */
+    @EventListener
+    public void onShiftTemplateChanged(ShiftTemplateChangedEvent event) {
+        lock.lock();
+        try {
+            dates.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the lock guarding the view's state, to hold while calling {@link #getDate(LocalDate)} and reading its result
+     */
+    protected Lock getLock() {
+        return lock;
+    }
+
+    /**
+     * Gets the view's state for a date, loading the date's shifts from the database unless they are already loaded.
+     * Must be called while holding the view's lock
+     * @param date the date of the shifts
+     * @return the state for the date
+     */
+    protected D getDate(LocalDate date) {
+        LoadedDate loadedDate = dates.get(date);
+        if (loadedDate != null) {
+            return loadedDate.state;
+        }
+
+        LoadedDate newDate = new LoadedDate(createDate());
+        transactionTemplate.execute(status -> {
+            try (Stream<Shift> shifts = shiftDao.streamByShiftDate(date)) {
+                shifts.forEach(shift -> {
+                    newDate.put(ShiftInterval.of(shift));
+                    entityManager.detach(shift);
+                });
+            }
+            shiftTemplateService.getOccurrences(null, date, date)
+                    .forEach(occurrence -> newDate.put(ShiftInterval.of(occurrence)));
+            return null;
+        });
+        dates.put(date, newDate);
+        return newDate.state;
+    }
+
+    /**
+     * @return empty state for a date without shifts
+     */
+    protected abstract D createDate();
+
+    /**
+     * Adds a shift to a date's state
+     * @param state the state of the shift's date
+     * @param interval the added shift
+     */
+    protected abstract void add(D state, ShiftInterval interval);
+
+    /**
+     * Removes a shift previously given to {@link #add(Object, ShiftInterval)} from a date's state
+     * @param state the state of the shift's date
+     * @param interval the removed shift
+     */
+    protected abstract void remove(D state, ShiftInterval interval);
+
+    private class LoadedDate {
+        private final D state;
+        private final Map<Long, ShiftInterval> intervals = new HashMap<>();
+
+        LoadedDate(D state) {
+            this.state = state;
+        }
+
+        void put(ShiftInterval interval) {
+            intervals.put(interval.getId(), interval);
+            add(state, interval);
+        }
+
+        void remove(Long id) {
+            ShiftInterval stored = intervals.remove(id);
+            if (stored != null) {
+                ShiftView.this.remove(state, stored);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package shift.service.Shift;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+
+/**
+ * Key for the shifts of one user on one date. A user's shifts only need to be disjoint within a date
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+class UserDay {
+    private final String username;
+    private final LocalDate date;
+
+    static UserDay of(ShiftInterval interval) {
+        return new UserDay(interval.getUsername(), interval.getDate());
+    }
+}
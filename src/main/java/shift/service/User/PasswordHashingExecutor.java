@@ -0,0 +1,62 @@
+package shift.service.User;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import shift.exception.ServiceOverloadedException;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing and verification on a dedicated, bounded pool of threads.
+ * BCrypt is deliberately slow, so a burst of logins would otherwise take up the request threads needed by every other endpoint.
+ */
+@Component
+public class PasswordHashingExecutor {
+    private final ThreadPoolTaskExecutor executor;
+
+    @Autowired
+    public PasswordHashingExecutor(@Value("${app.passwordHashingThreads:4}") int threads,
+                                   @Value("${app.passwordHashingQueueCapacity:50}") int queueCapacity) {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hashing-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+    }
+
+    /**
+     * Runs a task that hashes or verifies a password
+     * @param task the task to run
+     * @param <T> the task's result type
+     * @return a {@link CompletableFuture} completed with the task's result, or with the exception the task threw
+     * @throws ServiceOverloadedException when the queue of waiting tasks is full
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> task) throws ServiceOverloadedException {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(task.get());
+                } catch (RuntimeException ex) {
+                    future.completeExceptionally(ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            throw new ServiceOverloadedException("Too many authentication requests. Please try again later.");
+        }
+        return future;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,9 +1,13 @@
 package shift.service.User;
 
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.h2.util.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import shift.domain.dao.UserRepository;
 import shift.domain.h2.SearchCriteria;
 import shift.domain.h2.User.User;
@@ -11,6 +15,8 @@ import shift.domain.h2.User.UserSpecification;
 
 import javax.validation.constraints.NotNull;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Provides methods for viewing and managing users
@@ -20,6 +26,13 @@ public class UserService {
 
     private UserRepository userDao;
 
+    // token versions are cached so that authenticating a request does not need a database lookup
+    private final ConcurrentMap<String, CachedTokenVersion> tokenVersions = new ConcurrentHashMap<>();
+
+    // bounds how long a revocation made by another application instance takes to be seen
+    @Value("${app.jwtVersionCacheTtlInMs:60000}")
+    private long tokenVersionCacheTtlInMs;
+
     public UserService(UserRepository userDao) {
         this.userDao = userDao;
     }
@@ -59,6 +72,7 @@ public class UserService {
      * Gets all users from the database
      * @return a list of {@link User}
      */
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userDao.findAll();
     }
@@ -84,7 +98,47 @@ public class UserService {
         userDao.save(user);
     }
 
+    /**
+     * Gets the user's current token version. Tokens issued with an older version have been revoked.
+     * @param username the user's username
+     * @return the current token version
+     * @throws UsernameNotFoundException when no user exists with the given username
+     */
+    public int getTokenVersion(@NotNull String username) throws UsernameNotFoundException {
+        long now = System.currentTimeMillis();
+        CachedTokenVersion tokenVersion = tokenVersions.get(username);
+        if (tokenVersion == null || tokenVersion.getExpiresAt() <= now) {
+            tokenVersion = new CachedTokenVersion(getTokenVersion(getUserByUsername(username)), now + tokenVersionCacheTtlInMs);
+            tokenVersions.put(username, tokenVersion);
+        }
+        return tokenVersion.getVersion();
+    }
+
+    /**
+     * Revokes every token issued to the user, so the user has to log in again.
+     * Should be called whenever a user is disabled or their roles change.
+     * @param username the user's username
+     * @throws UsernameNotFoundException when no user exists with the given username
+     */
+    public void revokeTokens(@NotNull String username) throws UsernameNotFoundException {
+        User user = getUserByUsername(username);
+        user.setTokenVersion(getTokenVersion(user) + 1);
+        userDao.save(user);
+        tokenVersions.remove(user.getUsername());
+    }
+
+    private int getTokenVersion(User user) {
+        return user.getTokenVersion() != null ? user.getTokenVersion() : 0;
+    }
+
     private String getCurrentUsername() {
         return SecurityContextHolder.getContext().getAuthentication().getName();
     }
+
+    @Getter
+    @AllArgsConstructor
+    private static class CachedTokenVersion {
+        private final int version;
+        private final long expiresAt;
+    }
 }
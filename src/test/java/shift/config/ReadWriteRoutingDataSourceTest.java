@@ -0,0 +1,62 @@
+package shift.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import shift.domain.dto.DataSourceStatsDto;
+
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class ReadWriteRoutingDataSourceTest {
+    private Connection primaryConnection;
+    private Connection readConnection;
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @Before
+    public void init() throws Exception {
+        primaryConnection = Mockito.mock(Connection.class);
+        readConnection = Mockito.mock(Connection.class);
+        HikariDataSource primaryDataSource = Mockito.mock(HikariDataSource.class);
+        HikariDataSource readDataSource = Mockito.mock(HikariDataSource.class);
+        Mockito.when(primaryDataSource.getConnection()).thenReturn(primaryConnection);
+        Mockito.when(readDataSource.getConnection()).thenReturn(readConnection);
+
+        routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource, readDataSource);
+        routingDataSource.afterPropertiesSet();
+    }
+
+    @After
+    public void cleanUp() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void testReadOnlyTransactionsUseReadPool() throws Exception {
+        assertSame(primaryConnection, routingDataSource.getConnection());
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(readConnection, routingDataSource.getConnection());
+        assertSame(readConnection, routingDataSource.getConnection());
+    }
+
+    @Test
+    public void testConnectionsAreCountedPerPool() throws Exception {
+        routingDataSource.getConnection();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        routingDataSource.getConnection();
+        routingDataSource.getConnection();
+
+        List<DataSourceStatsDto> stats = routingDataSource.getStats();
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, stats.get(0).getPool());
+        assertEquals(1, stats.get(0).getConnectionsServed());
+        assertEquals(ReadWriteRoutingDataSource.READ, stats.get(1).getPool());
+        assertEquals(2, stats.get(1).getConnectionsServed());
+    }
+}
@@ -0,0 +1,50 @@
+package shift.config;
+
+import org.junit.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class VirtualThreadConfigTest {
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadConfig.class);
+
+    @Test
+    public void testPlatformThreadsByDefault() {
+        contextRunner.run(context -> {
+            assertFalse(context.containsBean("requestExecutor"));
+            assertFalse(context.containsBean("virtualThreadTomcatCustomizer"));
+        });
+    }
+
+    @Test
+    public void testEnabledModeNeedsJava21() {
+        contextRunner.withPropertyValues("app.virtualThreads=true").run(context -> {
+            if (VirtualThreads.isSupported()) {
+                ExecutorService requestExecutor = context.getBean("requestExecutor", ExecutorService.class);
+                assertTrue(context.containsBean("virtualThreadTomcatCustomizer"));
+                context.close();
+                assertTrue(requestExecutor.isShutdown());
+                return;
+            }
+
+            // the service is built and tested on Java 8, where the enabled mode must fail startup with a clear message
+            assertNotNull(context.getStartupFailure());
+            assertTrue(hasCause(context.getStartupFailure(), "Virtual threads need Java 21 or later, running on Java " + System.getProperty("java.version")));
+        });
+    }
+
+    // encapsulation
+    private boolean hasCause(Throwable failure, String message) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IllegalStateException && message.equals(cause.getMessage())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,62 @@
+package shift.controller;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import shift.domain.security.AuthToken;
+import shift.domain.security.UserLogin;
+import shift.security.JwtTokenProvider;
+import shift.service.User.PasswordHashingExecutor;
+import shift.service.User.UserService;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+
+public class AuthenticationControllerTest {
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @After
+    public void cleanUp() {
+        if (passwordHashingExecutor != null) {
+            passwordHashingExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void testLoginCompletesWithToken() throws Exception {
+        Authentication authentication = new UsernamePasswordAuthenticationToken("manager", null,
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_MANAGER")));
+        AuthenticationManager authenticationManager = Mockito.mock(AuthenticationManager.class);
+        AtomicReference<String> authenticatingThread = new AtomicReference<>();
+        Mockito.when(authenticationManager.authenticate(any(Authentication.class))).thenAnswer(invocation -> {
+            authenticatingThread.set(Thread.currentThread().getName());
+            return authentication;
+        });
+        JwtTokenProvider tokenProvider = Mockito.mock(JwtTokenProvider.class);
+        Mockito.when(tokenProvider.generateToken(authentication)).thenReturn("token");
+        passwordHashingExecutor = new PasswordHashingExecutor(1, 1);
+
+        AuthenticationController authenticationController = new AuthenticationController(authenticationManager, tokenProvider,
+                Mockito.mock(UserService.class), Mockito.mock(PasswordEncoder.class), passwordHashingExecutor);
+        ResponseEntity<AuthToken> response = authenticationController.login(new UserLogin("manager", "manager")).get(1, TimeUnit.SECONDS);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        AuthToken authToken = response.getBody();
+        assertEquals("token", authToken.getToken());
+        assertEquals(Collections.singletonList("ROLE_MANAGER"), authToken.getAuthorities());
+        // the password is verified on the hashing pool, not the request thread
+        assertTrue(authenticatingThread.get().startsWith("password-hashing-"));
+    }
+}
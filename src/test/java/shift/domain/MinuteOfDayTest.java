@@ -0,0 +1,35 @@
+package shift.domain;
+
+import org.junit.Test;
+import shift.domain.h2.Shift.MinuteOfDay;
+import shift.domain.h2.Shift.MinuteOfDayConverter;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MinuteOfDayTest {
+    private final MinuteOfDayConverter converter = new MinuteOfDayConverter();
+
+    @Test
+    public void testFormatMatchesPattern() {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("hh:mm a");
+        for (int minute = 0; minute < MinuteOfDay.MINUTES_PER_DAY; minute++) {
+            LocalTime time = LocalTime.of(minute / 60, minute % 60);
+            assertEquals(time.format(formatter), MinuteOfDay.format(time));
+        }
+    }
+
+    @Test
+    public void testConverterRoundTrip() {
+        LocalTime time = LocalTime.of(13, 30);
+        Short minute = converter.convertToDatabaseColumn(time);
+
+        assertEquals(Short.valueOf((short) 810), minute);
+        assertEquals(time, converter.convertToEntityAttribute(minute));
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+}
@@ -0,0 +1,169 @@
+package shift.domain;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.junit4.SpringRunner;
+import shift.domain.dao.ShiftRepository;
+import shift.domain.h2.SearchCriteria;
+import shift.domain.h2.Shift.Shift;
+import shift.domain.h2.Shift.ShiftSpecification;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+@RunWith(SpringRunner.class)
+@DataJpaTest
+public class ShiftRepositoryTest {
+    private static final String USERNAME = "username";
+    private static final String OTHER_USERNAME = "other";
+    private static final LocalDate DATE = LocalDate.of(2018, 11, 30);
+
+    @Autowired
+    ShiftRepository shiftDao;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    private Random random;
+
+    @Before
+    public void init() {
+        random = new Random(42);
+    }
+
+    @Test
+    public void testOverlapsMatchesJavaPredicateOnRandomShifts() {
+        for (int round = 0; round < 20; round++) {
+            shiftDao.deleteAll();
+            List<Shift> userShifts = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                userShifts.add(shiftDao.save(getRandomShift(USERNAME)));
+                shiftDao.save(getRandomShift(OTHER_USERNAME));
+            }
+
+            for (int query = 0; query < 50; query++) {
+                Shift newShift = getRandomShift(USERNAME);
+                boolean expected = userShifts.stream()
+                        .anyMatch(existingShift -> isShiftOverlappingWithAnother(newShift, existingShift));
+
+                assertEquals(expected, shiftDao.exists(getOverlappingShiftSpecification(newShift, null)));
+            }
+        }
+    }
+
+    @Test
+    public void testOverlapsIgnoresExcludedShift() {
+        Shift existingShift = shiftDao.save(getShift(USERNAME, LocalTime.of(8, 0), LocalTime.of(12, 0)));
+        Shift updatedShift = getShift(USERNAME, LocalTime.of(9, 0), LocalTime.of(13, 0));
+
+        assertEquals(true, shiftDao.exists(getOverlappingShiftSpecification(updatedShift, null)));
+        assertEquals(false, shiftDao.exists(getOverlappingShiftSpecification(updatedShift, existingShift.getId())));
+    }
+
+    @Test
+    public void testOverlapsIsPerDate() {
+        shiftDao.save(getShift(USERNAME, LocalTime.of(8, 0), LocalTime.of(12, 0)));
+        Shift nextDayShift = getShift(USERNAME, LocalTime.of(8, 0), LocalTime.of(12, 0));
+        nextDayShift.setShiftDate(DATE.plusDays(1));
+
+        assertEquals(false, shiftDao.exists(getOverlappingShiftSpecification(nextDayShift, null)));
+    }
+
+    @Test
+    public void testDateRangeIncludesBothEnds() {
+        for (int day = -1; day <= 7; day++) {
+            Shift shift = getShift(USERNAME, LocalTime.of(8, 0), LocalTime.of(12, 0));
+            shift.setShiftDate(DATE.plusDays(day));
+            shiftDao.save(shift);
+        }
+
+        Specification<Shift> week = Specification.where(new ShiftSpecification(new SearchCriteria("shiftDate", ">:", DATE)))
+                .and(new ShiftSpecification(new SearchCriteria("shiftDate", "<:", DATE.plusDays(6))));
+        assertEquals(7, shiftDao.findAll(week).size());
+        assertEquals(1, shiftDao.findAll(new ShiftSpecification(new SearchCriteria("shiftDate", ":", DATE))).size());
+    }
+
+    @Test
+    public void testUsernameMatchesExactly() {
+        shiftDao.save(getShift("joanne", LocalTime.of(8, 0), LocalTime.of(12, 0)));
+
+        assertEquals(0, shiftDao.findAll(new ShiftSpecification(new SearchCriteria("username", ":", "ann"))).size());
+        assertEquals(1, shiftDao.findAll(new ShiftSpecification(new SearchCriteria("username", ":", "joanne"))).size());
+        assertEquals(1, shiftDao.findAll(new ShiftSpecification(new SearchCriteria("username", "~", "ann"))).size());
+    }
+
+    @Test
+    public void testShiftTimesAreNotManaged() {
+        Shift stored = shiftDao.save(getShift(USERNAME, LocalTime.of(8, 30), LocalTime.of(12, 0)));
+        shiftDao.save(getShift(OTHER_USERNAME, LocalTime.of(8, 0), LocalTime.of(12, 0)));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<Shift> shifts = shiftDao.findShiftTimes(new ShiftSpecification(new SearchCriteria("username", ":", USERNAME)));
+
+        assertEquals(1, shifts.size());
+        Shift shift = shifts.get(0);
+        assertEquals(stored.getId(), shift.getId());
+        assertEquals(USERNAME, shift.getUsername());
+        assertEquals(DATE, shift.getShiftDate());
+        assertEquals(LocalTime.of(8, 30), shift.getStartTime());
+        assertEquals(LocalTime.of(12, 0), shift.getEndTime());
+        assertFalse(entityManager.getEntityManager().contains(shift));
+    }
+
+    private Specification<Shift> getOverlappingShiftSpecification(Shift shift, Long excludedShiftId) {
+        Specification<Shift> specification = Specification
+                .where(new ShiftSpecification(new SearchCriteria("shiftDate", ":", shift.getShiftDate())))
+                .and(new ShiftSpecification(new SearchCriteria("username", ":", shift.getUsername())))
+                .and(new ShiftSpecification(new SearchCriteria("overlaps", shift.getStartTime(), shift.getEndTime())));
+        if (excludedShiftId != null) {
+            specification = specification.and(new ShiftSpecification(new SearchCriteria("id", "!:", excludedShiftId)));
+        }
+        return specification;
+    }
+
+    private Shift getRandomShift(String username) {
+        int startMinute = random.nextInt(24 * 60 - 1);
+        int endMinute = startMinute + 1 + random.nextInt(24 * 60 - startMinute - 1);
+        return getShift(username, LocalTime.of(startMinute / 60, startMinute % 60), LocalTime.of(endMinute / 60, endMinute % 60));
+    }
+
+    private Shift getShift(String username, LocalTime startTime, LocalTime endTime) {
+        return Shift.builder()
+                .username(username)
+                .shiftDate(DATE)
+                .startTime(startTime)
+                .endTime(endTime)
+                .build();
+    }
+
+    // the overlap rule originally used by ShiftService
+    private boolean isShiftOverlappingWithAnother(Shift newShift, Shift existingShift) {
+        LocalTime newStartTime = newShift.getStartTime();
+        LocalTime newEndTime = newShift.getEndTime();
+
+        LocalTime existingStartTime = existingShift.getStartTime();
+        LocalTime existingEndTime = existingShift.getEndTime();
+
+        return newStartTime.equals(existingStartTime) ||
+                newEndTime.equals(existingEndTime) ||
+                isTimeWithinRange(newStartTime, existingStartTime, existingEndTime) ||
+                isTimeWithinRange(newEndTime, existingStartTime, existingEndTime) ||
+                (newStartTime.isBefore(existingStartTime) && newEndTime.isAfter(existingEndTime));
+    }
+
+    private boolean isTimeWithinRange(LocalTime time, LocalTime rangeStartTime, LocalTime rangeEndTime) {
+        return time.isAfter(rangeStartTime) && time.isBefore(rangeEndTime);
+    }
+}
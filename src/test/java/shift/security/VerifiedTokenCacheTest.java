@@ -0,0 +1,86 @@
+package shift.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class VerifiedTokenCacheTest {
+
+    @Test
+    public void testGetCachedToken() {
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(10);
+        String digest = VerifiedTokenCache.digest("token");
+        verifiedTokenCache.put(digest, getClaims(60000));
+
+        assertTrue(verifiedTokenCache.get(digest).isPresent());
+        assertFalse(verifiedTokenCache.get(VerifiedTokenCache.digest("other")).isPresent());
+        assertEquals(1, verifiedTokenCache.getStats().getHits());
+        assertEquals(1, verifiedTokenCache.getStats().getMisses());
+    }
+
+    @Test
+    public void testExpiredTokenIsNotReturned() {
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(10);
+        String digest = VerifiedTokenCache.digest("token");
+        verifiedTokenCache.put(digest, getClaims(-1));
+
+        assertFalse(verifiedTokenCache.get(digest).isPresent());
+        assertEquals(0, verifiedTokenCache.getStats().getSize());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedTokenIsDropped() {
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(2, 1);
+        verifiedTokenCache.put("first", getClaims(60000));
+        verifiedTokenCache.put("second", getClaims(60000));
+        verifiedTokenCache.get("first");
+        verifiedTokenCache.put("third", getClaims(60000));
+
+        assertTrue(verifiedTokenCache.get("first").isPresent());
+        assertFalse(verifiedTokenCache.get("second").isPresent());
+        assertTrue(verifiedTokenCache.get("third").isPresent());
+    }
+
+    @Test
+    public void testSizeIsBoundedAcrossSegments() {
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(32);
+        for (int token = 0; token < 1000; token++) {
+            verifiedTokenCache.put(VerifiedTokenCache.digest("token" + token), getClaims(60000));
+        }
+
+        assertTrue(verifiedTokenCache.getStats().getSize() <= 32);
+        assertTrue(verifiedTokenCache.get(VerifiedTokenCache.digest("token999")).isPresent());
+    }
+
+    @Test
+    public void testCachedClaimsCannotBeModified() {
+        VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(10);
+        String digest = VerifiedTokenCache.digest("token");
+        Claims claims = getClaims(60000);
+        verifiedTokenCache.put(digest, claims);
+        claims.setSubject("changed after caching");
+
+        Optional<Claims> cachedClaims = verifiedTokenCache.get(digest);
+        assertEquals("username", cachedClaims.get().getSubject());
+        try {
+            cachedClaims.get().setSubject("changed by a request");
+            fail("Cached claims were modified");
+        } catch (UnsupportedOperationException ex) {
+            assertEquals("username", verifiedTokenCache.get(digest).get().getSubject());
+        }
+    }
+
+    private Claims getClaims(long expiresInMs) {
+        return Jwts.claims()
+                .setSubject("username")
+                .setExpiration(new Date(System.currentTimeMillis() + expiresInMs));
+    }
+}
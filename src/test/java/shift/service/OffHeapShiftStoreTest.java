@@ -0,0 +1,209 @@
+package shift.service;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import shift.domain.dao.ShiftRepository;
+import shift.domain.h2.Shift.Shift;
+import shift.service.Shift.OffHeapShiftStore;
+import shift.service.Shift.ShiftChangedEvent;
+import shift.service.Shift.ShiftCursor;
+import shift.service.Shift.ShiftInterval;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapShiftStoreTest {
+    private static final LocalDate DATE = LocalDate.of(2018, 11, 30);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ShiftRepository shiftDao;
+    private List<Shift> storedShifts;
+
+    @Before
+    public void init() {
+        storedShifts = new ArrayList<>();
+        shiftDao = Mockito.mock(ShiftRepository.class);
+        Mockito.when(shiftDao.streamAll()).thenAnswer(invocation -> storedShifts.stream().sorted(ShiftCursor.ORDER));
+        Mockito.when(shiftDao.count()).thenAnswer(invocation -> (long) storedShifts.size());
+        Mockito.when(shiftDao.findMaxId()).thenAnswer(invocation -> storedShifts.stream().map(Shift::getId).max(Long::compare).orElse(null));
+    }
+
+    @Test
+    public void testSearchFiltersAndSortsShifts() throws Exception {
+        storedShifts.add(getShift(1L, "first", DATE, 9, 12));
+        storedShifts.add(getShift(2L, "second", DATE, 8, 10));
+        storedShifts.add(getShift(3L, "first", DATE.plusDays(1), 7, 9));
+        storedShifts.add(getShift(4L, "first", DATE, 8, 23));
+        OffHeapShiftStore shiftStore = getLoadedStore();
+
+        assertEquals(ids(2L, 1L, 3L), ids(shiftStore.findShifts(null, null, null, LocalTime.MIDNIGHT, LocalTime.of(22, 0), null, null)));
+        assertEquals(ids(1L), ids(shiftStore.findShifts("first", DATE, DATE, LocalTime.of(9, 0), LocalTime.of(23, 59), null, 1)));
+        assertEquals(ids(3L), ids(shiftStore.findShifts("first", DATE.plusDays(1), null, LocalTime.MIDNIGHT, LocalTime.of(23, 59), null, null)));
+        assertTrue(shiftStore.findShifts("unknown", null, null, LocalTime.MIDNIGHT, LocalTime.of(23, 59), null, null).isEmpty());
+    }
+
+    @Test
+    public void testSearchFollowsShiftChanges() throws Exception {
+        storedShifts.add(getShift(1L, "first", DATE, 9, 12));
+        OffHeapShiftStore shiftStore = getLoadedStore();
+
+        ShiftInterval created = new ShiftInterval(2L, "second", DATE, 8 * 60, 10 * 60);
+        shiftStore.onShiftChanged(ShiftChangedEvent.created(created));
+        shiftStore.onShiftChanged(ShiftChangedEvent.updated(new ShiftInterval(1L, "first", DATE, 9 * 60, 12 * 60),
+                new ShiftInterval(1L, "first", DATE, 7 * 60, 8 * 60)));
+        // applying a change the store already holds leaves it unchanged
+        shiftStore.onShiftChanged(ShiftChangedEvent.created(created));
+
+        List<Shift> shifts = shiftStore.findShifts(null, null, null, LocalTime.MIDNIGHT, LocalTime.of(23, 59), null, null);
+        assertEquals(ids(1L, 2L), ids(shifts));
+        assertEquals(LocalTime.of(7, 0), shifts.get(0).getStartTime());
+
+        shiftStore.onShiftChanged(ShiftChangedEvent.deleted(created));
+        assertEquals(ids(1L), ids(shiftStore.findShifts(null, null, null, LocalTime.MIDNIGHT, LocalTime.of(23, 59), null, null)));
+    }
+
+    @Test
+    public void testPagesMatchSortedScanOnRandomShifts() throws Exception {
+        Random random = new Random(42);
+        for (long id = 1; id <= 3000; id++) {
+            int start = random.nextInt(23 * 60);
+            storedShifts.add(Shift.builder()
+                    .id(id)
+                    .username("user" + random.nextInt(20))
+                    .shiftDate(DATE.plusDays(random.nextInt(10)))
+                    .startTime(LocalTime.of(start / 60, start % 60))
+                    .endTime(LocalTime.of(start / 60 + 1, start % 60))
+                    .build());
+        }
+        OffHeapShiftStore shiftStore = getLoadedStore();
+
+        for (String username : new String[] { null, "user3" }) {
+            List<Long> expected = storedShifts.stream()
+                    .filter(shift -> username == null || username.equals(shift.getUsername()))
+                    .filter(shift -> !shift.getShiftDate().isBefore(DATE.plusDays(2)) && !shift.getShiftDate().isAfter(DATE.plusDays(7)))
+                    .filter(shift -> !shift.getStartTime().isBefore(LocalTime.of(6, 0)) && !shift.getEndTime().isAfter(LocalTime.of(20, 0)))
+                    .sorted(ShiftCursor.ORDER)
+                    .map(Shift::getId)
+                    .collect(Collectors.toList());
+
+            List<Long> paged = new ArrayList<>();
+            ShiftCursor cursor = null;
+            List<Shift> page;
+            do {
+                page = shiftStore.findShifts(username, DATE.plusDays(2), DATE.plusDays(7), LocalTime.of(6, 0), LocalTime.of(20, 0), cursor, 37);
+                paged.addAll(ids(page));
+                cursor = page.isEmpty() ? null : ShiftCursor.of(page.get(page.size() - 1));
+            } while (page.size() == 37);
+
+            assertEquals(expected, paged);
+        }
+    }
+
+    @Test
+    public void testChangesMoveRowsAcrossChunks() throws Exception {
+        // more rows than one chunk of ids holds, so inserts and deletes near the start move several chunks
+        for (long id = 1; id <= 10000; id++) {
+            storedShifts.add(getShift(id, "first", DATE.plusDays(id), 9, 12));
+        }
+        OffHeapShiftStore shiftStore = getLoadedStore();
+
+        ShiftInterval earliest = new ShiftInterval(10001L, "first", DATE, 8 * 60, 10 * 60);
+        shiftStore.onShiftChanged(ShiftChangedEvent.created(earliest));
+        shiftStore.onShiftChanged(ShiftChangedEvent.deleted(new ShiftInterval(2L, "first", DATE.plusDays(2), 9 * 60, 12 * 60)));
+        shiftStore.onShiftChanged(ShiftChangedEvent.created(new ShiftInterval(10002L, "first", DATE.plusDays(5000), 7 * 60, 8 * 60)));
+        storedShifts.add(getShift(10001L, "first", DATE, 8, 10));
+        storedShifts.removeIf(shift -> shift.getId() == 2L);
+        storedShifts.add(getShift(10002L, "first", DATE.plusDays(5000), 7, 8));
+
+        List<Long> expected = storedShifts.stream()
+                .sorted(ShiftCursor.ORDER)
+                .map(Shift::getId)
+                .collect(Collectors.toList());
+        assertEquals(expected, ids(shiftStore.findShifts("first", null, null, LocalTime.MIDNIGHT, LocalTime.of(23, 59), null, null)));
+        assertEquals(3, shiftStore.getStats().getChanges());
+    }
+
+    @Test
+    public void testSnapshotIsReadOnceInsteadOfDatabase() throws Exception {
+        storedShifts.add(getShift(1L, "first", DATE, 9, 12));
+        OffHeapShiftStore shiftStore = getLoadedStore();
+        shiftStore.onShiftChanged(ShiftChangedEvent.created(new ShiftInterval(2L, "second", DATE, 8 * 60, 10 * 60)));
+        storedShifts.add(getShift(2L, "second", DATE, 8, 10));
+        shiftStore.writeSnapshot();
+
+        OffHeapShiftStore restartedStore = getLoadedStore();
+        assertEquals(ids(2L, 1L), ids(restartedStore.findShifts(null, null, null, LocalTime.MIDNIGHT, LocalTime.of(23, 59), null, null)));
+        Mockito.verify(shiftDao, Mockito.times(1)).streamAll();
+        assertFalse(folder.getRoot().toPath().resolve("shifts.snapshot").toFile().exists());
+    }
+
+    @Test
+    public void testSnapshotIsIgnoredWhenDatabaseChanged() throws Exception {
+        storedShifts.add(getShift(1L, "first", DATE, 9, 12));
+        storedShifts.add(getShift(2L, "second", DATE, 8, 10));
+        getLoadedStore().writeSnapshot();
+
+        // the database was recreated on restart and a shift was created before the store loaded
+        storedShifts.clear();
+        storedShifts.add(getShift(1L, "third", DATE, 13, 14));
+
+        OffHeapShiftStore restartedStore = getLoadedStore();
+        List<Shift> shifts = restartedStore.findShifts(null, null, null, LocalTime.MIDNIGHT, LocalTime.of(23, 59), null, null);
+        assertEquals(ids(1L), ids(shifts));
+        assertEquals("third", shifts.get(0).getUsername());
+        Mockito.verify(shiftDao, Mockito.times(2)).streamAll();
+
+        // an emptied database is not mistaken for the snapshot either
+        restartedStore.writeSnapshot();
+        storedShifts.clear();
+        assertTrue(getLoadedStore().findShifts(null, null, null, LocalTime.MIDNIGHT, LocalTime.of(23, 59), null, null).isEmpty());
+    }
+
+    private OffHeapShiftStore getLoadedStore() throws Exception {
+        OffHeapShiftStore shiftStore = new OffHeapShiftStore(shiftDao, Mockito.mock(PlatformTransactionManager.class),
+                folder.getRoot().toPath().resolve("shifts.snapshot").toString());
+        ReflectionTestUtils.setField(shiftStore, "entityManager", Mockito.mock(EntityManager.class));
+        shiftStore.load();
+        return shiftStore;
+    }
+
+    private Shift getShift(long id, String username, LocalDate date, int startHour, int endHour) {
+        return Shift.builder()
+                .id(id)
+                .username(username)
+                .shiftDate(date)
+                .startTime(LocalTime.of(startHour, 0))
+                .endTime(LocalTime.of(endHour, 0))
+                .build();
+    }
+
+    private List<Long> ids(List<Shift> shifts) {
+        return shifts.stream()
+                .map(Shift::getId)
+                .collect(Collectors.toList());
+    }
+
+    private List<Long> ids(Long... ids) {
+        List<Long> list = new ArrayList<>();
+        for (Long id : ids) {
+            list.add(id);
+        }
+        return list;
+    }
+}
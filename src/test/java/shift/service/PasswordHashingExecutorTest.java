@@ -0,0 +1,81 @@
+package shift.service;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import shift.exception.ServiceOverloadedException;
+import shift.service.User.PasswordHashingExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PasswordHashingExecutorTest {
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @After
+    public void cleanUp() {
+        if (passwordHashingExecutor != null) {
+            passwordHashingExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void testTasksAreRejectedWhenPoolAndQueueAreFull() throws Exception {
+        passwordHashingExecutor = new PasswordHashingExecutor(1, 1);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> first = passwordHashingExecutor.supply(() -> {
+            running.countDown();
+            await(release);
+            return "first";
+        });
+        assertTrue(running.await(1, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = passwordHashingExecutor.supply(() -> "queued");
+
+        try {
+            passwordHashingExecutor.supply(() -> "rejected");
+            fail("A task was accepted while the pool and queue were full");
+        } catch (ServiceOverloadedException ex) {
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, AnnotationUtils.findAnnotation(ServiceOverloadedException.class, ResponseStatus.class).value());
+        } finally {
+            release.countDown();
+        }
+
+        assertEquals("first", first.get(1, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTaskExceptionCompletesFuture() throws Exception {
+        passwordHashingExecutor = new PasswordHashingExecutor(1, 1);
+
+        CompletableFuture<String> future = passwordHashingExecutor.supply(() -> {
+            throw new SecurityException("Bad credentials");
+        });
+
+        try {
+            future.get(1, TimeUnit.SECONDS);
+            fail("The task's exception was not passed on");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof SecurityException);
+        }
+    }
+
+    // encapsulation
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package shift.service;
+
+import org.assertj.core.util.Lists;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.data.jpa.domain.Specification;
+import shift.domain.dao.ShiftRepository;
+import shift.domain.dto.AvailabilityWindowDto;
+import shift.domain.h2.Shift.Shift;
+import shift.exception.ShiftIllegalArgumentException;
+import shift.service.Shift.ShiftAvailability;
+import shift.service.Shift.ShiftChangedEvent;
+import shift.service.Shift.ShiftInterval;
+import shift.service.Shift.ShiftTemplateService;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ShiftAvailabilityTest {
+    private static final LocalDate DATE = LocalDate.of(2018, 11, 30);
+
+    private ShiftRepository shiftDao;
+    private ShiftAvailability shiftAvailability;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void init() {
+        shiftDao = Mockito.mock(ShiftRepository.class);
+        // the first user works 8am-12pm and 1pm-5pm, the second user 10am-2pm
+        Mockito.when(shiftDao.findAll(any(Specification.class))).thenReturn(
+                Lists.newArrayList(getShift(LocalTime.of(8, 0), LocalTime.of(12, 0)), getShift(LocalTime.of(13, 0), LocalTime.of(17, 0))),
+                Lists.newArrayList(getShift(LocalTime.of(10, 0), LocalTime.of(14, 0))));
+        shiftAvailability = new ShiftAvailability(shiftDao, Mockito.mock(ShiftTemplateService.class));
+    }
+
+    @Test
+    public void testFreeWindows() {
+        List<AvailabilityWindowDto> windows = shiftAvailability.getAvailability(DATE, Lists.newArrayList("first", "second"), 60, ShiftAvailability.FREE_MODE);
+
+        assertEquals(2, windows.size());
+        assertEquals("12:00 AM", windows.get(0).getStartTime());
+        assertEquals("07:59 AM", windows.get(0).getEndTime());
+        assertEquals(8 * 60, windows.get(0).getDurationMinutes());
+        assertEquals("05:00 PM", windows.get(1).getStartTime());
+        assertEquals("11:59 PM", windows.get(1).getEndTime());
+    }
+
+    @Test
+    public void testWorkingWindows() {
+        List<AvailabilityWindowDto> windows = shiftAvailability.getAvailability(DATE, Lists.newArrayList("first", "second"), 1, ShiftAvailability.WORKING_MODE);
+
+        assertEquals(2, windows.size());
+        assertEquals("10:00 AM", windows.get(0).getStartTime());
+        assertEquals("11:59 AM", windows.get(0).getEndTime());
+        assertEquals("01:00 PM", windows.get(1).getStartTime());
+        assertEquals(60, windows.get(1).getDurationMinutes());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBitmapsAreCachedUntilTheUserChanges() {
+        shiftAvailability.getAvailability(DATE, Lists.newArrayList("first", "second"), 1, ShiftAvailability.FREE_MODE);
+        shiftAvailability.getAvailability(DATE, Lists.newArrayList("first", "second"), 1, ShiftAvailability.FREE_MODE);
+        verify(shiftDao, times(2)).findAll(any(Specification.class));
+
+        shiftAvailability.onShiftChanged(ShiftChangedEvent.deleted(new ShiftInterval(1L, "second", DATE, 600, 840)));
+        shiftAvailability.getAvailability(DATE, Lists.newArrayList("first", "second"), 1, ShiftAvailability.FREE_MODE);
+        verify(shiftDao, times(3)).findAll(any(Specification.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBitmapsOfLeastRecentlyQueriedDateAreDropped() {
+        shiftAvailability.getAvailability(DATE, Lists.newArrayList("first"), 1, ShiftAvailability.FREE_MODE);
+        for (int day = 1; day <= 30; day++) {
+            shiftAvailability.getAvailability(DATE.plusDays(day), Lists.newArrayList("first"), 1, ShiftAvailability.FREE_MODE);
+        }
+        // still one of the 31 most recently queried dates
+        shiftAvailability.getAvailability(DATE, Lists.newArrayList("first"), 1, ShiftAvailability.FREE_MODE);
+        verify(shiftDao, times(31)).findAll(any(Specification.class));
+
+        // evicts the first of the other dates, not the date queried again
+        shiftAvailability.getAvailability(DATE.plusDays(31), Lists.newArrayList("first"), 1, ShiftAvailability.FREE_MODE);
+        shiftAvailability.getAvailability(DATE, Lists.newArrayList("first"), 1, ShiftAvailability.FREE_MODE);
+        verify(shiftDao, times(32)).findAll(any(Specification.class));
+        shiftAvailability.getAvailability(DATE.plusDays(1), Lists.newArrayList("first"), 1, ShiftAvailability.FREE_MODE);
+        verify(shiftDao, times(33)).findAll(any(Specification.class));
+    }
+
+    @Test(expected = ShiftIllegalArgumentException.class)
+    public void testUnknownMode() {
+        shiftAvailability.getAvailability(DATE, Lists.newArrayList("first"), 30, "busy");
+    }
+
+    private Shift getShift(LocalTime startTime, LocalTime endTime) {
+        return Shift.builder()
+                .shiftDate(DATE)
+                .startTime(startTime)
+                .endTime(endTime)
+                .build();
+    }
+}
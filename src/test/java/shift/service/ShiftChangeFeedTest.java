@@ -0,0 +1,202 @@
+package shift.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import shift.exception.ServiceOverloadedException;
+import shift.service.Shift.ShiftChangeFeed;
+import shift.service.Shift.ShiftChangedEvent;
+import shift.service.Shift.ShiftInterval;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+public class ShiftChangeFeedTest {
+    private static final LocalDate DATE = LocalDate.of(2018, 11, 30);
+    private static final long HOUR_MILLIS = 60 * 60 * 1000;
+
+    private ShiftChangeFeed shiftChangeFeed;
+
+    @After
+    public void cleanUp() {
+        if (shiftChangeFeed != null) {
+            shiftChangeFeed.shutdown();
+        }
+    }
+
+    @Test
+    public void testChangesAreSentToMatchingSubscribers() throws Exception {
+        shiftChangeFeed = startFeed(16, 10);
+        SseEmitter everyone = shiftChangeFeed.subscribe(null);
+        SseEmitter first = shiftChangeFeed.subscribe("first");
+        SseEmitter second = shiftChangeFeed.subscribe("second");
+
+        ShiftInterval created = new ShiftInterval(1L, "first", DATE, 8 * 60, 12 * 60);
+        shiftChangeFeed.onShiftChanged(ShiftChangedEvent.created(created));
+        // reassigned from first to second, so both of them see it
+        shiftChangeFeed.onShiftChanged(ShiftChangedEvent.updated(created, new ShiftInterval(1L, "second", DATE, 8 * 60, 12 * 60)));
+        shiftChangeFeed.onShiftChanged(ShiftChangedEvent.created(new ShiftInterval(2L, "third", DATE, 8 * 60, 12 * 60)));
+
+        verify(everyone, timeout(1000).times(3)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(first, timeout(1000).times(2)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(second, timeout(1000).times(1)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(second, after(100).times(1)).send(any(SseEmitter.SseEventBuilder.class));
+        assertEquals(3, shiftChangeFeed.getSubscriberCount());
+    }
+
+    @Test
+    public void testSlowSubscriberIsDisconnectedWithoutBlockingOthers() throws Exception {
+        shiftChangeFeed = startFeed(4, 10);
+        SseEmitter slow = shiftChangeFeed.subscribe(null);
+        SseEmitter fast = shiftChangeFeed.subscribe(null);
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            sending.countDown();
+            release.await();
+            return null;
+        }).when(slow).send(any(SseEmitter.SseEventBuilder.class));
+
+        try {
+            // the first change is taken by a sender and stuck, the next four fill the queue and the sixth overflows it
+            for (int change = 1; change <= 6; change++) {
+                shiftChangeFeed.onShiftChanged(ShiftChangedEvent.created(new ShiftInterval((long) change, "first", DATE.plusDays(change), 8 * 60, 12 * 60)));
+                if (change == 1) {
+                    sending.await();
+                }
+                verify(fast, timeout(1000).times(change)).send(any(SseEmitter.SseEventBuilder.class));
+            }
+
+            verify(slow).complete();
+            assertEquals(1, shiftChangeFeed.getSubscriberCount());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testStuckSendIsTimedOutAndFreesTheSender() throws Exception {
+        // a single sender, so the fast subscriber is only served once the stuck send gives it up
+        shiftChangeFeed = startFeed(1, 16, 10, 100);
+        SseEmitter stuck = shiftChangeFeed.subscribe(null);
+        SseEmitter fast = shiftChangeFeed.subscribe(null);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            // like a blocking socket write, which interrupting does not stop
+            while (release.getCount() > 0) {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    // keep blocking
+                }
+            }
+            return null;
+        }).when(stuck).send(any(SseEmitter.SseEventBuilder.class));
+
+        try {
+            shiftChangeFeed.onShiftChanged(ShiftChangedEvent.created(new ShiftInterval(1L, "first", DATE, 8 * 60, 12 * 60)));
+            shiftChangeFeed.onShiftChanged(ShiftChangedEvent.created(new ShiftInterval(2L, "first", DATE, 13 * 60, 14 * 60)));
+
+            verify(stuck, timeout(1000)).complete();
+            verify(fast, timeout(1000).times(2)).send(any(SseEmitter.SseEventBuilder.class));
+            assertEquals(1, shiftChangeFeed.getSubscriberCount());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testEveryRealSubscriberReceivesTheSameEvent() throws Exception {
+        List<RecordingSseEmitter> emitters = new CopyOnWriteArrayList<>();
+        shiftChangeFeed = new ShiftChangeFeed(new ObjectMapper(), 2, 16, 10, HOUR_MILLIS, HOUR_MILLIS, HOUR_MILLIS, false) {
+            @Override
+            protected SseEmitter createEmitter(long timeoutMillis) {
+                RecordingSseEmitter emitter = new RecordingSseEmitter(timeoutMillis);
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        for (int i = 0; i < 3; i++) {
+            shiftChangeFeed.subscribe(null);
+        }
+
+        shiftChangeFeed.onShiftChanged(ShiftChangedEvent.created(new ShiftInterval(1L, "first", DATE, 8 * 60, 12 * 60)));
+
+        for (RecordingSseEmitter emitter : emitters) {
+            assertTrue(emitter.sent.await(1, TimeUnit.SECONDS));
+        }
+        String event = emitters.get(0).text.toString();
+        assertTrue(event.startsWith("event:"));
+        assertTrue(event.endsWith("\n\n"));
+        assertEquals(event.indexOf("data:"), event.lastIndexOf("data:"));
+        for (RecordingSseEmitter emitter : emitters) {
+            assertEquals(event, emitter.text.toString());
+        }
+    }
+
+    @Test(expected = ServiceOverloadedException.class)
+    public void testSubscribersAreLimited() throws Exception {
+        shiftChangeFeed = startFeed(16, 1);
+        shiftChangeFeed.subscribe(null);
+        shiftChangeFeed.subscribe(null);
+    }
+
+    @Test
+    public void testChangesToOtherUsersAreNotSent() throws Exception {
+        shiftChangeFeed = startFeed(16, 10);
+        SseEmitter emitter = shiftChangeFeed.subscribe("first");
+
+        shiftChangeFeed.onShiftChanged(ShiftChangedEvent.created(new ShiftInterval(1L, "second", DATE, 8 * 60, 12 * 60)));
+
+        verify(emitter, after(100).never()).send(any(SseEmitter.SseEventBuilder.class));
+        verify(emitter, never()).complete();
+    }
+
+    // encapsulation
+    private ShiftChangeFeed startFeed(int queueCapacity, int maxSubscribers) {
+        return startFeed(2, queueCapacity, maxSubscribers, HOUR_MILLIS);
+    }
+
+    // encapsulation
+    private ShiftChangeFeed startFeed(int threads, int queueCapacity, int maxSubscribers, long sendTimeoutMillis) {
+        return new ShiftChangeFeed(new ObjectMapper(), threads, queueCapacity, maxSubscribers, HOUR_MILLIS, HOUR_MILLIS, sendTimeoutMillis, false) {
+            @Override
+            protected SseEmitter createEmitter(long timeoutMillis) {
+                return mock(SseEmitter.class);
+            }
+        };
+    }
+
+    // records the text of the events a real emitter builds, without a response to write them to
+    private static class RecordingSseEmitter extends SseEmitter {
+        private final StringBuffer text = new StringBuffer();
+        private final CountDownLatch sent = new CountDownLatch(1);
+
+        RecordingSseEmitter(long timeoutMillis) {
+            super(timeoutMillis);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                text.append(data.getData());
+            }
+            sent.countDown();
+        }
+    }
+}
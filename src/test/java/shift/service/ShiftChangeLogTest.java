@@ -0,0 +1,180 @@
+package shift.service;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.actuate.health.Status;
+import shift.domain.dto.ShiftChangeDto;
+import shift.domain.dto.ShiftChangeLogStatsDto;
+import shift.service.Shift.ShiftChangeLog;
+import shift.service.Shift.ShiftChangeLogHealthIndicator;
+import shift.service.Shift.ShiftChangeLogReader;
+import shift.service.Shift.ShiftChangeRecord;
+import shift.service.Shift.ShiftChangedEvent;
+import shift.service.Shift.ShiftInterval;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ShiftChangeLogTest {
+    private static final LocalDate DATE = LocalDate.of(2018, 11, 30);
+    private static final long HOUR_MILLIS = 60 * 60 * 1000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ShiftChangeLog shiftChangeLog;
+
+    @After
+    public void cleanUp() throws Exception {
+        if (shiftChangeLog != null) {
+            shiftChangeLog.stop();
+        }
+    }
+
+    @Test
+    public void testHistoryOfShift() throws Exception {
+        shiftChangeLog = startLog(4096);
+        ShiftInterval created = new ShiftInterval(1L, "first", DATE, 8 * 60, 12 * 60);
+        ShiftInterval moved = new ShiftInterval(1L, "first", DATE, 9 * 60, 13 * 60);
+        shiftChangeLog.onShiftChanged(ShiftChangedEvent.created(created));
+        shiftChangeLog.onShiftChanged(ShiftChangedEvent.created(new ShiftInterval(2L, "second", DATE, 8 * 60, 12 * 60)));
+        shiftChangeLog.onShiftChanged(ShiftChangedEvent.updated(created, moved));
+        shiftChangeLog.awaitSynced(shiftChangeLog.append(record(ShiftChangedEvent.deleted(moved))));
+
+        List<ShiftChangeDto> history = shiftChangeLog.getHistory(1L);
+
+        assertEquals(3, history.size());
+        assertEquals(ShiftChangeRecord.CREATED, history.get(0).getType());
+        assertEquals("system", history.get(0).getChangedBy());
+        assertEquals(ShiftChangeRecord.UPDATED, history.get(1).getType());
+        assertEquals("08:00 AM", history.get(1).getPreviousStartTime());
+        assertEquals("09:00 AM", history.get(1).getStartTime());
+        assertEquals(ShiftChangeRecord.DELETED, history.get(2).getType());
+    }
+
+    @Test
+    public void testReplayAcrossSegmentsAndRestarts() throws Exception {
+        // small segments, so the records roll over many of them
+        shiftChangeLog = startLog(256);
+        long appended = 0;
+        for (long id = 1; id <= 100; id++) {
+            appended = shiftChangeLog.append(record(ShiftChangedEvent.created(new ShiftInterval(id, "user" + id, DATE, 60, 120))));
+        }
+        shiftChangeLog.awaitSynced(appended);
+        shiftChangeLog.stop();
+
+        shiftChangeLog = startLog(256);
+        for (long id = 1; id <= 100; id += 2) {
+            appended = shiftChangeLog.append(record(ShiftChangedEvent.deleted(new ShiftInterval(id, "user" + id, DATE, 60, 120))));
+        }
+        shiftChangeLog.awaitSynced(appended);
+
+        Map<Long, ShiftInterval> shifts = new ShiftChangeLogReader(folder.getRoot().toPath()).rebuild();
+        assertEquals(50, shifts.size());
+        assertTrue(shifts.keySet().stream().allMatch(id -> id % 2 == 0));
+    }
+
+    @Test
+    public void testReplayStopsAtDamagedRecord() throws Exception {
+        shiftChangeLog = startLog(4096);
+        shiftChangeLog.append(record(ShiftChangedEvent.created(new ShiftInterval(1L, "first", DATE, 60, 120))));
+        shiftChangeLog.awaitSynced(shiftChangeLog.append(record(ShiftChangedEvent.created(new ShiftInterval(2L, "second", DATE, 60, 120)))));
+        shiftChangeLog.stop();
+        shiftChangeLog = null;
+
+        // flip a byte inside the second record
+        File segment = folder.getRoot().listFiles()[0];
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            int firstLength = file.readInt();
+            long position = 8 + firstLength + 8 + 2;
+            file.seek(position);
+            int value = file.read();
+            file.seek(position);
+            file.write(value ^ 0xFF);
+        }
+
+        assertEquals(1, new ShiftChangeLogReader(folder.getRoot().toPath()).rebuild().size());
+    }
+
+    @Test
+    public void testChangesAreSpilledWhileWriterFailsAndKeptForNextStart() throws Exception {
+        // small segments and queue, and no retry before stopping
+        shiftChangeLog = startLog(256, 4, HOUR_MILLIS);
+        // the writer cannot create the next segment once the first one is full
+        Files.createFile(folder.getRoot().toPath().resolve(ShiftChangeLogReader.segmentFileName(1)));
+
+        for (long id = 1; id <= 30; id++) {
+            shiftChangeLog.onShiftChanged(ShiftChangedEvent.created(new ShiftInterval(id, "user" + id, DATE, 60, 120)));
+        }
+        ShiftChangeLogHealthIndicator healthIndicator = new ShiftChangeLogHealthIndicator(shiftChangeLog);
+        for (int wait = 0; wait < 100 && shiftChangeLog.getStats().getFailure() == null; wait++) {
+            Thread.sleep(10);
+        }
+
+        ShiftChangeLogStatsDto stats = shiftChangeLog.getStats();
+        assertNotNull(stats.getFailure());
+        assertEquals(30, stats.getAppendedRecords());
+        assertTrue(stats.getSpilledRecords() > 0);
+        assertEquals(0, stats.getDroppedRecords());
+        assertEquals(Status.DOWN, healthIndicator.health().getStatus());
+
+        shiftChangeLog.stop();
+        shiftChangeLog = startLog(256, 4, HOUR_MILLIS);
+        shiftChangeLog.awaitSynced(shiftChangeLog.getStats().getAppendedRecords());
+
+        Map<Long, ShiftInterval> shifts = new ShiftChangeLogReader(folder.getRoot().toPath()).rebuild();
+        assertEquals(30, shifts.size());
+        assertEquals(Status.UP, new ShiftChangeLogHealthIndicator(shiftChangeLog).health().getStatus());
+        assertFalse(folder.getRoot().toPath().resolve("overflow.log").toFile().exists());
+    }
+
+    @Test
+    public void testWriterRecoversOnNewSegment() throws Exception {
+        shiftChangeLog = startLog(256, 4, 10);
+        Files.createFile(folder.getRoot().toPath().resolve(ShiftChangeLogReader.segmentFileName(1)));
+
+        for (long id = 1; id <= 30; id++) {
+            shiftChangeLog.onShiftChanged(ShiftChangedEvent.created(new ShiftInterval(id, "user" + id, DATE, 60, 120)));
+        }
+        shiftChangeLog.awaitSynced(30);
+
+        ShiftChangeLogStatsDto stats = shiftChangeLog.getStats();
+        assertNull(stats.getFailure());
+        assertEquals(0, stats.getDroppedRecords());
+        assertEquals(30, stats.getSyncedRecords());
+        // in the order they were appended, spilled or not
+        List<Long> ids = new ArrayList<>();
+        new ShiftChangeLogReader(folder.getRoot().toPath()).replay(record -> ids.add(record.getShiftId()));
+        assertEquals(LongStream.rangeClosed(1, 30).boxed().collect(Collectors.toList()), ids.stream().distinct().collect(Collectors.toList()));
+    }
+
+    private ShiftChangeLog startLog(int segmentBytes) throws Exception {
+        return startLog(segmentBytes, 1000, 1000);
+    }
+
+    // encapsulation
+    private ShiftChangeLog startLog(int segmentBytes, int queueCapacity, long retryMillis) throws Exception {
+        ShiftChangeLog log = new ShiftChangeLog(folder.getRoot().getPath(), segmentBytes, queueCapacity, retryMillis);
+        log.start();
+        return log;
+    }
+
+    private ShiftChangeRecord record(ShiftChangedEvent event) {
+        return new ShiftChangeRecord(System.currentTimeMillis(), "system", event.getId(), event.getPrevious(), event.getCurrent());
+    }
+}
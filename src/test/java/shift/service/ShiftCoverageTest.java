@@ -0,0 +1,89 @@
+package shift.service;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import shift.domain.dao.ShiftRepository;
+import shift.domain.dto.CoverageBucketDto;
+import shift.domain.h2.Shift.Shift;
+import shift.exception.ShiftIllegalArgumentException;
+import shift.service.Shift.ShiftChangedEvent;
+import shift.service.Shift.ShiftCoverage;
+import shift.service.Shift.ShiftInterval;
+import shift.service.Shift.ShiftTemplateService;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ShiftCoverageTest {
+    private static final LocalDate DATE = LocalDate.of(2018, 11, 30);
+
+    private ShiftRepository shiftDao;
+    private ShiftCoverage shiftCoverage;
+
+    @Before
+    public void init() {
+        shiftDao = Mockito.mock(ShiftRepository.class);
+        Mockito.when(shiftDao.streamByShiftDate(DATE)).thenReturn(Stream.of(
+                getShift(1L, "first", LocalTime.of(8, 0), LocalTime.of(12, 0)),
+                getShift(2L, "second", LocalTime.of(9, 0), LocalTime.of(17, 0))));
+
+        shiftCoverage = new ShiftCoverage(shiftDao, Mockito.mock(ShiftTemplateService.class), Mockito.mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(shiftCoverage, "entityManager", Mockito.mock(EntityManager.class));
+    }
+
+    @Test
+    public void testCoverageCountsOverlappingShifts() {
+        List<CoverageBucketDto> buckets = shiftCoverage.getCoverage(DATE, "1h");
+
+        assertEquals(24, buckets.size());
+        assertEquals("08:00 AM", buckets.get(8).getStartTime());
+        assertEquals("08:59 AM", buckets.get(8).getEndTime());
+        assertEquals(1, buckets.get(8).getMaxHeadcount());
+        assertEquals(2, buckets.get(9).getMinHeadcount());
+        assertEquals(1, buckets.get(12).getMaxHeadcount());
+        assertEquals(0, buckets.get(17).getMaxHeadcount());
+    }
+
+    @Test
+    public void testCoverageFollowsShiftChanges() {
+        shiftCoverage.getCoverage(DATE, "15m");
+
+        ShiftInterval previous = new ShiftInterval(1L, "first", DATE, 8 * 60, 12 * 60);
+        ShiftInterval moved = new ShiftInterval(1L, "first", DATE, 12 * 60, 12 * 60 + 30);
+        shiftCoverage.onShiftChanged(ShiftChangedEvent.updated(previous, moved));
+        // a repeated change is applied by id and leaves the coverage unchanged
+        shiftCoverage.onShiftChanged(ShiftChangedEvent.updated(previous, moved));
+        shiftCoverage.onShiftChanged(ShiftChangedEvent.deleted(new ShiftInterval(2L, "second", DATE, 9 * 60, 17 * 60)));
+
+        List<CoverageBucketDto> buckets = shiftCoverage.getCoverage(DATE, "30m");
+        assertEquals(0, buckets.get(16).getMaxHeadcount());
+        assertEquals(1, buckets.get(24).getMinHeadcount());
+        assertEquals(0, buckets.get(25).getMaxHeadcount());
+        verify(shiftDao, times(1)).streamByShiftDate(DATE);
+    }
+
+    @Test(expected = ShiftIllegalArgumentException.class)
+    public void testResolutionMustDivideTheDay() {
+        shiftCoverage.getCoverage(DATE, "7m");
+    }
+
+    private Shift getShift(Long id, String username, LocalTime startTime, LocalTime endTime) {
+        return Shift.builder()
+                .id(id)
+                .username(username)
+                .shiftDate(DATE)
+                .startTime(startTime)
+                .endTime(endTime)
+                .build();
+    }
+}
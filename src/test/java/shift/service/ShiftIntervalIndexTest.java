@@ -0,0 +1,155 @@
+package shift.service;
+
+import org.assertj.core.util.Lists;
+import org.junit.Before;
+import org.junit.Test;
+import shift.domain.h2.Shift.Shift;
+import shift.service.Shift.ShiftInterval;
+import shift.service.Shift.ShiftIntervalIndex;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ShiftIntervalIndexTest {
+    private static final String USERNAME = "username";
+    private static final LocalDate DATE = LocalDate.of(2018, 11, 30);
+
+    private AtomicInteger loads;
+    private ShiftIntervalIndex shiftIndex;
+
+    @Before
+    public void init() {
+        loads = new AtomicInteger();
+        List<Shift> storedShifts = Lists.newArrayList(
+                getShift(1L, LocalTime.of(8, 0), LocalTime.of(12, 0)),
+                getShift(2L, LocalTime.of(13, 30), LocalTime.of(17, 0)));
+        shiftIndex = new ShiftIntervalIndex((username, date) -> {
+            loads.incrementAndGet();
+            return USERNAME.equals(username) && DATE.equals(date) ? storedShifts : Lists.newArrayList();
+        });
+    }
+
+    @Test
+    public void testOverlapsLoadsUserOnce() {
+        shiftIndex.overlaps(USERNAME, DATE, 0, 60, null);
+        shiftIndex.overlaps(USERNAME, DATE, 0, 60, null);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testOverlapsAllowsSharedEndpoints() {
+        assertFalse(shiftIndex.overlaps(USERNAME, DATE, 12 * 60, 13 * 60 + 30, null));
+        assertFalse(shiftIndex.overlaps(USERNAME, DATE, 17 * 60, 18 * 60, null));
+        assertFalse(shiftIndex.overlaps(USERNAME, DATE, 0, 8 * 60, null));
+    }
+
+    @Test
+    public void testOverlapsDetectsOverlappingRanges() {
+        assertTrue(shiftIndex.overlaps(USERNAME, DATE, 8 * 60, 12 * 60, null));
+        assertTrue(shiftIndex.overlaps(USERNAME, DATE, 7 * 60, 9 * 60, null));
+        assertTrue(shiftIndex.overlaps(USERNAME, DATE, 11 * 60, 14 * 60, null));
+        assertTrue(shiftIndex.overlaps(USERNAME, DATE, 9 * 60, 10 * 60, null));
+        assertTrue(shiftIndex.overlaps(USERNAME, DATE, 6 * 60, 18 * 60, null));
+    }
+
+    @Test
+    public void testOverlapsIgnoresExcludedShift() {
+        assertFalse(shiftIndex.overlaps(USERNAME, DATE, 9 * 60, 12 * 60, 1L));
+        assertTrue(shiftIndex.overlaps(USERNAME, DATE, 9 * 60, 14 * 60, 1L));
+    }
+
+    @Test
+    public void testOverlapsIsPerUser() {
+        assertFalse(shiftIndex.overlaps("other", DATE, 9 * 60, 10 * 60, null));
+    }
+
+    @Test
+    public void testOverlapsIsPerDate() {
+        assertFalse(shiftIndex.overlaps(USERNAME, DATE.plusDays(1), 9 * 60, 10 * 60, null));
+    }
+
+    @Test
+    public void testPutAndRemoveKeepIndexInSync() {
+        shiftIndex.overlaps(USERNAME, DATE, 0, 1, null);
+
+        shiftIndex.put(new ShiftInterval(3L, USERNAME, DATE, 18 * 60, 20 * 60));
+        assertTrue(shiftIndex.overlaps(USERNAME, DATE, 19 * 60, 21 * 60, null));
+
+        shiftIndex.put(new ShiftInterval(3L, USERNAME, DATE, 21 * 60, 22 * 60));
+        assertFalse(shiftIndex.overlaps(USERNAME, DATE, 19 * 60, 21 * 60, null));
+
+        shiftIndex.remove(new ShiftInterval(1L, USERNAME, DATE, 8 * 60, 12 * 60));
+        assertFalse(shiftIndex.overlaps(USERNAME, DATE, 9 * 60, 10 * 60, null));
+    }
+
+    @Test
+    public void testUpdatesForUnloadedUserAreReadFromDb() {
+        shiftIndex.put(new ShiftInterval(3L, USERNAME, DATE, 18 * 60, 20 * 60));
+        assertFalse(shiftIndex.overlaps(USERNAME, DATE, 19 * 60, 21 * 60, null));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testPutDuringLoadIsAppliedAfterLoad() throws InterruptedException {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ShiftIntervalIndex slowIndex = new ShiftIntervalIndex((username, date) -> {
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return Lists.newArrayList(getShift(1L, LocalTime.of(8, 0), LocalTime.of(12, 0)));
+        });
+
+        Thread loader = new Thread(() -> slowIndex.overlaps(USERNAME, DATE, 0, 1, null));
+        loader.start();
+        loading.await();
+        // committed after the load read the database, so the load does not see it
+        Thread writer = new Thread(() -> slowIndex.put(new ShiftInterval(3L, USERNAME, DATE, 18 * 60, 20 * 60)));
+        writer.start();
+        release.countDown();
+        loader.join();
+        writer.join();
+
+        assertTrue(slowIndex.overlaps(USERNAME, DATE, 9 * 60, 10 * 60, null));
+        assertTrue(slowIndex.overlaps(USERNAME, DATE, 19 * 60, 21 * 60, null));
+    }
+
+    @Test
+    public void testFailedLoadIsRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        ShiftIntervalIndex failingIndex = new ShiftIntervalIndex((username, date) -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("database unavailable");
+            }
+            return Lists.newArrayList(getShift(1L, LocalTime.of(8, 0), LocalTime.of(12, 0)));
+        });
+
+        try {
+            failingIndex.overlaps(USERNAME, DATE, 9 * 60, 10 * 60, null);
+        } catch (IllegalStateException ex) {
+            assertEquals("database unavailable", ex.getMessage());
+        }
+        assertTrue(failingIndex.overlaps(USERNAME, DATE, 9 * 60, 10 * 60, null));
+        assertEquals(2, attempts.get());
+    }
+
+    private Shift getShift(Long id, LocalTime startTime, LocalTime endTime) {
+        return Shift.builder()
+                .id(id)
+                .username(USERNAME)
+                .shiftDate(DATE)
+                .startTime(startTime)
+                .endTime(endTime)
+                .build();
+    }
+}
@@ -0,0 +1,142 @@
+package shift.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import shift.config.WebMvcConfig;
+import shift.domain.dto.ResultShiftDto;
+import shift.domain.dto.ResultShiftPageDto;
+import shift.domain.dto.SearchShiftDto;
+import shift.service.Shift.ShiftPageCache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ShiftPageCacheTest {
+    private static final String VERSION = "user:first/1.1";
+
+    @Test
+    public void testRepeatSearchIsServedFromCache() {
+        ShiftPageCache shiftPageCache = new ShiftPageCache(new ObjectMapper(), 4096);
+        AtomicInteger searches = new AtomicInteger();
+        Supplier<ResultShiftPageDto> search = countingSearch(searches, "next");
+
+        ShiftPageCache.CachedShiftPage first = shiftPageCache.getPage(VERSION, getSearchShiftDto(8), MediaType.APPLICATION_JSON_UTF8, search);
+        ShiftPageCache.CachedShiftPage second = shiftPageCache.getPage(VERSION, getSearchShiftDto(8), MediaType.APPLICATION_JSON_UTF8, search);
+
+        assertEquals(1, searches.get());
+        assertEquals("[{\"id\":1,\"user\":\"first\",\"date\":\"2018-11-30\",\"startTime\":\"08:00 AM\",\"endTime\":\"12:00 PM\"}]",
+                new String(second.getBody(), StandardCharsets.UTF_8));
+        assertEquals("next", second.getNextCursor());
+        assertEquals(first, second);
+        assertEquals(1, shiftPageCache.getStats().getHits());
+        assertEquals(1, shiftPageCache.getStats().getMisses());
+    }
+
+    @Test
+    public void testNewVersionOrSearchIsNotServedFromCache() {
+        ShiftPageCache shiftPageCache = new ShiftPageCache(new ObjectMapper(), 4096);
+        AtomicInteger searches = new AtomicInteger();
+        Supplier<ResultShiftPageDto> search = countingSearch(searches, null);
+
+        shiftPageCache.getPage(VERSION, getSearchShiftDto(8), MediaType.APPLICATION_JSON_UTF8, search);
+        shiftPageCache.getPage("user:first/1.2", getSearchShiftDto(8), MediaType.APPLICATION_JSON_UTF8, search);
+        shiftPageCache.getPage(VERSION, getSearchShiftDto(9), MediaType.APPLICATION_JSON_UTF8, search);
+
+        assertEquals(3, searches.get());
+        assertNotEquals(ShiftPageCache.getETag(VERSION, getSearchShiftDto(8), MediaType.APPLICATION_JSON_UTF8),
+                ShiftPageCache.getETag("user:first/1.2", getSearchShiftDto(8), MediaType.APPLICATION_JSON_UTF8));
+        assertEquals(ShiftPageCache.getETag(VERSION, getSearchShiftDto(8), MediaType.APPLICATION_JSON_UTF8),
+                ShiftPageCache.getETag(VERSION, getSearchShiftDto(8), MediaType.APPLICATION_JSON_UTF8));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedPagesAreDroppedOverByteLimit() {
+        AtomicInteger searches = new AtomicInteger();
+        Supplier<ResultShiftPageDto> search = countingSearch(searches, null);
+        int pageBytes = new ShiftPageCache(new ObjectMapper(), 4096).getPage(VERSION, getSearchShiftDto(0), MediaType.APPLICATION_JSON_UTF8, search).getBody().length;
+        ShiftPageCache shiftPageCache = new ShiftPageCache(new ObjectMapper(), 2 * pageBytes);
+
+        shiftPageCache.getPage(VERSION, getSearchShiftDto(1), MediaType.APPLICATION_JSON_UTF8, search);
+        shiftPageCache.getPage(VERSION, getSearchShiftDto(2), MediaType.APPLICATION_JSON_UTF8, search);
+        shiftPageCache.getPage(VERSION, getSearchShiftDto(1), MediaType.APPLICATION_JSON_UTF8, search);
+        shiftPageCache.getPage(VERSION, getSearchShiftDto(3), MediaType.APPLICATION_JSON_UTF8, search);
+
+        assertEquals(2, shiftPageCache.getStats().getPages());
+        assertEquals(2 * pageBytes, shiftPageCache.getStats().getBytes());
+        searches.set(0);
+        shiftPageCache.getPage(VERSION, getSearchShiftDto(1), MediaType.APPLICATION_JSON_UTF8, search);
+        assertEquals(0, searches.get());
+        shiftPageCache.getPage(VERSION, getSearchShiftDto(2), MediaType.APPLICATION_JSON_UTF8, search);
+        assertEquals(1, searches.get());
+    }
+
+    @Test
+    public void testBinaryEncodingsAreNegotiatedAndCachedSeparately() throws Exception {
+        ShiftPageCache shiftPageCache = new ShiftPageCache(new ObjectMapper(), 4096);
+        AtomicInteger searches = new AtomicInteger();
+        Supplier<ResultShiftPageDto> search = countingSearch(searches, null);
+
+        MediaType mediaType = shiftPageCache.getMediaType(MediaType.parseMediaTypes("application/json;q=0.5, application/x-jackson-smile"));
+        byte[] smile = shiftPageCache.getPage(VERSION, getSearchShiftDto(8), mediaType, search).getBody();
+        byte[] json = shiftPageCache.getPage(VERSION, getSearchShiftDto(8), MediaType.APPLICATION_JSON_UTF8, search).getBody();
+
+        assertEquals(WebMvcConfig.APPLICATION_SMILE, mediaType);
+        assertEquals(2, searches.get());
+        assertTrue(smile.length < json.length);
+        List<ResultShiftDto> shifts = new ObjectMapper(new SmileFactory()).readValue(smile, new TypeReference<List<ResultShiftDto>>() { });
+        assertEquals(search.get().getShifts(), shifts);
+        assertNotEquals(ShiftPageCache.getETag(VERSION, getSearchShiftDto(8), mediaType),
+                ShiftPageCache.getETag(VERSION, getSearchShiftDto(8), MediaType.APPLICATION_JSON_UTF8));
+    }
+
+    @Test
+    public void testJsonIsPreferredWhenAnythingIsAccepted() throws Exception {
+        ShiftPageCache shiftPageCache = new ShiftPageCache(new ObjectMapper(), 4096);
+
+        assertEquals(MediaType.APPLICATION_JSON_UTF8, shiftPageCache.getMediaType(Collections.emptyList()));
+        assertEquals(MediaType.APPLICATION_JSON_UTF8, shiftPageCache.getMediaType(MediaType.parseMediaTypes("*/*")));
+        assertEquals(WebMvcConfig.APPLICATION_CBOR, shiftPageCache.getMediaType(MediaType.parseMediaTypes("application/cbor, */*;q=0.1")));
+    }
+
+    @Test(expected = HttpMediaTypeNotAcceptableException.class)
+    public void testUnsupportedMediaTypeIsNotAcceptable() throws Exception {
+        new ShiftPageCache(new ObjectMapper(), 4096).getMediaType(MediaType.parseMediaTypes("text/csv"));
+    }
+
+    // encapsulation
+    private Supplier<ResultShiftPageDto> countingSearch(AtomicInteger searches, String nextCursor) {
+        return () -> {
+            searches.incrementAndGet();
+            return ResultShiftPageDto.builder()
+                    .shifts(Collections.singletonList(ResultShiftDto.builder()
+                            .id(1L)
+                            .user("first")
+                            .date("2018-11-30")
+                            .startTime("08:00 AM")
+                            .endTime("12:00 PM")
+                            .build()))
+                    .nextCursor(nextCursor)
+                    .build();
+        };
+    }
+
+    // encapsulation
+    private SearchShiftDto getSearchShiftDto(int fromStartHour) {
+        return SearchShiftDto.builder()
+                .fromStartHour(fromStartHour)
+                .toEndHour(23)
+                .toEndMinute(59)
+                .build();
+    }
+}
@@ -1,5 +1,7 @@
 package shift.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.assertj.core.util.Lists;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -7,29 +9,63 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import shift.domain.dao.ShiftRepository;
+import shift.domain.dto.BatchResultShiftDto;
+import shift.domain.dto.BulkShiftDto;
 import shift.domain.dto.ResultShiftDto;
+import shift.domain.dto.ResultShiftPageDto;
+import shift.domain.dto.SearchShiftDto;
 import shift.domain.dto.ShiftDto;
 import shift.domain.h2.Shift.Shift;
+import shift.exception.ShiftIllegalArgumentException;
+import shift.service.Shift.ShiftChangedEvent;
+import shift.service.Shift.ShiftCursor;
 import shift.service.Shift.ShiftService;
+import shift.service.Shift.ShiftTemplateService;
 import shift.service.User.UserService;
 
+import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @RunWith(MockitoJUnitRunner.class)
 public class ShiftServiceTest {
+    private static final LocalDate DATE = LocalDate.of(2018, 11, 30);
+
     @Mock
     ShiftRepository shiftDao;
 
     @Mock
     UserService userService;
 
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    ShiftTemplateService shiftTemplateService;
+
+    @Spy
+    ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     ShiftService shiftService;
 
@@ -47,6 +83,66 @@ public class ShiftServiceTest {
         assertEquals(resultShiftDto, shiftService.createShift(shiftDto));
     }
 
+    @Test
+    public void testCreateShiftDefaultsToToday() {
+        ShiftDto shiftDto = getDefaultShiftDto();
+        shiftDto.setDate(null);
+
+        assertEquals(LocalDate.now().toString(), shiftService.createShift(shiftDto).getDate());
+    }
+
+    @Test
+    public void testCreateShiftsRejectsOverlapsWithinBatch() {
+        Mockito.when(userService.getCurrentUsername("username")).thenReturn("username");
+
+        ShiftDto overlappingShiftDto = getDefaultShiftDto();
+        overlappingShiftDto.setStartHour(7);
+        overlappingShiftDto.setEndHour(9);
+
+        List<BatchResultShiftDto> results = shiftService.createShifts(Lists.newArrayList(getDefaultShiftDto(), overlappingShiftDto));
+
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        verify(userService, times(1)).validateUser("username");
+    }
+
+    @Test(expected = ShiftIllegalArgumentException.class)
+    public void testCreateShiftOverlappingTemplateOccurrence() {
+        Mockito.when(userService.getCurrentUsername("username")).thenReturn("username");
+        Mockito.when(shiftTemplateService.isOverlappingTemplate("username", DATE, LocalTime.MIDNIGHT, LocalTime.of(8, 0))).thenReturn(true);
+
+        shiftService.createShift(getDefaultShiftDto());
+    }
+
+    @Test
+    public void testCommittedChangesBumpShiftsVersions() {
+        Mockito.when(userService.getCurrentUsername("username")).thenReturn("username");
+        Mockito.when(userService.getCurrentUsername("other")).thenReturn("other");
+        String allVersion = shiftService.getShiftsVersion();
+        String userVersion = shiftService.getShiftsVersion("username");
+        String otherVersion = shiftService.getShiftsVersion("other");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            shiftService.createShift(getDefaultShiftDto());
+
+            // nothing changes until the transaction commits
+            assertEquals(allVersion, shiftService.getShiftsVersion());
+            assertEquals(userVersion, shiftService.getShiftsVersion("username"));
+            verify(eventPublisher, never()).publishEvent(any(ShiftChangedEvent.class));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(eventPublisher).publishEvent(any(ShiftChangedEvent.class));
+        assertNotEquals(allVersion, shiftService.getShiftsVersion());
+        assertNotEquals(userVersion, shiftService.getShiftsVersion("username"));
+        assertEquals(otherVersion, shiftService.getShiftsVersion("other"));
+        assertNotEquals(shiftService.getShiftsVersion("username"), shiftService.getShiftsVersion("other"));
+    }
+
     @Test
     public void testGetShiftById() throws Exception {
         long id = 1L;
@@ -82,6 +178,134 @@ public class ShiftServiceTest {
         verify(shiftDao, times(1)).delete(existingShift.get());
     }
 
+    @Test
+    public void testDeleteShiftsDeletesSelectedShiftsInOneStatement() {
+        Shift existingShift = getDefaultExistingShift().get();
+        existingShift.setId(1L);
+        existingShift.setUsername("username");
+
+        Mockito.when(shiftDao.findShiftTimes(any(Specification.class))).thenReturn(Lists.newArrayList(existingShift));
+        Mockito.when(shiftDao.deleteByIds(Lists.newArrayList(1L))).thenReturn(1);
+
+        assertEquals(1, shiftService.deleteShifts(BulkShiftDto.builder().ids(Lists.newArrayList(1L)).build()));
+        verify(shiftDao, times(0)).delete(any(Shift.class));
+        // the shifts are not loaded as entities before the delete
+        verify(shiftDao, times(0)).findAll(any(Specification.class));
+    }
+
+    @Test(expected = ShiftIllegalArgumentException.class)
+    public void testDeleteShiftsWithoutSelection() {
+        shiftService.deleteShifts(BulkShiftDto.builder().build());
+    }
+
+    @Test(expected = ShiftIllegalArgumentException.class)
+    public void testUpdateShiftsOutsideOfDay() {
+        Shift existingShift = getDefaultExistingShift().get();
+        existingShift.setId(1L);
+        existingShift.setUsername("username");
+
+        Mockito.when(shiftDao.findAll(any(Specification.class), any(Sort.class))).thenReturn(Lists.newArrayList(existingShift));
+
+        shiftService.updateShifts(BulkShiftDto.builder().username("username").offsetMinutes(-30).build());
+    }
+
+    @Test
+    public void testGetAllShiftsPagesByKeyset() {
+        List<Shift> shifts = Lists.newArrayList(
+                Shift.builder().id(1L).shiftDate(DATE).startTime(LocalTime.of(8, 0)).endTime(LocalTime.of(9, 0)).build(),
+                Shift.builder().id(2L).shiftDate(DATE).startTime(LocalTime.of(8, 0)).endTime(LocalTime.of(10, 0)).build(),
+                Shift.builder().id(3L).shiftDate(DATE).startTime(LocalTime.of(9, 0)).endTime(LocalTime.of(10, 0)).build());
+        Mockito.when(shiftDao.findAll(any(Specification.class), any(Sort.class), eq(2))).thenReturn(shifts.subList(0, 2));
+
+        ResultShiftPageDto page = shiftService.getAllShifts(SearchShiftDto.builder()
+                .toEndHour(23)
+                .toEndMinute(59)
+                .limit(1)
+                .build());
+
+        assertEquals(1, page.getShifts().size());
+        ShiftCursor nextCursor = ShiftCursor.decode(page.getNextCursor());
+        assertEquals(DATE, nextCursor.getShiftDate());
+        assertEquals(LocalTime.of(8, 0), nextCursor.getStartTime());
+        assertEquals(1L, nextCursor.getId());
+    }
+
+    @Test
+    public void testGetAllShiftsAcceptsLargestPage() {
+        Mockito.when(shiftDao.findAll(any(Specification.class), any(Sort.class), eq(1001))).thenReturn(Lists.newArrayList());
+
+        ResultShiftPageDto page = shiftService.getAllShifts(getPageSearch(1000));
+
+        assertTrue(page.getShifts().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test(expected = ShiftIllegalArgumentException.class)
+    public void testGetAllShiftsWithEmptyPage() {
+        shiftService.getAllShifts(getPageSearch(0));
+    }
+
+    @Test(expected = ShiftIllegalArgumentException.class)
+    public void testGetAllShiftsWithTooLargePage() {
+        shiftService.getAllShifts(getPageSearch(1001));
+    }
+
+    @Test(expected = ShiftIllegalArgumentException.class)
+    public void testGetAllShiftsWithOverflowingPage() {
+        // limit + 1 would wrap around to a negative page size
+        shiftService.getAllShifts(getPageSearch(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testGetAllShiftsWithMinuteFields() {
+        Mockito.when(shiftDao.findAll(any(Specification.class), any(Sort.class))).thenReturn(Lists.newArrayList(
+                Shift.builder().id(1L).shiftDate(DATE).startTime(LocalTime.of(8, 30)).endTime(LocalTime.of(17, 0)).build()));
+
+        ResultShiftPageDto page = shiftService.getAllShifts(SearchShiftDto.builder()
+                .toEndHour(23)
+                .toEndMinute(59)
+                .minuteFields(true)
+                .build());
+
+        ResultShiftDto shift = page.getShifts().get(0);
+        assertEquals(Integer.valueOf(8 * 60 + 30), shift.getStartMinute());
+        assertEquals(Integer.valueOf(17 * 60), shift.getEndMinute());
+        assertNull(shift.getStartTime());
+        assertNull(shift.getEndTime());
+    }
+
+    @Test
+    public void testGetAllShiftsMergesTemplateOccurrences() {
+        List<Shift> shifts = Lists.newArrayList(
+                Shift.builder().id(1L).shiftDate(DATE).startTime(LocalTime.of(8, 0)).endTime(LocalTime.of(9, 0)).build(),
+                Shift.builder().id(2L).shiftDate(DATE).startTime(LocalTime.of(9, 0)).endTime(LocalTime.of(10, 0)).build());
+        Mockito.when(shiftDao.findAll(any(Specification.class), any(Sort.class), eq(2))).thenReturn(shifts);
+        Mockito.when(shiftTemplateService.getOccurrences(null, DATE, DATE)).thenReturn(Lists.newArrayList(
+                Shift.builder().templateId(3L).shiftDate(DATE).startTime(LocalTime.of(7, 0)).endTime(LocalTime.of(8, 0)).build(),
+                Shift.builder().templateId(4L).shiftDate(DATE).startTime(LocalTime.of(22, 0)).endTime(LocalTime.of(23, 59)).build()));
+
+        ResultShiftPageDto page = shiftService.getAllShifts(SearchShiftDto.builder()
+                .toEndHour(23)
+                .toEndMinute(0)
+                .fromDate(DATE)
+                .toDate(DATE)
+                .limit(1)
+                .build());
+
+        // the occurrence ending after the searched time frame is left out
+        assertEquals(1, page.getShifts().size());
+        assertEquals(Long.valueOf(3L), page.getShifts().get(0).getTemplateId());
+        assertEquals(-3L, ShiftCursor.decode(page.getNextCursor()).getId());
+    }
+
+    private SearchShiftDto getPageSearch(int limit) {
+        return SearchShiftDto.builder()
+                .toEndHour(23)
+                .toEndMinute(59)
+                .limit(limit)
+                .build();
+    }
+
     private ShiftDto getDefaultShiftDto() {
         return ShiftDto.builder()
                 .startHour(0)
@@ -89,11 +313,13 @@ public class ShiftServiceTest {
                 .endHour(8)
                 .endMinute(0)
                 .username("username")
+                .date(DATE)
                 .build();
     }
 
     private ResultShiftDto getDefaultResultShiftDto() {
         return ResultShiftDto.builder()
+                .date(DATE.toString())
                 .startTime("12:00 AM")
                 .endTime("08:00 AM")
                 .build();
@@ -101,6 +327,7 @@ public class ShiftServiceTest {
 
     private Optional<Shift> getDefaultExistingShift() {
         return Optional.of(Shift.builder()
+                .shiftDate(DATE)
                 .startTime(LocalTime.MIDNIGHT)
                 .endTime(LocalTime.of(8, 0))
                 .build());
@@ -0,0 +1,151 @@
+package shift.service;
+
+import org.assertj.core.util.Lists;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
+import shift.domain.dao.ShiftRepository;
+import shift.domain.dao.ShiftTemplateRepository;
+import shift.domain.dto.ShiftTemplateDto;
+import shift.domain.h2.Shift.Shift;
+import shift.domain.h2.Shift.ShiftTemplate;
+import shift.exception.ShiftIllegalArgumentException;
+import shift.service.Shift.ShiftTemplateChangedEvent;
+import shift.service.Shift.ShiftTemplateService;
+import shift.service.User.UserService;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ShiftTemplateServiceTest {
+    // a monday
+    private static final LocalDate MONDAY = LocalDate.of(2018, 11, 26);
+
+    @Mock
+    ShiftTemplateRepository shiftTemplateDao;
+
+    @Mock
+    ShiftRepository shiftDao;
+
+    @Mock
+    UserService userService;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    ShiftTemplateService shiftTemplateService;
+
+    @Before
+    public void init() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    public void testOccurrencesFallOnWeekdaysWithinValidity() {
+        ShiftTemplate template = getTemplate(1L, EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY), 9, 17, MONDAY, MONDAY.plusDays(9));
+        Mockito.when(shiftTemplateDao.findValidBetween(MONDAY.plusDays(2), MONDAY.plusDays(14))).thenReturn(Lists.newArrayList(template));
+
+        List<Shift> occurrences = shiftTemplateService.getOccurrences(null, MONDAY.plusDays(2), MONDAY.plusDays(14));
+
+        assertEquals(Lists.newArrayList(MONDAY.plusDays(2), MONDAY.plusDays(7), MONDAY.plusDays(9)),
+                occurrences.stream().map(Shift::getShiftDate).collect(Collectors.toList()));
+        assertNull(occurrences.get(0).getId());
+        assertEquals(Long.valueOf(1L), occurrences.get(0).getTemplateId());
+        assertEquals(LocalTime.of(9, 0), occurrences.get(0).getStartTime());
+    }
+
+    @Test(expected = ShiftIllegalArgumentException.class)
+    public void testOccurrencesRejectLongRanges() {
+        shiftTemplateService.getOccurrences(null, MONDAY, MONDAY.plusDays(ShiftTemplateService.MAX_EXPANDED_DAYS));
+    }
+
+    @Test(expected = ShiftIllegalArgumentException.class)
+    public void testCreateTemplateOverlappingTemplate() {
+        Mockito.when(userService.getCurrentUsername("username")).thenReturn("username");
+        Mockito.when(shiftTemplateDao.findByUsername("username")).thenReturn(Lists.newArrayList(
+                getTemplate(1L, EnumSet.of(DayOfWeek.MONDAY), 9, 17, MONDAY, null)));
+
+        shiftTemplateService.createShiftTemplate(getTemplateDto(EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY), 16, 18, MONDAY.plusDays(70)));
+    }
+
+    @Test
+    public void testCreateTemplateWhenCommonPeriodMissesCommonWeekdays() {
+        Mockito.when(userService.getCurrentUsername("username")).thenReturn("username");
+        // the templates share wednesdays, but are only both valid on a monday and tuesday
+        Mockito.when(shiftTemplateDao.findByUsername("username")).thenReturn(Lists.newArrayList(
+                getTemplate(1L, EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY), 9, 17, MONDAY.minusDays(14), MONDAY.plusDays(1))));
+
+        assertEquals(Lists.newArrayList(DayOfWeek.WEDNESDAY),
+                shiftTemplateService.createShiftTemplate(getTemplateDto(EnumSet.of(DayOfWeek.WEDNESDAY), 9, 17, MONDAY)).getDaysOfWeek());
+        verify(shiftTemplateDao, times(1)).save(any(ShiftTemplate.class));
+        verify(eventPublisher, times(1)).publishEvent(any(ShiftTemplateChangedEvent.class));
+    }
+
+    @Test(expected = ShiftIllegalArgumentException.class)
+    public void testCreateTemplateOverlappingStoredShift() {
+        Mockito.when(userService.getCurrentUsername("username")).thenReturn("username");
+        Mockito.when(shiftDao.findAll(any(Specification.class))).thenReturn(Lists.newArrayList(
+                Shift.builder().id(1L).username("username").shiftDate(MONDAY.plusDays(2)).startTime(LocalTime.of(8, 0)).endTime(LocalTime.of(10, 0)).build()));
+
+        shiftTemplateService.createShiftTemplate(getTemplateDto(EnumSet.of(DayOfWeek.WEDNESDAY), 9, 17, MONDAY));
+    }
+
+    @Test
+    public void testOverlappingTemplateOnlyOnItsWeekdays() {
+        Mockito.when(shiftTemplateDao.findValidBetweenForUser(any(String.class), any(LocalDate.class), any(LocalDate.class))).thenReturn(Lists.newArrayList(
+                getTemplate(1L, EnumSet.of(DayOfWeek.MONDAY), 9, 17, MONDAY, null)));
+
+        assertTrue(shiftTemplateService.isOverlappingTemplate("username", MONDAY.plusDays(7), LocalTime.of(16, 0), LocalTime.of(18, 0)));
+        assertFalse(shiftTemplateService.isOverlappingTemplate("username", MONDAY.plusDays(7), LocalTime.of(17, 0), LocalTime.of(18, 0)));
+        assertFalse(shiftTemplateService.isOverlappingTemplate("username", MONDAY.plusDays(8), LocalTime.of(16, 0), LocalTime.of(18, 0)));
+    }
+
+    private ShiftTemplate getTemplate(long id, EnumSet<DayOfWeek> daysOfWeek, int startHour, int endHour, LocalDate validFrom, LocalDate validTo) {
+        int days = 0;
+        for (DayOfWeek dayOfWeek : daysOfWeek) {
+            days |= ShiftTemplate.toDayOfWeekBit(dayOfWeek);
+        }
+        return ShiftTemplate.builder()
+                .id(id)
+                .username("username")
+                .daysOfWeek(days)
+                .startTime(LocalTime.of(startHour, 0))
+                .endTime(LocalTime.of(endHour, 0))
+                .validFrom(validFrom)
+                .validTo(validTo)
+                .build();
+    }
+
+    private ShiftTemplateDto getTemplateDto(EnumSet<DayOfWeek> daysOfWeek, int startHour, int endHour, LocalDate validFrom) {
+        return ShiftTemplateDto.builder()
+                .username("username")
+                .daysOfWeek(daysOfWeek)
+                .startHour(startHour)
+                .startMinute(0)
+                .endHour(endHour)
+                .endMinute(0)
+                .validFrom(validFrom)
+                .build();
+    }
+}
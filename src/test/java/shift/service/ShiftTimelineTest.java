@@ -0,0 +1,146 @@
+package shift.service;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import shift.domain.dao.ShiftRepository;
+import shift.domain.dto.ResultShiftDto;
+import shift.domain.h2.Shift.Shift;
+import shift.exception.ShiftIllegalArgumentException;
+import shift.service.Shift.ShiftChangedEvent;
+import shift.service.Shift.ShiftInterval;
+import shift.service.Shift.ShiftTemplateChangedEvent;
+import shift.service.Shift.ShiftTemplateService;
+import shift.service.Shift.ShiftTimeline;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ShiftTimelineTest {
+    private static final LocalDate DATE = LocalDate.of(2018, 11, 30);
+
+    private ShiftTemplateService shiftTemplateService;
+    private ShiftTimeline shiftTimeline;
+
+    @Before
+    public void init() {
+        ShiftRepository shiftDao = Mockito.mock(ShiftRepository.class);
+        // a new stream per load, since dates are reloaded after template changes
+        Mockito.when(shiftDao.streamByShiftDate(DATE)).thenAnswer(invocation -> Stream.of(
+                getShift(1L, "first", LocalTime.of(8, 0), LocalTime.of(12, 0)),
+                getShift(2L, "second", LocalTime.of(9, 0), LocalTime.of(17, 0))));
+
+        shiftTemplateService = Mockito.mock(ShiftTemplateService.class);
+        shiftTimeline = new ShiftTimeline(shiftDao, shiftTemplateService, Mockito.mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(shiftTimeline, "entityManager", Mockito.mock(EntityManager.class));
+    }
+
+    @Test
+    public void testShiftsAtTime() {
+        assertEquals(ids(1L), getIdsAt(8, 0));
+        assertEquals(ids(1L, 2L), getIdsAt(11, 59));
+        // a shift is no longer worked at its end time
+        assertEquals(ids(2L), getIdsAt(12, 0));
+        assertTrue(getIdsAt(17, 0).isEmpty());
+    }
+
+    @Test
+    public void testShiftsAtTimeFollowShiftChanges() {
+        shiftTimeline.getShiftsAt(DATE, 0, 0);
+
+        shiftTimeline.onShiftChanged(ShiftChangedEvent.deleted(new ShiftInterval(1L, "first", DATE, 8 * 60, 12 * 60)));
+        shiftTimeline.onShiftChanged(ShiftChangedEvent.created(new ShiftInterval(3L, "third", DATE, 7 * 60 + 15, 9 * 60 + 45)));
+
+        assertEquals(ids(3L), getIdsAt(8, 0));
+        assertEquals(ids(2L, 3L), getIdsAt(9, 30));
+    }
+
+    @Test
+    public void testShiftsAtTimeIncludeTemplateOccurrences() {
+        Mockito.when(shiftTemplateService.getOccurrences(null, DATE, DATE)).thenReturn(Collections.singletonList(
+                Shift.builder().templateId(5L).username("third").shiftDate(DATE).startTime(LocalTime.of(7, 0)).endTime(LocalTime.of(9, 0)).build()));
+
+        List<ResultShiftDto> shifts = shiftTimeline.getShiftsAt(DATE, 8, 30);
+
+        assertEquals(2, shifts.size());
+        ResultShiftDto occurrence = shifts.stream().filter(shift -> shift.getId() == null).findFirst().get();
+        assertEquals(Long.valueOf(5L), occurrence.getTemplateId());
+        assertEquals("third", occurrence.getUser());
+    }
+
+    @Test
+    public void testTemplateChangesReloadDates() {
+        shiftTimeline.getShiftsAt(DATE, 0, 0);
+        Mockito.when(shiftTemplateService.getOccurrences(null, DATE, DATE)).thenReturn(Collections.singletonList(
+                Shift.builder().templateId(5L).username("third").shiftDate(DATE).startTime(LocalTime.of(7, 0)).endTime(LocalTime.of(9, 0)).build()));
+
+        shiftTimeline.onShiftTemplateChanged(new ShiftTemplateChangedEvent("third"));
+
+        assertEquals(1, shiftTimeline.getShiftsAt(DATE, 7, 30).size());
+    }
+
+    @Test
+    public void testShiftsAtTimeMatchScan() {
+        shiftTimeline.getShiftsAt(DATE, 0, 0);
+
+        Random random = new Random(7);
+        int[][] intervals = new int[200][];
+        for (int i = 0; i < intervals.length; i++) {
+            int start = random.nextInt(1439);
+            intervals[i] = new int[]{start, start + 1 + random.nextInt(1439 - start)};
+            shiftTimeline.onShiftChanged(ShiftChangedEvent.created(new ShiftInterval(10L + i, "user" + i, DATE, intervals[i][0], intervals[i][1])));
+        }
+
+        for (int minute = 0; minute < 1440; minute++) {
+            int minuteOfDay = minute;
+            Set<Long> expected = IntStream.range(0, intervals.length)
+                    .filter(i -> intervals[i][0] <= minuteOfDay && minuteOfDay < intervals[i][1])
+                    .mapToObj(i -> 10L + i)
+                    .collect(Collectors.toSet());
+            if (8 * 60 <= minute && minute < 12 * 60) {
+                expected.add(1L);
+            }
+            if (9 * 60 <= minute && minute < 17 * 60) {
+                expected.add(2L);
+            }
+            assertEquals(expected, getIdsAt(minute / 60, minute % 60));
+        }
+    }
+
+    @Test(expected = ShiftIllegalArgumentException.class)
+    public void testTimeMustBeWithinTheDay() {
+        shiftTimeline.getShiftsAt(DATE, 24, 0);
+    }
+
+    private Set<Long> getIdsAt(int hour, int minute) {
+        List<ResultShiftDto> shifts = shiftTimeline.getShiftsAt(DATE, hour, minute);
+        return shifts.stream().map(ResultShiftDto::getId).collect(Collectors.toSet());
+    }
+
+    private Set<Long> ids(Long... ids) {
+        return Stream.of(ids).collect(Collectors.toSet());
+    }
+
+    private Shift getShift(Long id, String username, LocalTime startTime, LocalTime endTime) {
+        return Shift.builder()
+                .id(id)
+                .username(username)
+                .shiftDate(DATE)
+                .startTime(startTime)
+                .endTime(endTime)
+                .build();
+    }
+}
@@ -104,4 +104,17 @@ public class UserServiceTest {
         userService.createUser(user);
         verify(userDao, times(1)).save(user);
     }
+
+    @Test
+    public void testRevokeTokensBumpsTokenVersion() {
+        String username = "username";
+        User user = new User(username, "password", Sets.newHashSet());
+        when(userDao.findOne(any(UserSpecification.class))).thenReturn(Optional.of(user));
+
+        assertEquals(0, userService.getTokenVersion(username));
+        userService.revokeTokens(username);
+
+        verify(userDao, times(1)).save(user);
+        assertEquals(1, userService.getTokenVersion(username));
+    }
 }